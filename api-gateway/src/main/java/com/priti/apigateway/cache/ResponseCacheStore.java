@@ -0,0 +1,99 @@
+package com.priti.apigateway.cache;
+
+import org.springframework.http.MediaType;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Cached GET responses of one route: least recently used eviction by entry count and total body bytes, plus a TTL.
+//
+// Invalidation bumps a generation counter. A response is only stored if no invalidation happened since its request
+// started, so a read that raced with a write cannot put the pre-write data back after the write invalidated it.
+public final class ResponseCacheStore {
+
+    private final long ttlNanos;
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    private final Map<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+
+    private long generation;
+
+    public ResponseCacheStore(long ttlMillis, int maxEntries, long maxBytes) {
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized CachedResponse get(String key) {
+        CachedResponse cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (System.nanoTime() - cached.expiresAt() >= 0) {
+            remove(key);
+            return null;
+        }
+        return cached;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(String key, String path, MediaType contentType, byte[] body, long requestGeneration) {
+        if (requestGeneration != generation || body.length > maxBytes) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new CachedResponse(path, contentType, body, System.nanoTime() + ttlNanos));
+        bytes += body.length;
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            bytes -= eldest.next().body().length;
+            eldest.remove();
+        }
+    }
+
+    // Drops entries for the written path, the resources below it and the collections above it:
+    // a PUT to /medical-profiles/42 invalidates /medical-profiles/42 and the /medical-profiles list.
+    public synchronized void invalidate(String writtenPath) {
+        generation++;
+        Iterator<CachedResponse> it = entries.values().iterator();
+        while (it.hasNext()) {
+            CachedResponse cached = it.next();
+            if (related(cached.path(), writtenPath)) {
+                bytes -= cached.body().length;
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void remove(String key) {
+        CachedResponse removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.body().length;
+        }
+    }
+
+    private static boolean related(String cachedPath, String writtenPath) {
+        return isSameOrBelow(cachedPath, writtenPath) || isSameOrBelow(writtenPath, cachedPath);
+    }
+
+    private static boolean isSameOrBelow(String path, String parent) {
+        String trimmedParent = parent.endsWith("/") ? parent.substring(0, parent.length() - 1) : parent;
+        return path.equals(trimmedParent) || path.startsWith(trimmedParent + "/");
+    }
+
+    public record CachedResponse(String path, MediaType contentType, byte[] body, long expiresAt) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.priti.apigateway.controller;
+
+import com.priti.apigateway.metrics.LatencyMetrics;
+import com.priti.apigateway.metrics.LatencySummary;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/diagnostics")
+public class DiagnosticsController {
+
+    private final LatencyMetrics latencyMetrics;
+
+    public DiagnosticsController(LatencyMetrics latencyMetrics) {
+        this.latencyMetrics = latencyMetrics;
+    }
+
+    // GET /diagnostics/latency -> route -> stage (total, jwtValidation, upstream) -> window -> percentiles in ms
+    @GetMapping("/latency")
+    public Map<String, Map<String, Map<String, LatencySummary>>> latency() {
+        return latencyMetrics.snapshot();
+    }
+}
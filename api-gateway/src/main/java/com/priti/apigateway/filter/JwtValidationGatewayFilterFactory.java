@@ -1,23 +1,58 @@
 package com.priti.apigateway.filter;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.priti.apigateway.jwt.JwksKeyCache;
+import com.priti.apigateway.jwt.RevocationCache;
+import com.priti.apigateway.metrics.LatencyMetrics;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.security.interfaces.RSAPublicKey;
 
 @Component
 public class JwtValidationGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
 
-    private final WebClient webClient;
+    // Exchange attribute holding the role claim of a verified token, for filters further down the chain
+    public static final String ROLE_ATTRIBUTE = JwtValidationGatewayFilterFactory.class.getName() + ".role";
+
+    // Exchange attribute holding the subject (user email) of a verified token
+    public static final String SUBJECT_ATTRIBUTE = JwtValidationGatewayFilterFactory.class.getName() + ".subject";
+
+    private final JwksKeyCache keyCache;
+
+    private final RevocationCache revocationCache;
+
+    private final LatencyMetrics latencyMetrics;
 
-    public JwtValidationGatewayFilterFactory(WebClient.Builder webClientBuilder,
-                                             @Value("${auth.service.url}") String authServiceUrl) {
-        this.webClient = webClientBuilder.baseUrl(authServiceUrl).build();
+    private final JwtParser parser;
+
+    public JwtValidationGatewayFilterFactory(JwksKeyCache keyCache, RevocationCache revocationCache, LatencyMetrics latencyMetrics) {
+        this.keyCache = keyCache;
+        this.revocationCache = revocationCache;
+        this.latencyMetrics = latencyMetrics;
+        this.parser = Jwts.parser()
+                .keyLocator(header -> {
+                    RSAPublicKey key = keyCache.getKey(((ProtectedHeader) header).getKeyId());
+                    if (key == null) {
+                        throw new UnknownKeyException();
+                    }
+                    return key;
+                })
+                .build();
     }
-    // The above constructor initializes the WebClient with the base URL of the authentication service.
+    // The above constructor builds one thread-safe parser that picks the public key by the token's kid from the JWKS cache.
+    // Tokens are verified right here in the gateway (signature + expiry + not revoked): no call to auth-service per request.
 
 
     @Override
@@ -25,16 +60,70 @@ public class JwtValidationGatewayFilterFactory extends AbstractGatewayFilterFact
         return (exchange, chain) -> { //exchange variable is an object that gets passed to us by spring gateway that holds all the properties for current request, chain variable that manages the chain of filters that currently exist in filter chain
             String token = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION); // get the Authorization header from the request and we are assigning it to the token variable
             if (token == null || !token.startsWith("Bearer ")) {
-                exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED); // if the token is null or does not start with "Bearer ", we set the response status to UNAUTHORIZED
-                return exchange.getResponse().setComplete(); // and we complete the response. return this response to the client.
+                return unauthorized(exchange); // if the token is null or does not start with "Bearer ", we return UNAUTHORIZED to the client
             }
 
-            return webClient.get()
-                    .uri("/validate") // we are making a GET request to the /validate endpoint of the authentication service
-                    .header(HttpHeaders.AUTHORIZATION, token) // we are passing the token in the Authorization header
-                    .retrieve() // we are retrieving the response from the authentication service
-                    .toBodilessEntity() // we are converting the response to a bodiless entity, which means we are not interested in the body of the response
-                    .then(chain.filter(exchange)); // if the response is successful, we continue with the request.
+            String jwt = token.substring(7);
+            long start = System.nanoTime();
+            switch (verify(jwt, exchange)) {
+                case VALID:
+                    recordValidation(exchange, start);
+                    return chain.filter(exchange); // if the token is valid, we continue with the request.
+                case UNKNOWN_KEY:
+                    // signed with a key we have not seen yet: reload the key set (rate-limited) and try once more
+                    return keyCache.refreshIfAllowed()
+                            .then(Mono.defer(() -> {
+                                boolean valid = verify(jwt, exchange) == Verification.VALID;
+                                recordValidation(exchange, start);
+                                return valid ? chain.filter(exchange) : unauthorized(exchange);
+                            }));
+                default:
+                    recordValidation(exchange, start);
+                    return unauthorized(exchange);
+            }
         };
     }
+
+    private Verification verify(String jwt, ServerWebExchange exchange) {
+        try {
+            Claims claims = parser.parseSignedClaims(jwt).getPayload(); // throws if the signature does not match or the token has expired
+            if (claims.getId() == null || revocationCache.isRevoked(claims.getId())) {
+                return Verification.INVALID; // logged out (every token we issue has a jti)
+            }
+            String role = claims.get("role", String.class);
+            if (role != null) {
+                exchange.getAttributes().put(ROLE_ATTRIBUTE, role);
+            }
+            if (claims.getSubject() != null) {
+                exchange.getAttributes().put(SUBJECT_ATTRIBUTE, claims.getSubject());
+            }
+            return Verification.VALID;
+        } catch (UnknownKeyException e) {
+            return Verification.UNKNOWN_KEY;
+        } catch (JwtException | IllegalArgumentException e) {
+            return Verification.INVALID;
+        }
+    }
+
+    private void recordValidation(ServerWebExchange exchange, long start) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route != null) {
+            latencyMetrics.record(route.getId(), LatencyMetrics.Stage.JWT_VALIDATION, System.nanoTime() - start);
+        }
+    }
+
+    private static Mono<Void> unauthorized(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        return exchange.getResponse().setComplete();
+    }
+
+    private enum Verification {
+        VALID, UNKNOWN_KEY, INVALID
+    }
+
+    private static class UnknownKeyException extends JwtException {
+        UnknownKeyException() {
+            super("Unknown signing key");
+        }
+    }
 }
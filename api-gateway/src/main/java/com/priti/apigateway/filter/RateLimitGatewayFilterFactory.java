@@ -0,0 +1,139 @@
+package com.priti.apigateway.filter;
+
+import com.priti.apigateway.ratelimit.TokenBuckets;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// In-memory token-bucket rate limiting per route, without Redis (unlike Spring Cloud Gateway's RequestRateLimiter):
+//
+//   filters:
+//     - JwtValidation
+//     - name: RateLimit
+//       args:
+//         replenish-rate: 20       # tokens per second per principal
+//         burst-capacity: 40       # bucket size per principal
+//         route-replenish-rate: 500 # optional limit for all principals together, 0 = off
+//         route-burst-capacity: 1000 # defaults to one second of route-replenish-rate
+//
+// The principal is the JWT subject set by JwtValidation (so it must come first), or the client address on routes
+// without it. Rejected requests get 429 with Retry-After. Limits apply per gateway instance.
+@Component
+public class RateLimitGatewayFilterFactory extends AbstractGatewayFilterFactory<RateLimitGatewayFilterFactory.Config>
+        implements DisposableBean {
+
+    private static final String ROUTE_KEY = "";
+
+    private static final Duration SWEEP_INTERVAL = Duration.ofSeconds(30);
+
+    private final List<TokenBuckets> allBuckets = new CopyOnWriteArrayList<>();
+
+    // Drops the buckets of idle principals, off the event loop
+    private final Disposable sweeping = Flux.interval(SWEEP_INTERVAL, SWEEP_INTERVAL, Schedulers.boundedElastic())
+            .subscribe(tick -> allBuckets.forEach(buckets -> buckets.sweep(System.nanoTime())));
+
+    public RateLimitGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("replenishRate", "burstCapacity");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        TokenBuckets principalBuckets = new TokenBuckets(config.getReplenishRate(), config.getBurstCapacity());
+        TokenBuckets routeBucket = config.getRouteReplenishRate() > 0
+                ? new TokenBuckets(config.getRouteReplenishRate(), config.getRouteBurstCapacity() > 0
+                        ? config.getRouteBurstCapacity()
+                        : (long) Math.ceil(config.getRouteReplenishRate()))
+                : null;
+        allBuckets.add(principalBuckets);
+        return (exchange, chain) -> {
+            long now = System.nanoTime();
+            String principal = principal(exchange);
+            long waitNanos = principalBuckets.tryAcquire(principal, now);
+            if (waitNanos == 0 && routeBucket != null) {
+                waitNanos = routeBucket.tryAcquire(ROUTE_KEY, now);
+                if (waitNanos > 0) {
+                    // Rejected by the route limit: the request must not count against the caller's own quota
+                    principalBuckets.refund(principal);
+                }
+            }
+            if (waitNanos > 0) {
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                // Retry-After is in whole seconds: round up so a client that honours it is not rejected again
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf((waitNanos + 999_999_999L) / 1_000_000_000L));
+                return exchange.getResponse().setComplete();
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    @Override
+    public void destroy() {
+        sweeping.dispose();
+    }
+
+    private static String principal(ServerWebExchange exchange) {
+        String subject = exchange.getAttribute(JwtValidationGatewayFilterFactory.SUBJECT_ATTRIBUTE);
+        if (subject != null) {
+            return subject;
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return remoteAddress == null || remoteAddress.getAddress() == null ? "unknown" : "ip:" + remoteAddress.getAddress().getHostAddress();
+    }
+
+    public static class Config {
+        private double replenishRate = 20;
+        private long burstCapacity = 40;
+        private double routeReplenishRate = 0;
+        private long routeBurstCapacity = 0;
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public long getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(long burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public double getRouteReplenishRate() {
+            return routeReplenishRate;
+        }
+
+        public void setRouteReplenishRate(double routeReplenishRate) {
+            this.routeReplenishRate = routeReplenishRate;
+        }
+
+        public long getRouteBurstCapacity() {
+            return routeBurstCapacity;
+        }
+
+        public void setRouteBurstCapacity(long routeBurstCapacity) {
+            this.routeBurstCapacity = routeBurstCapacity;
+        }
+    }
+}
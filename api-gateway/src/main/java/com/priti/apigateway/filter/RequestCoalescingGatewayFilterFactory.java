@@ -0,0 +1,155 @@
+package com.priti.apigateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Single-flight for GET requests of a route: while a request is on its way upstream, identical requests (same role,
+// path, query, Accept and Accept-Encoding) wait for its response instead of going upstream themselves. The first one
+// (the leader) streams its response to its own client as usual while a copy is taken; when it completes the copy is
+// written to every waiter. A waiter that has not been served within wait-budget, or whose leader failed or produced
+// a response that must not be shared (not 2xx, too large, private, Set-Cookie), goes upstream on its own.
+//
+//   filters:
+//     - name: RequestCoalescing
+//       args:
+//         wait-budget: 2s
+@Component
+public class RequestCoalescingGatewayFilterFactory extends AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+
+    public static final String COALESCED_HEADER = "X-Coalesced";
+
+    // Set by the proxied response and recomputed for each copy
+    private static final Set<String> NOT_COPIED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        NOT_COPIED_HEADERS.addAll(List.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION));
+    }
+
+    public RequestCoalescingGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("waitBudget");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Map<String, Sinks.One<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            String key = exchange.getAttributeOrDefault(JwtValidationGatewayFilterFactory.ROLE_ATTRIBUTE, "")
+                    + " " + request.getURI().getRawPath()
+                    + "?" + request.getURI().getRawQuery()
+                    + " " + request.getHeaders().getFirst(HttpHeaders.ACCEPT)
+                    + " " + request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+
+            Sinks.One<SharedResponse> flight = Sinks.one();
+            Sinks.One<SharedResponse> leaderFlight = inFlight.putIfAbsent(key, flight);
+            if (leaderFlight != null) {
+                return leaderFlight.asMono()
+                        .map(Optional::of)
+                        .timeout(config.getWaitBudget())
+                        .onErrorReturn(Optional.empty())
+                        .flatMap(shared -> shared.isPresent()
+                                ? write(exchange.getResponse(), shared.get())
+                                : chain.filter(exchange)); // no usable response in time: fetch our own
+            }
+
+            ServerHttpResponseDecorator sharing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+                @Override
+                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                    // Only successful responses are shared; waiters of a failed leader try upstream themselves
+                    if (getStatusCode() == null || !getStatusCode().is2xxSuccessful() || !ResponseBodyCopy.shareable(getHeaders())) {
+                        finish(inFlight, key, flight, null);
+                        return super.writeWith(body);
+                    }
+                    Flux<DataBuffer> tapped = ResponseBodyCopy.tap(body, config.getMaxBytes(), copy -> {
+                        if (copy == null) {
+                            finish(inFlight, key, flight, null);
+                            return;
+                        }
+                        HttpHeaders headers = new HttpHeaders();
+                        headers.addAll(getHeaders());
+                        finish(inFlight, key, flight, new SharedResponse(getStatusCode(), headers, copy));
+                    });
+                    return super.writeWith(tapped);
+                }
+            };
+            // Releases the waiters however the leader ends (error, cancelled client, no body written)
+            return chain.filter(exchange.mutate().response(sharing).build())
+                    .doFinally(signal -> finish(inFlight, key, flight, null));
+        };
+    }
+
+    // Later identical requests start a new flight from here on; current waiters get the response or go upstream
+    private static void finish(Map<String, Sinks.One<SharedResponse>> inFlight, String key,
+                               Sinks.One<SharedResponse> flight, SharedResponse response) {
+        inFlight.remove(key, flight);
+        if (response != null) {
+            flight.tryEmitValue(response);
+        } else {
+            flight.tryEmitError(new IllegalStateException("response of the leading request cannot be shared"));
+        }
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        shared.headers().forEach((name, values) -> {
+            if (!NOT_COPIED_HEADERS.contains(name)) {
+                response.getHeaders().put(name, values);
+            }
+        });
+        response.getHeaders().setContentLength(shared.body().length);
+        response.getHeaders().set(COALESCED_HEADER, "true");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    public static class Config {
+        private Duration waitBudget = Duration.ofSeconds(2);
+        private long maxBytes = 1024 * 1024; // larger responses are not shared
+
+        public Duration getWaitBudget() {
+            return waitBudget;
+        }
+
+        public void setWaitBudget(Duration waitBudget) {
+            this.waitBudget = waitBudget;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+}
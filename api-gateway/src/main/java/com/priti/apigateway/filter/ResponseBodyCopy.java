@@ -0,0 +1,45 @@
+package com.priti.apigateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.Consumer;
+
+// Shared by the filters that keep a proxied response to serve it again (ResponseCache, RequestCoalescing)
+final class ResponseBodyCopy {
+
+    private ResponseBodyCopy() {
+    }
+
+    // Respect upstream opt-outs, and never share a response that sets a cookie
+    static boolean shareable(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null && (cacheControl.contains("no-store") || cacheControl.contains("private"))) {
+            return false;
+        }
+        return !headers.containsKey(HttpHeaders.SET_COOKIE);
+    }
+
+    // Copies the body while it streams to the client, leaving the buffers untouched. When the body completes,
+    // onComplete gets the copy, or null if the body was larger than maxBytes (copying stops there).
+    static Flux<DataBuffer> tap(Publisher<? extends DataBuffer> body, long maxBytes, Consumer<byte[]> onComplete) {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        boolean[] tooLarge = {false};
+        return Flux.<DataBuffer>from(body).map(buffer -> {
+            int length = buffer.readableByteCount();
+            if (!tooLarge[0] && copy.size() + length <= maxBytes) {
+                byte[] bytes = new byte[length];
+                int readPosition = buffer.readPosition();
+                buffer.read(bytes);
+                buffer.readPosition(readPosition);
+                copy.writeBytes(bytes);
+            } else {
+                tooLarge[0] = true;
+            }
+            return buffer;
+        }).doOnComplete(() -> onComplete.accept(tooLarge[0] ? null : copy.toByteArray()));
+    }
+}
@@ -0,0 +1,137 @@
+package com.priti.apigateway.filter;
+
+import com.priti.apigateway.cache.ResponseCacheStore;
+import com.priti.apigateway.cache.ResponseCacheStore.CachedResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+// Caches 200 responses of GET requests at the edge, per route:
+//
+//   filters:
+//     - JwtValidation
+//     - name: ResponseCache
+//       args:
+//         ttl: 5s
+//         max-entries: 1000
+//
+// Entries are keyed by role (from JwtValidation, so it must come first), path and query string. A POST, PUT, PATCH or
+// DELETE through the same route drops the entries for its path and the paths above and below it, both when it is
+// forwarded and when it completes. Each gateway instance has its own cache, so a write through another instance is
+// only seen here after the TTL: keep it short.
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_HEADER = "X-Cache";
+
+    private static final Set<HttpMethod> WRITE_METHODS = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    public ResponseCacheGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl", "maxEntries");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        ResponseCacheStore store = new ResponseCacheStore(config.getTtl().toMillis(), config.getMaxEntries(), config.getMaxBytes());
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String path = request.getURI().getRawPath();
+            if (WRITE_METHODS.contains(request.getMethod())) {
+                store.invalidate(path);
+                return chain.filter(exchange).doFinally(signal -> store.invalidate(path));
+            }
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String role = exchange.getAttributeOrDefault(JwtValidationGatewayFilterFactory.ROLE_ATTRIBUTE, "");
+            String query = request.getURI().getRawQuery();
+            String key = role + " " + path + (query == null ? "" : "?" + query);
+
+            // Cache-Control: no-cache from the client skips the lookup but still refreshes the entry
+            boolean noCache = request.getHeaders().getCacheControl() != null && request.getHeaders().getCacheControl().contains("no-cache");
+            CachedResponse cached = noCache ? null : store.get(key);
+            if (cached != null) {
+                return writeCached(exchange.getResponse(), cached);
+            }
+
+            long generation = store.generation();
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().set(CACHE_HEADER, "MISS");
+            ServerHttpResponseDecorator caching = new ServerHttpResponseDecorator(response) {
+                @Override
+                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                    if (getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value() || !ResponseBodyCopy.shareable(getHeaders())) {
+                        return super.writeWith(body);
+                    }
+                    // Copy the body while it streams to the client; not cached if it exceeds the cache size
+                    Flux<DataBuffer> tapped = ResponseBodyCopy.tap(body, config.getMaxBytes(), copy -> {
+                        if (copy != null) {
+                            store.put(key, path, getHeaders().getContentType(), copy, generation);
+                        }
+                    });
+                    return super.writeWith(tapped);
+                }
+            };
+            return chain.filter(exchange.mutate().response(caching).build());
+        };
+    }
+
+    private static Mono<Void> writeCached(ServerHttpResponse response, CachedResponse cached) {
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.contentType() != null) {
+            response.getHeaders().setContentType(cached.contentType());
+        }
+        response.getHeaders().setContentLength(cached.body().length);
+        response.getHeaders().set(CACHE_HEADER, "HIT");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    public static class Config {
+        private Duration ttl = Duration.ofSeconds(5);
+        private int maxEntries = 1000;
+        private long maxBytes = 16 * 1024 * 1024; // total body bytes held by this route's cache
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.priti.apigateway.filter;
+
+import com.priti.apigateway.metrics.LatencyMetrics;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// Time spent on the backend: runs right before NettyRoutingFilter (the last filter), whose part of the chain completes
+// once the upstream response headers have arrived. The response body is streamed to the client afterwards.
+@Component
+public class UpstreamLatencyGlobalFilter implements GlobalFilter, Ordered {
+
+    private final LatencyMetrics latencyMetrics;
+
+    public UpstreamLatencyGlobalFilter(LatencyMetrics latencyMetrics) {
+        this.latencyMetrics = latencyMetrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> latencyMetrics.record(route.getId(), LatencyMetrics.Stage.UPSTREAM, System.nanoTime() - start));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+}
@@ -0,0 +1,122 @@
+package com.priti.apigateway.jwt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Public keys of auth-service, fetched from its JWKS endpoint and kept in memory by kid.
+//
+// The key set is refreshed periodically in the background. auth-service publishes a new key well before signing with
+// it, so a token with an unknown kid normally means a forged token or a very recent gateway start; such a miss
+// triggers one extra refresh, rate-limited so bogus kids cannot make us hammer auth-service.
+@Component
+public class JwksKeyCache implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(JwksKeyCache.class);
+
+    private final WebClient webClient;
+
+    private final String jwksPath;
+
+    private final long minRefreshIntervalMillis;
+
+    private final Disposable periodicRefresh;
+
+    private final AtomicLong lastRefreshAttemptMillis = new AtomicLong();
+
+    private volatile Map<String, RSAPublicKey> keys = Map.of();
+
+    public JwksKeyCache(WebClient.Builder webClientBuilder,
+                        @Value("${auth.service.url}") String authServiceUrl,
+                        @Value("${auth.jwks.path:/.well-known/jwks.json}") String jwksPath,
+                        @Value("${auth.jwks.refresh-interval:5m}") Duration refreshInterval,
+                        @Value("${auth.jwks.min-refresh-interval:10s}") Duration minRefreshInterval) {
+        this.webClient = webClientBuilder.baseUrl(authServiceUrl).build();
+        this.jwksPath = jwksPath;
+        this.minRefreshIntervalMillis = minRefreshInterval.toMillis();
+        // First fetch right away; a failure (auth-service not up yet) is retried on the next tick or key miss
+        this.periodicRefresh = Flux.interval(Duration.ZERO, refreshInterval)
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    public RSAPublicKey getKey(String kid) {
+        return kid == null ? null : keys.get(kid);
+    }
+
+    // Refreshes unless another refresh was attempted within the minimum interval; completes when done either way
+    public Mono<Void> refreshIfAllowed() {
+        long now = System.currentTimeMillis();
+        long last = lastRefreshAttemptMillis.get();
+        if (now - last < minRefreshIntervalMillis || !lastRefreshAttemptMillis.compareAndSet(last, now)) {
+            return Mono.empty();
+        }
+        return fetch();
+    }
+
+    private Mono<Void> refresh() {
+        lastRefreshAttemptMillis.set(System.currentTimeMillis());
+        return fetch();
+    }
+
+    private Mono<Void> fetch() {
+        return webClient.get()
+                .uri(jwksPath)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .doOnNext(jwks -> {
+                    Map<String, RSAPublicKey> parsed = parse(jwks);
+                    if (!parsed.keySet().equals(keys.keySet())) {
+                        log.info("Loaded JWKS with key ids {}", parsed.keySet());
+                    }
+                    keys = Map.copyOf(parsed);
+                })
+                .onErrorResume(e -> {
+                    // keep verifying with the keys we have
+                    log.warn("Could not refresh JWKS from auth-service: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    static Map<String, RSAPublicKey> parse(JsonNode jwks) {
+        Map<String, RSAPublicKey> parsed = new HashMap<>();
+        for (JsonNode jwk : jwks.path("keys")) {
+            if (!"RSA".equals(jwk.path("kty").asText()) || !jwk.hasNonNull("kid")) {
+                continue;
+            }
+            try {
+                Base64.Decoder decoder = Base64.getUrlDecoder();
+                RSAPublicKeySpec spec = new RSAPublicKeySpec(
+                        new BigInteger(1, decoder.decode(jwk.path("n").asText())),
+                        new BigInteger(1, decoder.decode(jwk.path("e").asText())));
+                parsed.put(jwk.get("kid").asText(), (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(spec));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Skipping invalid JWK {}: {}", jwk.path("kid").asText(), e.getMessage());
+            }
+        }
+        return parsed;
+    }
+
+    @Override
+    public void destroy() {
+        periodicRefresh.dispose();
+    }
+}
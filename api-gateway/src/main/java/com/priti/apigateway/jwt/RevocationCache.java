@@ -0,0 +1,80 @@
+package com.priti.apigateway.jwt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.priti.security.revocation.RevocationList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+// The gateway's copy of auth-service's revoked access tokens (logouts), polled from GET /revocations.
+//
+// Tokens are verified locally, so this list is what makes logout effective at the gateway. A revocation reaches it
+// within one poll interval; each poll asks for a little more than what is new since the previous one so rows committed
+// late in auth-service are not missed. The check itself is an in-memory Bloom filter lookup.
+@Component
+public class RevocationCache implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(RevocationCache.class);
+
+    private static final long POLL_OVERLAP_MILLIS = 30_000;
+
+    private final WebClient webClient;
+
+    private final RevocationList revocationList;
+
+    private final Disposable polling;
+
+    private volatile long asOfMillis = 0;
+
+    public RevocationCache(WebClient.Builder webClientBuilder,
+                           @Value("${auth.service.url}") String authServiceUrl,
+                           @Value("${auth.revocations.poll-interval:5s}") Duration pollInterval,
+                           @Value("${auth.revocations.expected-revocations:1000000}") long expectedRevocations,
+                           @Value("${auth.revocations.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.webClient = webClientBuilder.baseUrl(authServiceUrl).build();
+        this.revocationList = new RevocationList(expectedRevocations, falsePositiveRate);
+        this.polling = Flux.interval(Duration.ZERO, pollInterval)
+                .concatMap(tick -> poll())
+                .subscribe();
+    }
+
+    public boolean isRevoked(String jti) {
+        return revocationList.isRevoked(jti);
+    }
+
+    private Mono<Void> poll() {
+        long since = Math.max(0, asOfMillis - POLL_OVERLAP_MILLIS);
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/revocations").queryParam("since", since).build())
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                // off the event loop: removeExpired can rebuild the Bloom filter
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(response -> {
+                    for (JsonNode revoked : response.path("revoked")) {
+                        revocationList.add(revoked.path("jti").asText(), revoked.path("expiresAtMillis").asLong());
+                    }
+                    asOfMillis = response.path("asOfMillis").asLong();
+                    revocationList.removeExpired(System.currentTimeMillis());
+                })
+                .onErrorResume(e -> {
+                    // keep the list we have; the next poll asks again from the same point
+                    log.warn("Could not poll token revocations from auth-service: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        polling.dispose();
+    }
+}
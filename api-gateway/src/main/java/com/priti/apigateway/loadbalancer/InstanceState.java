@@ -0,0 +1,48 @@
+package com.priti.apigateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// What the gateway has observed of one service instance: requests in flight and recent failures.
+final class InstanceState {
+
+    final AtomicInteger outstanding = new AtomicInteger();
+
+    final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    final AtomicInteger ejections = new AtomicInteger(); // consecutive ejections, for the exponential back-off
+
+    // nanoTime values are only comparable by difference (any long can be "now"), so never-ejected needs its own marker
+    static final long NEVER_EJECTED = Long.MIN_VALUE;
+
+    final AtomicLong ejectedUntilNanos = new AtomicLong(NEVER_EJECTED);
+
+    static final long NO_PROBE = Long.MIN_VALUE;
+
+    final AtomicLong probeStartedNanos = new AtomicLong(NO_PROBE);
+
+    boolean isEjected(long nowNanos) {
+        long ejectedUntil = ejectedUntilNanos.get();
+        return ejectedUntil != NEVER_EJECTED && ejectedUntil - nowNanos > 0;
+    }
+
+    // Ejected before and the ejection has passed, but no request has succeeded since
+    boolean isHalfOpen(long nowNanos) {
+        return ejections.get() > 0 && !isEjected(nowNanos);
+    }
+
+    boolean isProbing(long nowNanos, long probeTimeoutNanos) {
+        long started = probeStartedNanos.get();
+        return started != NO_PROBE && nowNanos - started < probeTimeoutNanos;
+    }
+
+    // Only one caller wins; a probe that never reported back is given up after probeTimeoutNanos
+    boolean tryStartProbe(long nowNanos, long probeTimeoutNanos) {
+        long started = probeStartedNanos.get();
+        return !isProbing(nowNanos, probeTimeoutNanos) && probeStartedNanos.compareAndSet(started, nowNanos);
+    }
+
+    void endProbe() {
+        probeStartedNanos.set(NO_PROBE);
+    }
+}
@@ -0,0 +1,28 @@
+package com.priti.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// State of every instance behind an lb:// route, shared by the load balancers of all services (each lives in its own
+// child context) and OutstandingRequestsGlobalFilter, which counts the requests in flight.
+@Component
+public class InstanceStates {
+
+    private final Map<String, InstanceState> states = new ConcurrentHashMap<>();
+
+    public void requestStarted(ServiceInstance instance) {
+        state(instance).outstanding.incrementAndGet();
+    }
+
+    public void requestFinished(ServiceInstance instance) {
+        state(instance).outstanding.updateAndGet(outstanding -> Math.max(0, outstanding - 1));
+    }
+
+    InstanceState state(ServiceInstance instance) {
+        return states.computeIfAbsent(instance.getServiceId() + " " + instance.getHost() + ":" + instance.getPort(),
+                key -> new InstanceState());
+    }
+}
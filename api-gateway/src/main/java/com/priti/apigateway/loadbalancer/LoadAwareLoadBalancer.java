@@ -0,0 +1,167 @@
+package com.priti.apigateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Picks an instance of a service for each request routed to lb://<service>:
+//
+// - Power of two choices: two random healthy instances, the one with fewer requests in flight through this gateway
+//   wins. That tracks load almost as well as scanning for the least loaded instance, without every gateway instance
+//   piling onto the same "least loaded" one.
+// - Passive ejection: after `failureThreshold` consecutive failures (connection errors or 5xx) an instance gets no
+//   traffic for baseEjectionTime, doubling with each consecutive ejection up to maxEjectionTime. After that it gets a
+//   single probe request, and no other traffic until the probe completes (or has not completed within
+//   baseEjectionTime). A successful probe clears its record, a failed one ejects it again. If every instance is
+//   ejected or waiting for its probe they are all used anyway.
+//
+// Requests in flight are counted by OutstandingRequestsGlobalFilter. The balancer is also the LoadBalancerLifecycle of
+// its service, which is how the gateway reports each request's outcome.
+public class LoadAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadAwareLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> instanceListSupplierProvider;
+
+    private final String serviceId;
+
+    private final int failureThreshold;
+
+    private final long baseEjectionNanos;
+
+    private final long maxEjectionNanos;
+
+    private final InstanceStates instanceStates;
+
+    public LoadAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> instanceListSupplierProvider, String serviceId,
+                                 InstanceStates instanceStates, int failureThreshold, Duration baseEjectionTime,
+                                 Duration maxEjectionTime) {
+        this.instanceListSupplierProvider = instanceListSupplierProvider;
+        this.instanceStates = instanceStates;
+        this.serviceId = serviceId;
+        this.failureThreshold = failureThreshold;
+        this.baseEjectionNanos = baseEjectionTime.toNanos();
+        this.maxEjectionNanos = maxEjectionTime.toNanos();
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = instanceListSupplierProvider.getIfAvailable();
+        if (supplier == null) {
+            return Mono.just(new EmptyResponse());
+        }
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No instances of {}", serviceId);
+            return new EmptyResponse();
+        }
+        long now = System.nanoTime();
+        List<ServiceInstance> healthy = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            InstanceState state = state(instance);
+            if (!state.isEjected(now) && !(state.isHalfOpen(now) && state.isProbing(now, baseEjectionNanos))) {
+                healthy.add(instance);
+            }
+        }
+        // A half-open instance is only chosen by the request that gets to probe it; losers choose again without it
+        while (!healthy.isEmpty()) {
+            ServiceInstance chosen = powerOfTwoChoices(healthy);
+            InstanceState state = state(chosen);
+            if (!state.isHalfOpen(now) || state.tryStartProbe(now, baseEjectionNanos)) {
+                return new DefaultResponse(chosen);
+            }
+            healthy.remove(chosen);
+        }
+        return new DefaultResponse(powerOfTwoChoices(instances));
+    }
+
+    private ServiceInstance powerOfTwoChoices(List<ServiceInstance> candidates) {
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return state(a).outstanding.get() <= state(b).outstanding.get() ? a : b;
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        InstanceState state = state(instance);
+
+        ResponseData response = completionContext.getClientResponse();
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || (response != null && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError());
+        if (!failed) {
+            state.consecutiveFailures.set(0);
+            state.ejections.set(0);
+            state.endProbe();
+            return;
+        }
+        long now = System.nanoTime();
+        if (state.isEjected(now)) {
+            return; // requests sent before the ejection, don't extend it
+        }
+        if (state.consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            // One more failure (the probe after the ejection) ejects it again, for twice as long
+            state.consecutiveFailures.set(failureThreshold - 1);
+            int ejections = state.ejections.incrementAndGet();
+            long ejectionNanos = Math.min(maxEjectionNanos, baseEjectionNanos << Math.min(ejections - 1, 20));
+            state.ejectedUntilNanos.set(now + ejectionNanos);
+            log.warn("Ejecting {} instance {} for {} ms after {} consecutive failures", serviceId, instance.getUri(),
+                    ejectionNanos / 1_000_000, failureThreshold);
+        }
+        state.endProbe();
+    }
+
+    int getOutstanding(ServiceInstance instance) {
+        return state(instance).outstanding.get();
+    }
+
+    boolean isEjected(ServiceInstance instance) {
+        return state(instance).isEjected(System.nanoTime());
+    }
+
+    private InstanceState state(ServiceInstance instance) {
+        return instanceStates.state(instance);
+    }
+}
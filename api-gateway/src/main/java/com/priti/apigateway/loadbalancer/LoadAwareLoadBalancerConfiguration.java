@@ -0,0 +1,29 @@
+package com.priti.apigateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Per-service configuration, instantiated in each service's own load balancer context (hence no @Configuration, see
+// LoadBalancerConfig). Instances come from that context's ServiceInstanceListSupplier: by default the discovery
+// client, which lists the instances configured under spring.cloud.discovery.client.simple.instances. InstanceStates
+// comes from the parent (application) context, shared with OutstandingRequestsGlobalFilter. Durations are parsed here
+// because these child contexts have no conversion service for "10s".
+public class LoadAwareLoadBalancerConfiguration {
+
+    @Bean
+    public LoadAwareLoadBalancer loadAwareLoadBalancer(Environment environment,
+                                                       LoadBalancerClientFactory loadBalancerClientFactory,
+                                                       InstanceStates instanceStates,
+                                                       @Value("${gateway.load-balancer.failure-threshold:3}") int failureThreshold,
+                                                       @Value("${gateway.load-balancer.base-ejection-time:10s}") String baseEjectionTime,
+                                                       @Value("${gateway.load-balancer.max-ejection-time:5m}") String maxEjectionTime) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LoadAwareLoadBalancer(loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, instanceStates, failureThreshold,
+                DurationStyle.detectAndParse(baseEjectionTime), DurationStyle.detectAndParse(maxEjectionTime));
+    }
+}
@@ -0,0 +1,10 @@
+package com.priti.apigateway.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+// Every lb:// route uses the load-aware balancer instead of Spring Cloud's round robin
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LoadAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,44 @@
+package com.priti.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// Counts the requests in flight per instance for LoadAwareLoadBalancer. Runs right after the instance has been chosen
+// and counts down in doFinally, so a request the client cancelled is released too (LoadBalancerLifecycle.onComplete
+// is only called on success or error).
+@Component
+public class OutstandingRequestsGlobalFilter implements GlobalFilter, Ordered {
+
+    private final InstanceStates instanceStates;
+
+    public OutstandingRequestsGlobalFilter(InstanceStates instanceStates) {
+        this.instanceStates = instanceStates;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return chain.filter(exchange);
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        return Mono.defer(() -> {
+            instanceStates.requestStarted(instance);
+            return chain.filter(exchange)
+                    .doFinally(signal -> instanceStates.requestFinished(instance));
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
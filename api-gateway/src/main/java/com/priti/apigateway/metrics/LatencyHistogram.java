@@ -0,0 +1,50 @@
+package com.priti.apigateway.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+// Latencies of one stage of one route, in microseconds, kept as a ring of interval histograms.
+//
+// Recording goes into an HdrHistogram Recorder: a wait-free increment in a counts array sized up front, so it never
+// allocates or locks on the event loop. Once per interval the recorder's histogram is swapped into the ring, reusing
+// the oldest one; percentiles over a window add up the last few intervals, off the request path.
+final class LatencyHistogram {
+
+    static final long HIGHEST_TRACKABLE_MICROS = 60_000_000L; // anything slower is recorded as 60s
+
+    private static final int SIGNIFICANT_DIGITS = 2; // values are exact to within 1%
+
+    private final Recorder recorder = new Recorder(1, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+
+    private final Histogram[] intervals;
+
+    private int newest = -1;
+
+    LatencyHistogram(int retainedIntervals) {
+        this.intervals = new Histogram[retainedIntervals];
+    }
+
+    void recordNanos(long nanos) {
+        recorder.recordValue(Math.min(Math.max(nanos / 1_000, 1), HIGHEST_TRACKABLE_MICROS));
+    }
+
+    synchronized void rotate() {
+        int slot = (newest + 1) % intervals.length;
+        Histogram oldest = intervals[slot];
+        intervals[slot] = oldest == null ? recorder.getIntervalHistogram() : recorder.getIntervalHistogram(oldest);
+        newest = slot;
+    }
+
+    // The last `count` completed intervals added together
+    synchronized Histogram window(int count) {
+        Histogram sum = new Histogram(1, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        for (int i = 0; i < Math.min(count, intervals.length) && newest >= 0; i++) {
+            Histogram interval = intervals[Math.floorMod(newest - i, intervals.length)];
+            if (interval == null) {
+                break; // not running for that long yet
+            }
+            sum.add(interval);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,103 @@
+package com.priti.apigateway.metrics;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Latency histograms per route and stage, with percentiles over rolling windows (GET /diagnostics/latency).
+//
+// Stages of one request:
+// - total: from the first gateway filter until the response body has been written to the client
+// - jwtValidation: verifying the token in JwtValidation, including a key set refresh for an unknown kid
+// - upstream: from handing the request to the HTTP client until the backend's response headers arrive
+// What total adds on top of the other two is the gateway's own time (filters, queueing, writing the body).
+// Requests answered by the gateway itself (cache hits, 401, 429) have no upstream sample.
+//
+// Windows are made of whole intervals: "1m" with a 10s interval is the last six completed intervals.
+@Component
+public class LatencyMetrics implements DisposableBean {
+
+    public enum Stage {
+        TOTAL("total"), JWT_VALIDATION("jwtValidation"), UPSTREAM("upstream");
+
+        private final String key;
+
+        Stage(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final Map<String, LatencyHistogram[]> routes = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> windowIntervals = new LinkedHashMap<>();
+
+    private final int retainedIntervals;
+
+    private final Disposable rotation;
+
+    public LatencyMetrics(@Value("${gateway.latency.interval:10s}") Duration interval,
+                          @Value("${gateway.latency.windows:10s,1m,5m}") String[] windows) {
+        int longest = 1;
+        for (String window : windows) {
+            int intervals = (int) Math.max(1, DurationStyle.detectAndParse(window.trim()).toMillis() / interval.toMillis());
+            windowIntervals.put(window.trim(), intervals);
+            longest = Math.max(longest, intervals);
+        }
+        this.retainedIntervals = longest;
+        this.rotation = Flux.interval(interval, interval)
+                .subscribe(tick -> routes.values().forEach(stages -> {
+                    for (LatencyHistogram histogram : stages) {
+                        histogram.rotate();
+                    }
+                }));
+    }
+
+    // Called on the event loop for every request: after a route's first request this is a map lookup and a counter increment
+    public void record(String routeId, Stage stage, long nanos) {
+        LatencyHistogram[] stages = routes.get(routeId);
+        if (stages == null) {
+            stages = routes.computeIfAbsent(routeId, id -> newStages());
+        }
+        stages[stage.ordinal()].recordNanos(nanos);
+    }
+
+    // route -> stage -> window -> percentiles
+    public Map<String, Map<String, Map<String, LatencySummary>>> snapshot() {
+        Map<String, Map<String, Map<String, LatencySummary>>> snapshot = new TreeMap<>();
+        routes.forEach((routeId, stages) -> {
+            Map<String, Map<String, LatencySummary>> byStage = new LinkedHashMap<>();
+            for (Stage stage : STAGES) {
+                Map<String, LatencySummary> byWindow = new LinkedHashMap<>();
+                windowIntervals.forEach((window, intervals) ->
+                        byWindow.put(window, LatencySummary.of(stages[stage.ordinal()].window(intervals))));
+                byStage.put(stage.key, byWindow);
+            }
+            snapshot.put(routeId, byStage);
+        });
+        return snapshot;
+    }
+
+    private LatencyHistogram[] newStages() {
+        LatencyHistogram[] stages = new LatencyHistogram[STAGES.length];
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = new LatencyHistogram(retainedIntervals);
+        }
+        return stages;
+    }
+
+    @Override
+    public void destroy() {
+        rotation.dispose();
+    }
+}
@@ -0,0 +1,24 @@
+package com.priti.apigateway.metrics;
+
+import org.HdrHistogram.Histogram;
+
+// Percentiles of one window, in milliseconds
+public record LatencySummary(long count, double p50Millis, double p90Millis, double p99Millis, double p999Millis,
+                             double maxMillis) {
+
+    static LatencySummary of(Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return new LatencySummary(0, 0, 0, 0, 0, 0);
+        }
+        return new LatencySummary(histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+}
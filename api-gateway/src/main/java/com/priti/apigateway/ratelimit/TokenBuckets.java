@@ -0,0 +1,59 @@
+package com.priti.apigateway.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token buckets by key (e.g. one per principal), each refilled at `ratePerSecond` up to `capacity` tokens.
+//
+// Each bucket is a single AtomicLong in the GCRA form of a token bucket: it holds the "theoretical arrival time" (TAT),
+// the time at which the bucket would be full again. Taking a token moves TAT one emission interval (1/rate) further;
+// the request is allowed as long as TAT stays within capacity intervals of now. That is one CAS per request and no lock,
+// and buckets of different keys never touch the same memory. A bucket whose TAT is in the past is full, which is
+// exactly what a missing bucket means, so idle buckets can be dropped by sweep() (run periodically by the owner, off the
+// request path).
+public final class TokenBuckets {
+
+    private final long emissionIntervalNanos;
+
+    private final long burstNanos;
+
+    private final ConcurrentHashMap<String, AtomicLong> theoreticalArrivalTimes = new ConcurrentHashMap<>();
+
+    public TokenBuckets(double ratePerSecond, long capacity) {
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.burstNanos = emissionIntervalNanos * Math.max(1, capacity);
+    }
+
+    // 0 if a token was taken, otherwise nanos until one will be available
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong tat = theoreticalArrivalTimes.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        while (true) {
+            long current = tat.get();
+            long newTat = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long overdraw = newTat - nowNanos - burstNanos;
+            if (overdraw > 0) {
+                return overdraw;
+            }
+            if (tat.compareAndSet(current, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    // Gives back a token taken by tryAcquire, for a request that was rejected by another limit after all
+    public void refund(String key) {
+        AtomicLong tat = theoreticalArrivalTimes.get(key);
+        if (tat != null) {
+            tat.addAndGet(-emissionIntervalNanos);
+        }
+    }
+
+    public int size() {
+        return theoreticalArrivalTimes.size();
+    }
+
+    // A request racing with the removal of its (full) bucket may get one token more than the limit; harmless
+    public void sweep(long nowNanos) {
+        theoreticalArrivalTimes.values().removeIf(tat -> tat.get() - nowNanos <= 0);
+    }
+}
@@ -0,0 +1,56 @@
+package com.priti.apigateway.controller;
+
+import com.priti.apigateway.metrics.LatencyMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+
+class DiagnosticsControllerTests {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final LatencyMetrics latencyMetrics = new LatencyMetrics(Duration.ofMillis(100), new String[] {"100ms", "1s"});
+
+    private final WebTestClient client = WebTestClient.bindToController(new DiagnosticsController(latencyMetrics)).build();
+
+    @AfterEach
+    void destroy() {
+        latencyMetrics.destroy();
+    }
+
+    @Test
+    void shouldReportPercentilesPerRouteStageAndWindow() {
+        for (int i = 1; i <= 100; i++) {
+            latencyMetrics.record("medical-profile-service-route", LatencyMetrics.Stage.TOTAL, i * MILLIS);
+        }
+        latencyMetrics.record("medical-profile-service-route", LatencyMetrics.Stage.UPSTREAM, 7 * MILLIS);
+
+        // Samples show up once their interval has completed
+        await().atMost(Duration.ofSeconds(2)).untilAsserted(() -> client.get().uri("/diagnostics/latency")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$['medical-profile-service-route'].total['1s'].count").isEqualTo(100));
+
+        client.get().uri("/diagnostics/latency")
+                .exchange()
+                .expectBody()
+                .jsonPath("$['medical-profile-service-route'].total['1s'].p50Millis").value(p50 -> assertAbout(50, p50))
+                .jsonPath("$['medical-profile-service-route'].total['1s'].p99Millis").value(p99 -> assertAbout(99, p99))
+                .jsonPath("$['medical-profile-service-route'].total['1s'].maxMillis").value(max -> assertAbout(100, max))
+                .jsonPath("$['medical-profile-service-route'].upstream['1s'].count").isEqualTo(1)
+                .jsonPath("$['medical-profile-service-route'].jwtValidation['1s'].count").isEqualTo(0)
+                .jsonPath("$['medical-profile-service-route'].total['100ms']").exists();
+    }
+
+    private static void assertAbout(double expectedMillis, Object actual) {
+        double millis = ((Number) actual).doubleValue();
+        if (Math.abs(millis - expectedMillis) > expectedMillis * 0.01) {
+            throw new AssertionError("expected about " + expectedMillis + " ms but was " + millis);
+        }
+    }
+}
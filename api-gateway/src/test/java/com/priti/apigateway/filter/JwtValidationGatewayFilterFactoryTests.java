@@ -0,0 +1,183 @@
+package com.priti.apigateway.filter;
+
+import com.priti.apigateway.jwt.JwksKeyCache;
+import com.priti.apigateway.jwt.RevocationCache;
+import com.priti.apigateway.metrics.LatencyMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Verifies tokens against a stub auth-service that serves the JWKS and an empty revocation list
+class JwtValidationGatewayFilterFactoryTests {
+
+    private static final Duration MIN_REFRESH_INTERVAL = Duration.ofSeconds(1);
+
+    private final Map<String, KeyPair> publishedKeys = new ConcurrentHashMap<>();
+
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final GatewayFilterChain upstream = exchange -> {
+        upstreamCalls.incrementAndGet();
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return Mono.empty();
+    };
+
+    private HttpServer authService;
+
+    private JwksKeyCache keyCache;
+
+    private RevocationCache revocationCache;
+
+    private LatencyMetrics latencyMetrics;
+
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void start() throws IOException, NoSuchAlgorithmException {
+        publishedKeys.put("key-1", newKeyPair());
+        authService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        authService.createContext("/.well-known/jwks.json", exchange -> {
+            jwksRequests.incrementAndGet();
+            respond(exchange, jwks());
+        });
+        authService.createContext("/revocations", exchange -> respond(exchange, "{\"revoked\":[],\"asOfMillis\":0}"));
+        authService.start();
+
+        String url = "http://localhost:" + authService.getAddress().getPort();
+        keyCache = new JwksKeyCache(WebClient.builder(), url, "/.well-known/jwks.json", Duration.ofMinutes(5), MIN_REFRESH_INTERVAL);
+        revocationCache = new RevocationCache(WebClient.builder(), url, Duration.ofMinutes(5), 1000, 0.01);
+        latencyMetrics = new LatencyMetrics(Duration.ofSeconds(1), new String[] {"10s"});
+        filter = new JwtValidationGatewayFilterFactory(keyCache, revocationCache, latencyMetrics).apply(new Object());
+        await().atMost(Duration.ofSeconds(10)).until(() -> keyCache.getKey("key-1") != null);
+    }
+
+    @AfterEach
+    void stop() {
+        keyCache.destroy();
+        revocationCache.destroy();
+        latencyMetrics.destroy();
+        authService.stop(0);
+    }
+
+    @Test
+    void shouldAcceptATokenSignedWithThePublishedKey() {
+        assertEquals(HttpStatus.OK, send(token("key-1", publishedKeys.get("key-1"))));
+        assertEquals(1, jwksRequests.get());
+    }
+
+    @Test
+    void shouldRefreshTheKeySetForATokenSignedWithANewKey() throws Exception {
+        // auth-service rotated: the new key is published, but the gateway has not refreshed since
+        KeyPair rotated = newKeyPair();
+        publishedKeys.put("key-2", rotated);
+        Thread.sleep(MIN_REFRESH_INTERVAL.toMillis()); // the start-up fetch counts as the last refresh
+
+        assertEquals(HttpStatus.OK, send(token("key-2", rotated)));
+        assertEquals(2, jwksRequests.get());
+        assertEquals(1, upstreamCalls.get());
+
+        assertEquals(HttpStatus.OK, send(token("key-2", rotated)));
+        assertEquals(2, jwksRequests.get());
+    }
+
+    @Test
+    void shouldRefreshAtMostOncePerIntervalForUnknownKeys() throws Exception {
+        KeyPair forged = newKeyPair();
+        Thread.sleep(MIN_REFRESH_INTERVAL.toMillis());
+
+        assertEquals(HttpStatus.UNAUTHORIZED, send(token("unknown-1", forged)));
+        assertEquals(HttpStatus.UNAUTHORIZED, send(token("unknown-2", forged)));
+        assertEquals(HttpStatus.UNAUTHORIZED, send(token("unknown-3", forged)));
+
+        assertEquals(2, jwksRequests.get()); // the start-up fetch and a single refresh
+        assertEquals(0, upstreamCalls.get());
+    }
+
+    @Test
+    void shouldRejectATokenWhoseSignatureDoesNotMatchItsKid() throws NoSuchAlgorithmException {
+        assertEquals(HttpStatus.UNAUTHORIZED, send(token("key-1", newKeyPair())));
+        assertEquals(0, upstreamCalls.get());
+    }
+
+    private HttpStatus send(String token) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/medical-profiles")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        filter.filter(exchange, upstream).block(Duration.ofSeconds(10));
+        return HttpStatus.valueOf(exchange.getResponse().getStatusCode().value());
+    }
+
+    private static String token(String kid, KeyPair keyPair) {
+        return Jwts.builder()
+                .header().keyId(kid).and()
+                .subject("testpriti@test.com")
+                .id(UUID.randomUUID().toString())
+                .claim("role", "ADMIN")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(keyPair.getPrivate(), Jwts.SIG.RS256)
+                .compact();
+    }
+
+    private String jwks() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        StringBuilder keys = new StringBuilder();
+        publishedKeys.forEach((kid, keyPair) -> {
+            RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+            keys.append(keys.isEmpty() ? "" : ",")
+                    .append("{\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\",\"kid\":\"").append(kid)
+                    .append("\",\"n\":\"").append(encoder.encodeToString(toUnsigned(publicKey.getModulus().toByteArray())))
+                    .append("\",\"e\":\"").append(encoder.encodeToString(publicKey.getPublicExponent().toByteArray()))
+                    .append("\"}");
+        });
+        return "{\"keys\":[" + keys + "]}";
+    }
+
+    private static byte[] toUnsigned(byte[] bytes) {
+        return bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    private static KeyPair newKeyPair() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
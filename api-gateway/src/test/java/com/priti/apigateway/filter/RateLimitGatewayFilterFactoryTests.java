@@ -0,0 +1,75 @@
+package com.priti.apigateway.filter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RateLimitGatewayFilterFactoryTests {
+
+    private final RateLimitGatewayFilterFactory factory = new RateLimitGatewayFilterFactory();
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final GatewayFilterChain upstream = exchange -> {
+        upstreamCalls.incrementAndGet();
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return Mono.empty();
+    };
+
+    @AfterEach
+    void destroy() {
+        factory.destroy();
+    }
+
+    @Test
+    void shouldRejectBeyondTheBurstWithRetryAfter() {
+        RateLimitGatewayFilterFactory.Config config = new RateLimitGatewayFilterFactory.Config();
+        config.setReplenishRate(0.5); // a token every 2s
+        config.setBurstCapacity(2);
+        GatewayFilter filter = factory.apply(config);
+
+        assertNull(request(filter, "alice").getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        request(filter, "alice");
+        MockServerWebExchange rejected = request(filter, "alice");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("2", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(HttpStatus.OK, request(filter, "bob").getResponse().getStatusCode());
+        assertEquals(3, upstreamCalls.get());
+    }
+
+    @Test
+    void shouldRejectBeyondTheRouteLimitWithItsRetryAfter() {
+        RateLimitGatewayFilterFactory.Config config = new RateLimitGatewayFilterFactory.Config();
+        config.setReplenishRate(100);
+        config.setBurstCapacity(100);
+        config.setRouteReplenishRate(0.1); // a token every 10s for everyone together
+        config.setRouteBurstCapacity(1);
+        GatewayFilter filter = factory.apply(config);
+
+        request(filter, "alice");
+        MockServerWebExchange rejected = request(filter, "bob");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("10", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    private MockServerWebExchange request(GatewayFilter filter, String subject) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/medical-profiles"));
+        exchange.getAttributes().put(JwtValidationGatewayFilterFactory.SUBJECT_ATTRIBUTE, subject);
+        filter.filter(exchange, upstream).block();
+        return exchange;
+    }
+}
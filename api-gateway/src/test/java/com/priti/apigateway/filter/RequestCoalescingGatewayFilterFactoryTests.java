@@ -0,0 +1,105 @@
+package com.priti.apigateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RequestCoalescingGatewayFilterFactoryTests {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void shouldSendConcurrentIdenticalGetsUpstreamOnce() {
+        GatewayFilter filter = filter(Duration.ofSeconds(5));
+        GatewayFilterChain upstream = upstream(HttpStatus.OK, Duration.ofMillis(200));
+
+        List<MockServerWebExchange> exchanges = new ArrayList<>();
+        List<Mono<Void>> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/medical-profiles"));
+            exchanges.add(exchange);
+            requests.add(filter.filter(exchange, upstream));
+        }
+        Mono.when(requests).block(Duration.ofSeconds(5));
+
+        assertEquals(1, upstreamCalls.get());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertEquals("1", exchange.getResponse().getBodyAsString().block());
+        }
+        assertNull(exchanges.get(0).getResponse().getHeaders().getFirst(RequestCoalescingGatewayFilterFactory.COALESCED_HEADER));
+        assertEquals("true", exchanges.get(4).getResponse().getHeaders().getFirst(RequestCoalescingGatewayFilterFactory.COALESCED_HEADER));
+    }
+
+    @Test
+    void shouldGoUpstreamOnceTheWaitBudgetExpires() {
+        GatewayFilter filter = filter(Duration.ofMillis(50));
+        GatewayFilterChain upstream = upstream(HttpStatus.OK, Duration.ofMillis(300));
+
+        MockServerWebExchange leader = MockServerWebExchange.from(MockServerHttpRequest.get("/medical-profiles"));
+        MockServerWebExchange waiter = MockServerWebExchange.from(MockServerHttpRequest.get("/medical-profiles"));
+        Mono.when(filter.filter(leader, upstream), filter.filter(waiter, upstream)).block(Duration.ofSeconds(5));
+
+        assertEquals(2, upstreamCalls.get());
+        assertNull(waiter.getResponse().getHeaders().getFirst(RequestCoalescingGatewayFilterFactory.COALESCED_HEADER));
+    }
+
+    @Test
+    void shouldNotShareErrorResponses() {
+        GatewayFilter filter = filter(Duration.ofSeconds(5));
+        GatewayFilterChain upstream = upstream(HttpStatus.SERVICE_UNAVAILABLE, Duration.ofMillis(100));
+
+        MockServerWebExchange leader = MockServerWebExchange.from(MockServerHttpRequest.get("/medical-profiles"));
+        MockServerWebExchange waiter = MockServerWebExchange.from(MockServerHttpRequest.get("/medical-profiles"));
+        Mono.when(filter.filter(leader, upstream), filter.filter(waiter, upstream)).block(Duration.ofSeconds(5));
+
+        assertEquals(2, upstreamCalls.get());
+        assertNull(waiter.getResponse().getHeaders().getFirst(RequestCoalescingGatewayFilterFactory.COALESCED_HEADER));
+    }
+
+    @Test
+    void shouldNotCoalesceDifferentRoles() {
+        GatewayFilter filter = filter(Duration.ofSeconds(5));
+        GatewayFilterChain upstream = upstream(HttpStatus.OK, Duration.ofMillis(100));
+
+        MockServerWebExchange admin = MockServerWebExchange.from(MockServerHttpRequest.get("/medical-profiles"));
+        admin.getAttributes().put(JwtValidationGatewayFilterFactory.ROLE_ATTRIBUTE, "ADMIN");
+        MockServerWebExchange user = MockServerWebExchange.from(MockServerHttpRequest.get("/medical-profiles"));
+        user.getAttributes().put(JwtValidationGatewayFilterFactory.ROLE_ATTRIBUTE, "USER");
+        Mono.when(filter.filter(admin, upstream), filter.filter(user, upstream)).block(Duration.ofSeconds(5));
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    private static GatewayFilter filter(Duration waitBudget) {
+        RequestCoalescingGatewayFilterFactory.Config config = new RequestCoalescingGatewayFilterFactory.Config();
+        config.setWaitBudget(waitBudget);
+        return new RequestCoalescingGatewayFilterFactory().apply(config);
+    }
+
+    // Answers after a delay with the number of upstream calls so far
+    private GatewayFilterChain upstream(HttpStatus status, Duration latency) {
+        return exchange -> {
+            int call = upstreamCalls.incrementAndGet();
+            return Mono.delay(latency).then(Mono.defer(() -> {
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(status);
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(String.valueOf(call).getBytes(StandardCharsets.UTF_8))));
+            }));
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package com.priti.apigateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResponseCacheGatewayFilterFactoryTests {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    // Answers every request with the number of upstream calls so far, so a cached body shows which call produced it
+    private final GatewayFilterChain upstream = exchange -> {
+        int call = upstreamCalls.incrementAndGet();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(String.valueOf(call).getBytes(StandardCharsets.UTF_8))));
+    };
+
+    @Test
+    void shouldServeRepeatedGetsFromTheCache() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1));
+
+        MockServerWebExchange first = get(filter, "/medical-profiles", "ADMIN");
+        MockServerWebExchange second = get(filter, "/medical-profiles", "ADMIN");
+
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals("1", second.getResponse().getBodyAsString().block());
+        assertEquals(MediaType.APPLICATION_JSON, second.getResponse().getHeaders().getContentType());
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void shouldKeyEntriesByQueryAndRole() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1));
+
+        get(filter, "/medical-profiles", "ADMIN");
+        get(filter, "/medical-profiles?page=2", "ADMIN");
+        MockServerWebExchange otherRole = get(filter, "/medical-profiles", "USER");
+
+        assertEquals("MISS", otherRole.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals(3, upstreamCalls.get());
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTheTtl() throws InterruptedException {
+        GatewayFilter filter = filter(Duration.ofMillis(50));
+
+        get(filter, "/medical-profiles", "ADMIN");
+        Thread.sleep(100);
+        MockServerWebExchange expired = get(filter, "/medical-profiles", "ADMIN");
+
+        assertEquals("MISS", expired.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals("2", expired.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void shouldInvalidateOnWrites() {
+        for (HttpMethod method : new HttpMethod[] {HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE}) {
+            GatewayFilter filter = filter(Duration.ofMinutes(1));
+            upstreamCalls.set(0);
+            get(filter, "/medical-profiles", "ADMIN");
+            get(filter, "/medical-profiles/42", "ADMIN");
+            get(filter, "/other", "ADMIN");
+
+            // A write to a profile drops that profile and the list above it, but nothing unrelated
+            String writtenPath = method == HttpMethod.POST ? "/medical-profiles" : "/medical-profiles/42";
+            MockServerWebExchange write = MockServerWebExchange.from(MockServerHttpRequest.method(method, writtenPath));
+            filter.filter(write, upstream).block();
+
+            assertEquals("MISS", cacheHeader(get(filter, "/medical-profiles", "ADMIN")), method.name());
+            assertEquals("HIT", cacheHeader(get(filter, "/other", "ADMIN")), method.name());
+            if (method != HttpMethod.POST) {
+                assertEquals("MISS", cacheHeader(get(filter, "/medical-profiles/42", "ADMIN")), method.name());
+            }
+        }
+    }
+
+    @Test
+    void shouldNotCacheResponsesTheUpstreamMarksPrivate() {
+        GatewayFilterChain privateUpstream = exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setCacheControl("private");
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(new byte[] {1})));
+        };
+        GatewayFilter filter = filter(Duration.ofMinutes(1));
+
+        filter.filter(exchange("/medical-profiles", "ADMIN"), privateUpstream).block();
+        filter.filter(exchange("/medical-profiles", "ADMIN"), privateUpstream).block();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    private static GatewayFilter filter(Duration ttl) {
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setTtl(ttl);
+        return new ResponseCacheGatewayFilterFactory().apply(config);
+    }
+
+    private MockServerWebExchange get(GatewayFilter filter, String path, String role) {
+        MockServerWebExchange exchange = exchange(path, role);
+        filter.filter(exchange, upstream).block();
+        return exchange;
+    }
+
+    private static MockServerWebExchange exchange(String path, String role) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        exchange.getAttributes().put(JwtValidationGatewayFilterFactory.ROLE_ATTRIBUTE, role);
+        return exchange;
+    }
+
+    private static String cacheHeader(MockServerWebExchange exchange) {
+        return exchange.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_HEADER);
+    }
+}
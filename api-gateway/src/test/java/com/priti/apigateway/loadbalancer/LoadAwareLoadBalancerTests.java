@@ -0,0 +1,227 @@
+package com.priti.apigateway.loadbalancer;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the balancer against stub servers on localhost, reporting each real response back like the gateway does
+class LoadAwareLoadBalancerTests {
+
+    private static final Duration BASE_EJECTION = Duration.ofSeconds(1);
+
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(500)).build();
+
+    private final InstanceStates instanceStates = new InstanceStates();
+
+    @AfterEach
+    void stopServers() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void shouldNeverPickTheBusiestOfThreeInstances() {
+        List<ServiceInstance> instances = List.of(stub(200), stub(200), stub(200));
+        LoadAwareLoadBalancer balancer = balancer(instances);
+        ServiceInstance busy = instances.get(0);
+        for (int i = 0; i < 5; i++) {
+            instanceStates.requestStarted(busy);
+        }
+
+        Set<ServiceInstance> chosen = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            chosen.add(choose(balancer));
+        }
+
+        // Two random instances out of three: the busy one is always compared with an idle one and loses
+        assertEquals(Set.of(instances.get(1), instances.get(2)), chosen);
+        assertEquals(5, balancer.getOutstanding(busy));
+    }
+
+    @Test
+    void shouldEjectAFailingInstanceAndBackOff() throws Exception {
+        List<ServiceInstance> instances = List.of(stub(200), stub(200), stub(503));
+        LoadAwareLoadBalancer balancer = balancer(instances);
+        ServiceInstance failing = instances.get(2);
+
+        sendUntilChosen(balancer, failing, 3);
+        assertTrue(balancer.isEjected(failing));
+        for (int i = 0; i < 100; i++) {
+            assertNotEquals(failing, send(balancer));
+        }
+
+        // Once the ejection has passed, one failed probe ejects it again for twice as long
+        Thread.sleep(BASE_EJECTION.toMillis() + 200);
+        assertFalse(balancer.isEjected(failing));
+        sendUntilChosen(balancer, failing, 1);
+        Thread.sleep(BASE_EJECTION.toMillis() + 200);
+        assertTrue(balancer.isEjected(failing));
+
+        Thread.sleep(BASE_EJECTION.toMillis());
+        assertFalse(balancer.isEjected(failing));
+    }
+
+    @Test
+    void shouldSendASingleProbeOnceTheEjectionHasPassed() throws Exception {
+        List<ServiceInstance> instances = List.of(stub(200), stub(200), stub(503));
+        LoadAwareLoadBalancer balancer = balancer(instances);
+        ServiceInstance failing = instances.get(2);
+        sendUntilChosen(balancer, failing, 3);
+
+        Thread.sleep(BASE_EJECTION.toMillis() + 200);
+        int probes = 0;
+        for (int i = 0; i < 200; i++) {
+            if (choose(balancer).equals(failing)) { // none of these complete, so the probe stays in flight
+                probes++;
+            }
+        }
+
+        assertEquals(1, probes);
+    }
+
+    @Test
+    void shouldEjectAnInstanceThatRefusesConnections() throws Exception {
+        ServiceInstance healthy = stub(200);
+        HttpServer stopped = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        int port = stopped.getAddress().getPort(); // bound once to get a free port, nothing listens on it
+        stopped.stop(0);
+        ServiceInstance unreachable = new DefaultServiceInstance("down", "medical-profile-service", "localhost", port, false);
+        LoadAwareLoadBalancer balancer = balancer(List.of(healthy, unreachable));
+
+        sendUntilChosen(balancer, unreachable, 3);
+
+        assertTrue(balancer.isEjected(unreachable));
+        assertEquals(healthy, send(balancer));
+    }
+
+    @Test
+    void shouldUseEjectedInstancesWhenNoneIsHealthy() throws Exception {
+        ServiceInstance failing = stub(503);
+        LoadAwareLoadBalancer balancer = balancer(List.of(failing));
+
+        sendUntilChosen(balancer, failing, 3);
+
+        assertTrue(balancer.isEjected(failing));
+        assertEquals(failing, choose(balancer));
+    }
+
+    @Test
+    void shouldReleaseOutstandingRequestsWhenTheClientCancels() {
+        ServiceInstance instance = new DefaultServiceInstance("a", "medical-profile-service", "localhost", 8081, false);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/medical-profiles"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(instance));
+        GatewayFilterChain neverAnswers = ignored -> Mono.never();
+
+        Disposable request = new OutstandingRequestsGlobalFilter(instanceStates).filter(exchange, neverAnswers).subscribe();
+        assertEquals(1, instanceStates.state(instance).outstanding.get());
+        request.dispose();
+
+        assertEquals(0, instanceStates.state(instance).outstanding.get());
+    }
+
+    private LoadAwareLoadBalancer balancer(List<ServiceInstance> instances) {
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return "medical-profile-service";
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(instances);
+            }
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("supplier", supplier);
+        return new LoadAwareLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class),
+                "medical-profile-service", instanceStates, 3, BASE_EJECTION, Duration.ofSeconds(5));
+    }
+
+    private ServiceInstance stub(int status) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                exchange.sendResponseHeaders(status, -1);
+                exchange.close();
+            });
+            server.start();
+            servers.add(server);
+            return new DefaultServiceInstance("instance-" + servers.size(), "medical-profile-service", "localhost",
+                    server.getAddress().getPort(), false);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ServiceInstance choose(LoadAwareLoadBalancer balancer) {
+        return balancer.choose(new DefaultRequest<>()).block().getServer();
+    }
+
+    // Sends requests until `instance` has received `count` of them
+    private void sendUntilChosen(LoadAwareLoadBalancer balancer, ServiceInstance instance, int count) throws Exception {
+        int received = 0;
+        for (int i = 0; i < 1000 && received < count; i++) {
+            if (send(balancer).equals(instance)) {
+                received++;
+            }
+        }
+        assertEquals(count, received);
+    }
+
+    // One request the way the gateway makes it: choose, count it in flight, call the instance, report the outcome
+    private ServiceInstance send(LoadAwareLoadBalancer balancer) throws InterruptedException {
+        Request<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+        Response<ServiceInstance> lbResponse = balancer.choose(request).block();
+        ServiceInstance instance = lbResponse.getServer();
+        instanceStates.requestStarted(instance);
+        try {
+            HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create(instance.getUri() + "/")).timeout(Duration.ofSeconds(1)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            ResponseData responseData = new ResponseData(HttpStatusCode.valueOf(response.statusCode()), new HttpHeaders(), null, null);
+            balancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, lbResponse, responseData));
+        } catch (IOException e) {
+            balancer.onComplete(new CompletionContext<>(CompletionContext.Status.FAILED, e, request, lbResponse));
+        } finally {
+            instanceStates.requestFinished(instance);
+        }
+        return instance;
+    }
+}
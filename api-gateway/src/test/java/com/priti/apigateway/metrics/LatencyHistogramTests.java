@@ -0,0 +1,64 @@
+package com.priti.apigateway.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyHistogramTests {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void shouldOnlyReportCompletedIntervals() {
+        LatencyHistogram histogram = new LatencyHistogram(3);
+        histogram.recordNanos(5 * MILLIS);
+
+        assertEquals(0, histogram.window(3).getTotalCount());
+        histogram.rotate();
+        assertEquals(1, histogram.window(3).getTotalCount());
+    }
+
+    @Test
+    void shouldAddUpTheLastIntervalsOfAWindow() {
+        LatencyHistogram histogram = new LatencyHistogram(3);
+        for (int interval = 1; interval <= 3; interval++) {
+            for (int i = 0; i < interval; i++) {
+                histogram.recordNanos(interval * MILLIS);
+            }
+            histogram.rotate();
+        }
+
+        assertEquals(3, histogram.window(1).getTotalCount()); // the newest interval only
+        assertEquals(5, histogram.window(2).getTotalCount());
+        assertEquals(6, histogram.window(3).getTotalCount());
+        assertEquals(6, histogram.window(10).getTotalCount()); // capped at what the ring holds
+    }
+
+    @Test
+    void shouldDropTheOldestIntervalOnceTheRingIsFull() {
+        LatencyHistogram histogram = new LatencyHistogram(2);
+        histogram.recordNanos(100 * MILLIS);
+        histogram.rotate();
+        histogram.recordNanos(1 * MILLIS);
+        histogram.rotate();
+        histogram.recordNanos(2 * MILLIS);
+        histogram.rotate();
+
+        Histogram window = histogram.window(2);
+        assertEquals(2, window.getTotalCount());
+        assertEquals(2_000, window.getMaxValue(), 20); // micros, within the 1% precision
+    }
+
+    @Test
+    void shouldClampToTheTrackableRange() {
+        LatencyHistogram histogram = new LatencyHistogram(1);
+        histogram.recordNanos(0);
+        histogram.recordNanos(Long.MAX_VALUE);
+        histogram.rotate();
+
+        Histogram window = histogram.window(1);
+        assertEquals(1, window.getMinValue());
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_MICROS, window.getMaxValue(), LatencyHistogram.HIGHEST_TRACKABLE_MICROS / 100);
+    }
+}
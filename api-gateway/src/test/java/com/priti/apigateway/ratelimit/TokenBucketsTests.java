@@ -0,0 +1,72 @@
+package com.priti.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketsTests {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void shouldAllowTheBurstThenOneTokenPerEmissionInterval() {
+        TokenBuckets buckets = new TokenBuckets(10, 5); // one token every 100 ms, 5 at once
+        long now = 1_000_000 * MILLIS;
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, buckets.tryAcquire("alice", now));
+        }
+        assertEquals(100 * MILLIS, buckets.tryAcquire("alice", now));
+        assertEquals(60 * MILLIS, buckets.tryAcquire("alice", now + 40 * MILLIS));
+        assertEquals(0, buckets.tryAcquire("alice", now + 100 * MILLIS));
+        assertEquals(100 * MILLIS, buckets.tryAcquire("alice", now + 100 * MILLIS));
+    }
+
+    @Test
+    void shouldRefillToCapacityOnlyWhenIdle() {
+        TokenBuckets buckets = new TokenBuckets(10, 5);
+        long now = 1_000_000 * MILLIS;
+        for (int i = 0; i < 5; i++) {
+            buckets.tryAcquire("alice", now);
+        }
+
+        long muchLater = now + 60_000 * MILLIS; // idle far longer than needed to refill: still only 5 tokens
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, buckets.tryAcquire("alice", muchLater));
+        }
+        assertEquals(100 * MILLIS, buckets.tryAcquire("alice", muchLater));
+    }
+
+    @Test
+    void shouldKeepPrincipalsApart() {
+        TokenBuckets buckets = new TokenBuckets(1, 1);
+        long now = 1_000_000 * MILLIS;
+
+        assertEquals(0, buckets.tryAcquire("alice", now));
+        assertEquals(1_000 * MILLIS, buckets.tryAcquire("alice", now));
+        assertEquals(0, buckets.tryAcquire("bob", now));
+    }
+
+    @Test
+    void shouldGiveBackARefundedToken() {
+        TokenBuckets buckets = new TokenBuckets(1, 1);
+        long now = 1_000_000 * MILLIS;
+
+        assertEquals(0, buckets.tryAcquire("alice", now));
+        buckets.refund("alice");
+
+        assertEquals(0, buckets.tryAcquire("alice", now));
+    }
+
+    @Test
+    void shouldSweepOnlyFullBuckets() {
+        TokenBuckets buckets = new TokenBuckets(1, 2);
+        long now = 1_000_000 * MILLIS;
+        buckets.tryAcquire("alice", now);
+        buckets.tryAcquire("bob", now + 500 * MILLIS);
+
+        buckets.sweep(now + 1_200 * MILLIS);
+
+        assertEquals(1, buckets.size()); // alice is full again after 1s, bob only after 1.5s
+    }
+}
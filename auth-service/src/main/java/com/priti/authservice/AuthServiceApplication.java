@@ -2,8 +2,10 @@ package com.priti.authservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // rotation of the JWT signing keys
 public class AuthServiceApplication {
 
 	public static void main(String[] args) {
@@ -1,13 +1,17 @@
 package com.priti.authservice.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 
+import java.util.Map;
+
 @Configuration
 public class SecurityConfig {
 
@@ -20,8 +24,13 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return  new BCryptPasswordEncoder(); //It is a password encoder that uses the bcrypt hashing algorithm to hash passwords. It is a strong and secure way to hash passwords. It is used to hash the password before storing it in the database. It is also used to compare the hashed password with the plain text password when a user logs in.
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.bcrypt-strength:12}") int strength){
+        // New hashes are stored as {bcrypt}$2a$<strength>$... Older hashes without the {bcrypt} prefix still match, and
+        // upgradeEncoding() reports them (and bcrypt hashes below the configured strength) so they are rehashed on login.
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder; //It is a password encoder that uses the bcrypt hashing algorithm to hash passwords. It is a strong and secure way to hash passwords. It is used to hash the password before storing it in the database. It is also used to compare the hashed password with the plain text password when a user logs in.
     }
 
 }
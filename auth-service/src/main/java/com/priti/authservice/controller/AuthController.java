@@ -2,12 +2,17 @@ package com.priti.authservice.controller;
 
 import com.priti.authservice.dto.LoginRequestDTO;
 import com.priti.authservice.dto.LoginResponseDTO;
+import com.priti.authservice.dto.RefreshRequestDTO;
+import com.priti.authservice.dto.RevocationsResponseDTO;
 import com.priti.authservice.service.AuthService;
+import com.priti.authservice.service.TokenRevocationService;
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -15,19 +20,54 @@ public class AuthController {
 
     private final AuthService authService;
 
-    public AuthController(AuthService authService) {
+    private final TokenRevocationService tokenRevocationService;
+
+    public AuthController(AuthService authService, TokenRevocationService tokenRevocationService) {
         this.authService = authService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Operation(summary = "Generate token on user login")
     @PostMapping("/login")
     public ResponseEntity<LoginResponseDTO> login(@RequestBody LoginRequestDTO loginRequestDTO) {
-        Optional<String> tokenOptional = authService.authenticate(loginRequestDTO);
-        if(tokenOptional.isEmpty()){
+        Optional<LoginResponseDTO> tokensOptional = authService.authenticate(loginRequestDTO);
+        if(tokensOptional.isEmpty()){
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(tokensOptional.get()); // access token, refresh token and access token lifetime
+    }
+
+    @Operation(summary = "Exchange a refresh token for new tokens")
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponseDTO> refresh(@RequestBody RefreshRequestDTO refreshRequestDTO) {
+        // Refresh tokens are single use: the response carries a new one and the one sent here stops working
+        return authService.refresh(refreshRequestDTO.getRefreshToken())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    @Operation(summary = "Revoke the access token and refresh token")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                       @RequestBody(required = false) RefreshRequestDTO refreshRequestDTO) {
+        if(authHeader == null || !authHeader.startsWith("Bearer ")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        String token = tokenOptional.get();//it will convert tokenOptional from Optional<String> to an actual String
-        return ResponseEntity.ok(new LoginResponseDTO(token));
+        String refreshToken = refreshRequestDTO == null ? null : refreshRequestDTO.getRefreshToken();
+        return authService.logout(authHeader.substring(7), refreshToken)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    @Operation(summary = "Access tokens revoked since a point in time")
+    @GetMapping("/revocations")
+    public ResponseEntity<RevocationsResponseDTO> getRevocations(@RequestParam(defaultValue = "0") long since) {
+        // Polled by the API Gateway, which verifies tokens itself and keeps its own copy of the revocation list
+        long asOfMillis = System.currentTimeMillis();
+        List<RevocationsResponseDTO.RevokedTokenDTO> revoked = tokenRevocationService.getRevokedSince(Instant.ofEpochMilli(since)).stream()
+                .map(t -> new RevocationsResponseDTO.RevokedTokenDTO(t.getJti(), t.getExpiresAt().toEpochMilli()))
+                .toList();
+        return ResponseEntity.ok(new RevocationsResponseDTO(revoked, asOfMillis));
     }
 
     @Operation(summary = "Validate Token")
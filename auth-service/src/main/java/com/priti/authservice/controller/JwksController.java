@@ -0,0 +1,58 @@
+package com.priti.authservice.controller;
+
+import com.priti.authservice.service.SigningKeyService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigInteger;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+public class JwksController {
+
+    private final SigningKeyService signingKeyService;
+
+    public JwksController(SigningKeyService signingKeyService) {
+        this.signingKeyService = signingKeyService;
+    }
+
+    // Public keys that tokens are verified with, as a JSON Web Key Set (RFC 7517).
+    // The api-gateway caches this and verifies tokens itself instead of calling /validate.
+    @Operation(summary = "Public keys for verifying tokens")
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        List<Map<String, String>> keys = new ArrayList<>();
+        for (Map.Entry<String, RSAPublicKey> key : signingKeyService.getPublishedKeys().entrySet()) {
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "RSA");
+            jwk.put("kid", key.getKey());
+            jwk.put("use", "sig");
+            jwk.put("alg", "RS256");
+            jwk.put("n", base64Url(key.getValue().getModulus()));
+            jwk.put("e", base64Url(key.getValue().getPublicExponent()));
+            keys.add(jwk);
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(Map.of("keys", keys));
+    }
+
+    // JWK integers are unsigned big-endian, so drop the sign byte BigInteger adds when the top bit is set
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,24 @@
+package com.priti.authservice.controller;
+
+import com.priti.authservice.dto.UserCacheStatsDTO;
+import com.priti.authservice.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class UserCacheController {
+
+    private final UserService userService;
+
+    public UserCacheController(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Operation(summary = "Hit and miss counts of the user lookup cache")
+    @GetMapping("/user-cache/stats")
+    public ResponseEntity<UserCacheStatsDTO> getUserCacheStats() {
+        return ResponseEntity.ok(userService.getCacheStats());
+    }
+}
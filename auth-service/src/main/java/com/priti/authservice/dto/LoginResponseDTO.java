@@ -1,13 +1,25 @@
 package com.priti.authservice.dto;
 
 public class LoginResponseDTO {
-    private final String token;
+    private final String token; // short-lived access token (JWT)
+    private final String refreshToken; // exchanged at /refresh for a new token pair, single use
+    private final long expiresIn; // seconds until token expires
 
-    public LoginResponseDTO(String token) {
+    public LoginResponseDTO(String token, String refreshToken, long expiresIn) {
         this.token = token;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
     }
 
     public String getToken() {
         return token;
     }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
 }
@@ -0,0 +1,63 @@
+package com.priti.authservice.dto;
+
+import java.util.List;
+
+public class RevocationsResponseDTO {
+    private List<RevokedTokenDTO> revoked;
+    private long asOfMillis; // pass as since in the next poll
+
+    public RevocationsResponseDTO() {
+        // Default constructor for serialization/deserialization
+    }
+
+    public RevocationsResponseDTO(List<RevokedTokenDTO> revoked, long asOfMillis) {
+        this.revoked = revoked;
+        this.asOfMillis = asOfMillis;
+    }
+
+    public List<RevokedTokenDTO> getRevoked() {
+        return revoked;
+    }
+
+    public void setRevoked(List<RevokedTokenDTO> revoked) {
+        this.revoked = revoked;
+    }
+
+    public long getAsOfMillis() {
+        return asOfMillis;
+    }
+
+    public void setAsOfMillis(long asOfMillis) {
+        this.asOfMillis = asOfMillis;
+    }
+
+    public static class RevokedTokenDTO {
+        private String jti;
+        private long expiresAtMillis;
+
+        public RevokedTokenDTO() {
+            // Default constructor for serialization/deserialization
+        }
+
+        public RevokedTokenDTO(String jti, long expiresAtMillis) {
+            this.jti = jti;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public String getJti() {
+            return jti;
+        }
+
+        public void setJti(String jti) {
+            this.jti = jti;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+
+        public void setExpiresAtMillis(long expiresAtMillis) {
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.priti.authservice.dto;
+
+public class UserCacheStatsDTO {
+    private int size;
+    private int negativeSize;
+    private long hits;
+    private long negativeHits;
+    private long misses;
+    private long evictions;
+    private double hitRate; // (hits + negativeHits) / all lookups
+
+    public UserCacheStatsDTO() {
+        // Default constructor for serialization/deserialization
+    }
+
+    public UserCacheStatsDTO(int size, int negativeSize, long hits, long negativeHits, long misses, long evictions) {
+        this.size = size;
+        this.negativeSize = negativeSize;
+        this.hits = hits;
+        this.negativeHits = negativeHits;
+        this.misses = misses;
+        this.evictions = evictions;
+        long lookups = hits + negativeHits + misses;
+        this.hitRate = lookups == 0 ? 0 : (double) (hits + negativeHits) / lookups;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getNegativeSize() {
+        return negativeSize;
+    }
+
+    public void setNegativeSize(int negativeSize) {
+        this.negativeSize = negativeSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getNegativeHits() {
+        return negativeHits;
+    }
+
+    public void setNegativeHits(long negativeHits) {
+        this.negativeHits = negativeHits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+}
@@ -0,0 +1,16 @@
+package com.priti.authservice.exception;
+
+// Thrown when the password hashing pool cannot take another login; answered with 429 Too Many Requests
+public class LoginCapacityExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginCapacityExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,66 @@
+package com.priti.authservice.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// RSA key pair used to sign access tokens. Stored so that every auth-service instance signs with, and publishes,
+// the same keys. The private key is encrypted with a key derived from jwt.secret.
+@Entity
+@Table(name = "signing_keys")
+public class SigningKey {
+    @Id
+    private String kid;
+
+    @Column(nullable = false, length = 1024)
+    private String publicKey; // base64 X.509
+
+    @Column(nullable = false, length = 4096)
+    private String encryptedPrivateKey; // base64 of AES-GCM nonce + encrypted PKCS#8
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public SigningKey() {
+        // Default constructor for JPA
+    }
+
+    public SigningKey(String kid, String publicKey, String encryptedPrivateKey, Instant createdAt) {
+        this.kid = kid;
+        this.publicKey = publicKey;
+        this.encryptedPrivateKey = encryptedPrivateKey;
+        this.createdAt = createdAt;
+    }
+
+    public String getKid() {
+        return kid;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public String getEncryptedPrivateKey() {
+        return encryptedPrivateKey;
+    }
+
+    public void setEncryptedPrivateKey(String encryptedPrivateKey) {
+        this.encryptedPrivateKey = encryptedPrivateKey;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,12 @@
+package com.priti.authservice.model;
+
+import java.util.UUID;
+
+// Immutable snapshot of what a login needs from a User. This is what the user cache holds, so a cached entry can be
+// shared between requests without any of them seeing another's changes to the entity.
+public record UserCredentials(UUID id, String email, String passwordHash, String role) {
+
+    public static UserCredentials of(User user) {
+        return new UserCredentials(user.getId(), user.getEmail(), user.getPassword(), user.getRole());
+    }
+}
@@ -0,0 +1,30 @@
+package com.priti.authservice.repository;
+
+import com.priti.authservice.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+    // Conditional so that of two concurrent refreshes with the same token only one succeeds
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken t set t.revokedAt = :revokedAt where t.tokenHash = :tokenHash and t.revokedAt is null")
+    int revoke(String tokenHash, Instant revokedAt);
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken t set t.revokedAt = :revokedAt where t.familyId = :familyId and t.revokedAt is null")
+    int revokeFamily(UUID familyId, Instant revokedAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :expiredBefore")
+    int deleteExpired(Instant expiredBefore);
+}
@@ -0,0 +1,13 @@
+package com.priti.authservice.repository;
+
+import com.priti.authservice.model.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+    List<SigningKey> findByCreatedAtAfterOrderByCreatedAtDesc(Instant createdAfter);
+}
@@ -1,7 +1,7 @@
 package com.priti.authservice.service;
 
 import com.priti.authservice.dto.LoginRequestDTO;
-import com.priti.authservice.model.User;
+import com.priti.authservice.dto.LoginResponseDTO;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -9,6 +9,8 @@ import java.util.Optional;
 @Service
 public interface AuthService {
 
-    public Optional<String> authenticate(LoginRequestDTO loginRequestDTO);
+    public Optional<LoginResponseDTO> authenticate(LoginRequestDTO loginRequestDTO);
+    public Optional<LoginResponseDTO> refresh(String refreshToken);
+    public boolean logout(String token, String refreshToken);
     public boolean validateToken(String token);
 }
@@ -0,0 +1,12 @@
+package com.priti.authservice.service;
+
+public interface PasswordHashingService {
+
+    // Checks a password against its stored hash on the bounded hashing pool.
+    // Throws LoginCapacityExceededException instead of queueing when the pool is saturated.
+    PasswordCheck check(String rawPassword, String encodedPassword);
+
+    // upgradedHash is the password re-hashed with the current algorithm and cost, or null when the stored hash is current
+    record PasswordCheck(boolean matches, String upgradedHash) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.priti.authservice.service;
+
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenService {
+
+    // Starts a new token family (a login)
+    String issue(UUID userId);
+
+    // Exchanges a refresh token for a new one of the same family. Empty if it is unknown, expired or already used;
+    // presenting an already used token revokes the whole family, as it was probably stolen.
+    Optional<Rotation> rotate(String refreshToken);
+
+    void revoke(String refreshToken);
+
+    record Rotation(UUID userId, String refreshToken) {
+    }
+}
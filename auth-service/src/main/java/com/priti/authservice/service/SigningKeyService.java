@@ -0,0 +1,18 @@
+package com.priti.authservice.service;
+
+import com.priti.authservice.util.SigningKeyPair;
+
+import java.security.interfaces.RSAPublicKey;
+import java.util.Map;
+import java.util.Optional;
+
+public interface SigningKeyService {
+
+    // Key new tokens are signed with
+    SigningKeyPair getSigningKey();
+
+    Optional<RSAPublicKey> getVerificationKey(String kid);
+
+    // Every key a token that is still valid may have been signed with, plus the next key, by kid
+    Map<String, RSAPublicKey> getPublishedKeys();
+}
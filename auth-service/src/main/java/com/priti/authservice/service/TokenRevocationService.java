@@ -0,0 +1,18 @@
+package com.priti.authservice.service;
+
+import com.priti.authservice.model.RevokedToken;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TokenRevocationService {
+
+    // Revokes an access token until it expires
+    void revoke(String jti, Instant expiresAt);
+
+    // O(1), in memory: called for every token validation
+    boolean isRevoked(String jti);
+
+    // Revocations since the given time, for the api-gateway's copy of the revocation list
+    List<RevokedToken> getRevokedSince(Instant since);
+}
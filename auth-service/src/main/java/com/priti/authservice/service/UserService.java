@@ -1,10 +1,18 @@
 package com.priti.authservice.service;
 
-import com.priti.authservice.model.User;
+import com.priti.authservice.dto.UserCacheStatsDTO;
+import com.priti.authservice.model.UserCredentials;
 
 import java.util.Optional;
+import java.util.UUID;
 
 public interface UserService {
 
-    Optional<User> findByEmail(String email);
+    Optional<UserCredentials> findByEmail(String email);
+
+    Optional<UserCredentials> findById(UUID id);
+
+    void updatePassword(UserCredentials user, String encodedPassword);
+
+    UserCacheStatsDTO getCacheStats();
 }
@@ -1,12 +1,19 @@
 package com.priti.authservice.service.impl;
 
 import com.priti.authservice.dto.LoginRequestDTO;
-import com.priti.authservice.model.User;
+import com.priti.authservice.dto.LoginResponseDTO;
+import com.priti.authservice.model.UserCredentials;
 import com.priti.authservice.service.AuthService;
+import com.priti.authservice.service.PasswordHashingService;
+import com.priti.authservice.service.PasswordHashingService.PasswordCheck;
+import com.priti.authservice.service.RefreshTokenService;
+import com.priti.authservice.service.TokenRevocationService;
 import com.priti.authservice.service.UserService;
 import com.priti.authservice.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -14,34 +21,88 @@ import java.util.Optional;
 @Service
 public class AuthServiceImpl implements AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthServiceImpl.class);
+
     private final UserService userService;
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     private final JwtUtil jwtUtil;
 
-    public AuthServiceImpl(UserService userService, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+    private final RefreshTokenService refreshTokenService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    public AuthServiceImpl(UserService userService, PasswordHashingService passwordHashingService, JwtUtil jwtUtil,
+                           RefreshTokenService refreshTokenService, TokenRevocationService tokenRevocationService) {
         this.userService = userService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    // find user by email -> check if password matches (on the hashing pool) -> upgrade an outdated hash -> generate tokens
+    public Optional<LoginResponseDTO> authenticate(LoginRequestDTO loginRequestDTO) {
+        Optional<UserCredentials> user = userService.findByEmail(loginRequestDTO.getEmail()); //1. get user by using email that we received in login request
+        if (user.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // 2. check if password in login request matches the one that is stored for the user. Throws LoginCapacityExceededException (429) when too many logins are already waiting
+        PasswordCheck check = passwordHashingService.check(loginRequestDTO.getPassword(), user.get().passwordHash());
+        if (!check.matches()) {
+            return Optional.empty();
+        }
+        if (check.upgradedHash() != null) {
+            try {
+                userService.updatePassword(user.get(), check.upgradedHash()); // stored hash was below the configured cost or algorithm
+            } catch (RuntimeException e) {
+                log.warn("Could not upgrade password hash of user {}: {}", user.get().id(), e.getMessage()); // the old hash still works, retry on next login
+            }
+        }
+
+        return Optional.of(tokensFor(user.get(), refreshTokenService.issue(user.get().id())));
     }
 
-    // find user by email -> check if password matches -> generate token
-    public Optional<String> authenticate(LoginRequestDTO loginRequestDTO) {
-        Optional<String> token = userService.findByEmail(loginRequestDTO.getEmail()) //1. get user by using email that we received in login request
-                .filter(u -> passwordEncoder.matches(loginRequestDTO.getPassword(), u.getPassword())) // 2. pass that result to filter function  and then it will check if password in login request matches the one that is stored for the user if it doesnt match it returns empty effectively ending change
-                .map(u -> jwtUtil.generateToken(u.getEmail(), u.getRole())); //generates token using user's email and role. we have to create jwtutil class.
+    // refresh token -> new refresh token of the same family -> fresh access token with the user's current role
+    @Override
+    public Optional<LoginResponseDTO> refresh(String refreshToken) {
+        return refreshTokenService.rotate(refreshToken)
+                .flatMap(rotation -> userService.findById(rotation.userId())
+                        .map(user -> tokensFor(user, rotation.refreshToken())));
+    }
 
-        return token;
+    // Revokes the access token until it expires, and the refresh token with every token refreshed from it
+    @Override
+    public boolean logout(String token, String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtUtil.validateToken(token);
+        } catch (JwtException e) {
+            return false;
+        }
+        if (claims.getId() != null) {
+            tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        return true;
     }
 
     @Override
     public boolean validateToken(String token) {
         try {
-            jwtUtil.validateToken(token); // This method will throw an exception if the token is invalid
-            return true; // If no exception is thrown, the token is valid
+            Claims claims = jwtUtil.validateToken(token); // This method will throw an exception if the token is invalid
+            return claims.getId() != null && !tokenRevocationService.isRevoked(claims.getId()); // valid unless logged out; in-memory check
         } catch (JwtException e) {
             return false; // If an exception is thrown, the token is invalid
         }
     }
+
+    private LoginResponseDTO tokensFor(UserCredentials user, String refreshToken) {
+        return new LoginResponseDTO(jwtUtil.generateToken(user.email(), user.role()), //generates token using user's email and role.
+                refreshToken, jwtUtil.getAccessTokenTtl().toSeconds());
+    }
 }
@@ -0,0 +1,91 @@
+package com.priti.authservice.service.impl;
+
+import com.priti.authservice.exception.LoginCapacityExceededException;
+import com.priti.authservice.service.PasswordHashingService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// BCrypt is deliberately slow (hundreds of ms of CPU per check at cost 12 on a quarter vCPU), so checks run on a small
+// fixed pool with a short queue instead of on request threads. A login burst then costs at most `threads` CPUs, and at
+// most threads + queue-capacity request threads wait for it; everything beyond is rejected at once with 429. The
+// remaining request threads and CPU stay free for /validate and /.well-known/jwks.json, which never touch this pool.
+@Service
+public class PasswordHashingServiceImpl implements PasswordHashingService, DisposableBean {
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Duration maxWait;
+
+    public PasswordHashingServiceImpl(PasswordEncoder passwordEncoder,
+                                      @Value("${auth.password.hashing-threads:0}") int threads,
+                                      @Value("${auth.password.queue-capacity:4}") int queueCapacity,
+                                      @Value("${auth.password.max-wait:3s}") Duration maxWait) {
+        this.passwordEncoder = passwordEncoder;
+        this.maxWait = maxWait;
+        // one core is always left to the request threads, even when a burst of logins keeps every hashing thread busy
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()); // full queue -> RejectedExecutionException -> 429
+    }
+
+    @Override
+    public PasswordCheck check(String rawPassword, String encodedPassword) {
+        Future<PasswordCheck> result;
+        try {
+            result = executor.submit(() -> {
+                if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                    return new PasswordCheck(false, null);
+                }
+                // Rehash while we still have the plain password: a lower cost or an older format than configured
+                return new PasswordCheck(true, passwordEncoder.upgradeEncoding(encodedPassword)
+                        ? passwordEncoder.encode(rawPassword)
+                        : null);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new LoginCapacityExceededException("password hashing queue is full", 1);
+        }
+
+        try {
+            return result.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new LoginCapacityExceededException("password check did not complete within " + maxWait, 1);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LoginCapacityExceededException("interrupted while waiting for password check", 1);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password check failed", e.getCause());
+        }
+    }
+
+    int queuedChecks() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,91 @@
+package com.priti.authservice.service.impl;
+
+import com.priti.authservice.model.RefreshToken;
+import com.priti.authservice.repository.RefreshTokenRepository;
+import com.priti.authservice.service.RefreshTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final Duration ttl;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   @Value("${jwt.refresh-token.ttl:7d}") Duration ttl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public String issue(UUID userId) {
+        return create(userId, UUID.randomUUID());
+    }
+
+    @Override
+    public Optional<Rotation> rotate(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        Optional<RefreshToken> stored = refreshTokenRepository.findById(tokenHash);
+        if (stored.isEmpty() || stored.get().getExpiresAt().isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+        RefreshToken token = stored.get();
+        if (refreshTokenRepository.revoke(tokenHash, Instant.now()) == 0) {
+            // already used or logged out: someone else holds a copy of this token
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), Instant.now());
+            log.warn("Refresh token reuse for user {}, revoked {} tokens of its family", token.getUserId(), revoked);
+            return Optional.empty();
+        }
+        return Optional.of(new Rotation(token.getUserId(), create(token.getUserId(), token.getFamilyId())));
+    }
+
+    @Override
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findById(hash(refreshToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), Instant.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.cleanup-interval-ms:3600000}")
+    public void removeExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private String create(UUID userId, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(hash(refreshToken), userId, familyId, Instant.now().plus(ttl)));
+        return refreshToken;
+    }
+
+    // A plain hash is enough: the token is 256 random bits, not a guessable password
+    private static String hash(String refreshToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.priti.authservice.service.impl;
+
+import com.priti.authservice.model.SigningKey;
+import com.priti.authservice.repository.SigningKeyRepository;
+import com.priti.authservice.service.SigningKeyService;
+import com.priti.authservice.util.SigningKeyPair;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+// Rotating RSA signing keys shared by all auth-service instances through the signing_keys table.
+//
+// A new key is created every rotation interval. It is published in the JWKS right away but only used for signing once
+// it is older than the activation delay, so gateways have refreshed their key cache before the first token signed
+// with it arrives. Old keys stay published for the retention period, which must exceed the token lifetime.
+@Service
+public class SigningKeyServiceImpl implements SigningKeyService {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeyServiceImpl.class);
+
+    private static final int RSA_KEY_BITS = 2048;
+    private static final int GCM_NONCE_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final Duration MIN_RELOAD_INTERVAL = Duration.ofSeconds(10);
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final SecretKeySpec encryptionKey;
+    private final Duration rotationInterval;
+    private final Duration activationDelay;
+    private final Duration retention;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private volatile List<SigningKeyPair> keys = List.of(); // newest first
+    private volatile Instant lastReload = Instant.EPOCH;
+
+    public SigningKeyServiceImpl(SigningKeyRepository signingKeyRepository,
+                                 @Value("${jwt.secret}") String secret,
+                                 @Value("${jwt.signing-key.rotation-interval:24h}") Duration rotationInterval,
+                                 @Value("${jwt.signing-key.activation-delay:10m}") Duration activationDelay,
+                                 @Value("${jwt.signing-key.retention:48h}") Duration retention) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.encryptionKey = new SecretKeySpec(deriveEncryptionKey(secret), "AES");
+        this.rotationInterval = rotationInterval;
+        this.activationDelay = activationDelay;
+        this.retention = retention;
+    }
+
+    @PostConstruct
+    public void init() {
+        rotateIfDue();
+    }
+
+    // Every instance checks; if two rotate at the same moment both keys are simply published.
+    @Scheduled(fixedDelayString = "${jwt.signing-key.check-interval-ms:60000}")
+    public void rotateIfDue() {
+        reload();
+        Instant now = Instant.now();
+        if (keys.isEmpty() || keys.get(0).createdAt().isBefore(now.minus(rotationInterval))) {
+            createKey(now);
+            reload();
+        }
+    }
+
+    @Override
+    public SigningKeyPair getSigningKey() {
+        List<SigningKeyPair> current = keys;
+        Instant activeBefore = Instant.now().minus(activationDelay);
+        for (SigningKeyPair key : current) {
+            if (!key.createdAt().isAfter(activeBefore)) {
+                return key;
+            }
+        }
+        return current.get(current.size() - 1); // only brand-new keys exist (first start): use the oldest of them
+    }
+
+    @Override
+    public Optional<RSAPublicKey> getVerificationKey(String kid) {
+        if (kid == null) {
+            return Optional.empty(); // e.g. a token from before signing keys were introduced
+        }
+        Optional<RSAPublicKey> key = find(kid);
+        // Possibly created by another instance since our last reload
+        if (key.isEmpty() && lastReload.isBefore(Instant.now().minus(MIN_RELOAD_INTERVAL))) {
+            reload();
+            key = find(kid);
+        }
+        return key;
+    }
+
+    @Override
+    public Map<String, RSAPublicKey> getPublishedKeys() {
+        Map<String, RSAPublicKey> published = new LinkedHashMap<>();
+        for (SigningKeyPair key : keys) {
+            published.put(key.kid(), key.publicKey());
+        }
+        return Collections.unmodifiableMap(published);
+    }
+
+    private Optional<RSAPublicKey> find(String kid) {
+        for (SigningKeyPair key : keys) {
+            if (key.kid().equals(kid)) {
+                return Optional.of(key.publicKey());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private synchronized void reload() {
+        List<SigningKeyPair> loaded = new ArrayList<>();
+        for (SigningKey signingKey : signingKeyRepository.findByCreatedAtAfterOrderByCreatedAtDesc(Instant.now().minus(retention))) {
+            loaded.add(decode(signingKey));
+        }
+        keys = List.copyOf(loaded);
+        lastReload = Instant.now();
+    }
+
+    private void createKey(Instant now) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(RSA_KEY_BITS, secureRandom);
+            KeyPair keyPair = generator.generateKeyPair();
+            String kid = UUID.randomUUID().toString();
+            signingKeyRepository.save(new SigningKey(kid,
+                    Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                    Base64.getEncoder().encodeToString(encrypt(keyPair.getPrivate().getEncoded())),
+                    now));
+            log.info("Created JWT signing key {}", kid);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not create JWT signing key", e);
+        }
+    }
+
+    private SigningKeyPair decode(SigningKey signingKey) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            RSAPublicKey publicKey = (RSAPublicKey) keyFactory.generatePublic(
+                    new X509EncodedKeySpec(Base64.getDecoder().decode(signingKey.getPublicKey())));
+            RSAPrivateKey privateKey = (RSAPrivateKey) keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(decrypt(Base64.getDecoder().decode(signingKey.getEncryptedPrivateKey()))));
+            return new SigningKeyPair(signingKey.getKid(), publicKey, privateKey, signingKey.getCreatedAt());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not read JWT signing key " + signingKey.getKid()
+                    + " (was jwt.secret changed?)", e);
+        }
+    }
+
+    private byte[] encrypt(byte[] plain) throws GeneralSecurityException {
+        byte[] nonce = new byte[GCM_NONCE_BYTES];
+        secureRandom.nextBytes(nonce);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, nonce));
+        byte[] encrypted = cipher.doFinal(plain);
+        return ByteBuffer.allocate(nonce.length + encrypted.length).put(nonce).put(encrypted).array();
+    }
+
+    private byte[] decrypt(byte[] nonceAndEncrypted) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, nonceAndEncrypted, 0, GCM_NONCE_BYTES));
+        return cipher.doFinal(nonceAndEncrypted, GCM_NONCE_BYTES, nonceAndEncrypted.length - GCM_NONCE_BYTES);
+    }
+
+    // A dedicated AES key so the raw jwt.secret is never used for two different purposes
+    private static byte[] deriveEncryptionKey(String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(Base64.getDecoder().decode(secret.getBytes(StandardCharsets.UTF_8)), "HmacSHA256"));
+            return mac.doFinal("jwt-signing-key-encryption".getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not derive signing key encryption key", e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.priti.authservice.service.impl;
+
+import com.priti.authservice.model.RevokedToken;
+import com.priti.authservice.repository.RevokedTokenRepository;
+import com.priti.authservice.service.TokenRevocationService;
+import com.priti.security.revocation.RevocationList;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Revocations are written to the revoked_tokens table and mirrored in an in-memory RevocationList, which is what
+// validation consults. Every instance polls the table for revocations made by the others; the poll window overlaps
+// the previous one so rows committed late are still picked up (adding an id twice is harmless).
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationServiceImpl.class);
+
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final RevocationList revocationList;
+
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository,
+                                      @Value("${jwt.revocation.expected-revocations:1000000}") long expectedRevocations,
+                                      @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.revocationList = new RevocationList(expectedRevocations, falsePositiveRate);
+    }
+
+    @PostConstruct
+    public void init() {
+        sync();
+    }
+
+    @Override
+    public void revoke(String jti, Instant expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt, Instant.now()));
+        revocationList.add(jti, expiresAt.toEpochMilli());
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        return revocationList.isRevoked(jti);
+    }
+
+    @Override
+    public List<RevokedToken> getRevokedSince(Instant since) {
+        return revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since, Instant.now());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        Instant now = Instant.now();
+        for (RevokedToken revokedToken : getRevokedSince(lastSync.minus(SYNC_OVERLAP))) {
+            revocationList.add(revokedToken.getJti(), revokedToken.getExpiresAt().toEpochMilli());
+        }
+        lastSync = now;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.cleanup-interval-ms:60000}")
+    public void removeExpired() {
+        int removed = revocationList.removeExpired(System.currentTimeMillis());
+        int deleted = revokedTokenRepository.deleteExpired(Instant.now());
+        if (removed > 0 || deleted > 0) {
+            log.info("Dropped {} expired revocations ({} rows), {} still revoked", removed, deleted, revocationList.size());
+        }
+    }
+}
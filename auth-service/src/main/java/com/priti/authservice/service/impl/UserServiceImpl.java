@@ -1,23 +1,58 @@
 package com.priti.authservice.service.impl;
 
-import com.priti.authservice.model.User;
+import com.priti.authservice.dto.UserCacheStatsDTO;
+import com.priti.authservice.model.UserCredentials;
 import com.priti.authservice.repository.UserRepository;
 import com.priti.authservice.service.UserService;
+import com.priti.authservice.util.UserCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
 
-    public UserServiceImpl(UserRepository userRepository) {
+    // Every login looks its email up here first, so repeated logins and logins for unknown emails skip Postgres.
+    // Each instance has its own cache and only invalidates it for changes it makes itself, so the TTL is what bounds
+    // how long another instance may still accept a replaced hash.
+    private final UserCache userCache;
+
+    public UserServiceImpl(UserRepository userRepository,
+                           @Value("${auth.user-cache.max-users:10000}") int maxUsers,
+                           @Value("${auth.user-cache.ttl:30s}") Duration ttl,
+                           @Value("${auth.user-cache.max-missing:100000}") int maxMissing,
+                           @Value("${auth.user-cache.negative-ttl:30s}") Duration negativeTtl) {
         this.userRepository = userRepository;
+        this.userCache = new UserCache(maxUsers, ttl.toMillis(), maxMissing, negativeTtl.toMillis());
     }
 
      @Override
-     public Optional<User> findByEmail(String email) {
-         return userRepository.findByEmail(email);
+     public Optional<UserCredentials> findByEmail(String email) {
+         return userCache.get(email, e -> userRepository.findByEmail(e).map(UserCredentials::of));
      }
+
+    @Override
+    public Optional<UserCredentials> findById(UUID id) {
+        return userRepository.findById(id).map(UserCredentials::of);
+    }
+
+    @Override
+    public void updatePassword(UserCredentials user, String encodedPassword) {
+        try {
+            userRepository.updatePassword(user.id(), encodedPassword);
+        } finally {
+            userCache.invalidate(user.email()); // the cached snapshot may now differ from the row
+        }
+    }
+
+    @Override
+    public UserCacheStatsDTO getCacheStats() {
+        return new UserCacheStatsDTO(userCache.size(), userCache.negativeSize(), userCache.getHits(),
+                userCache.getNegativeHits(), userCache.getMisses(), userCache.getEvictions());
+    }
 }
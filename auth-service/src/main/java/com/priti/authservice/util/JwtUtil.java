@@ -1,47 +1,62 @@
 package com.priti.authservice.util;
 
+import com.priti.authservice.service.SigningKeyService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.security.SignatureException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
-import java.security.Key;
-import java.util.Base64;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
-    // We use secret key to generate the JWT token and to prove that token has come from our servers and is valid anytime we receive this token in  subsequent requests.to our protected endpoints such as get medical profile.
-    // We will initialize secret key
+    // Tokens are signed with a private RSA key (RS256) so anyone holding the public key can verify them without calling us.
+    // The public keys are published at /.well-known/jwks.json; the api-gateway verifies tokens locally against them.
+    // The kid header tells the verifier which of the published (rotating) keys signed the token.
 
-    private final Key secretKey;
+    private final SigningKeyService signingKeyService;
 
-    public JwtUtil(@Value("${jwt.secret}") String secret) { // Injecting the secret key using environment variables.
-        byte[] keyBytes = Base64.getDecoder().decode(secret.getBytes(
-                StandardCharsets.UTF_8)); // We are decoding the secret key from base64 format to byte array
-        this.secretKey = Keys.hmacShaKeyFor(keyBytes); // We have taken our secret key which is a string and we have converted it into a format which is a key object and then we can use this to create tokens
+    private final JwtParser parser;
+
+    private final Duration accessTokenTtl;
+
+    public JwtUtil(SigningKeyService signingKeyService,
+                   @Value("${jwt.access-token.ttl:15m}") Duration accessTokenTtl) { // short-lived: a client keeps its session with the refresh token
+        this.signingKeyService = signingKeyService;
+        this.accessTokenTtl = accessTokenTtl;
+        this.parser = Jwts.parser()
+                .keyLocator(header -> signingKeyService.getVerificationKey(((ProtectedHeader) header).getKeyId())
+                        .orElseThrow(() -> new JwtException("Unknown signing key"))) // looks up the public key by the token's kid
+                .build(); // the parser is thread-safe, so it is built once
     }
 
     public String generateToken(String email, String role) {
-        // Here we will generate the token using the secret key and the email and role of the user
+        // Here we will generate the token using the current signing key and the email and role of the user
+        SigningKeyPair signingKey = signingKeyService.getSigningKey();
         return Jwts.builder()
+                .header().keyId(signingKey.kid()).and() // kid of the key, so verifiers can pick the matching public key
                 .setSubject(email) //standard field
+                .id(UUID.randomUUID().toString()) //jti, standard field. Logout revokes the token by this id
                 .claim("role", role) //custom field
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) //10 hours. We are setting the expiration time of the token to 10 hours from now
-                .signWith(secretKey)
-                .compact(); // compact() method is going to take all above properties and create a string and it will sign that string using the secret key and return sined string that is our JWT token
+                .expiration(new Date(System.currentTimeMillis() + accessTokenTtl.toMillis())) //15 minutes by default. We are setting the expiration time of the token to accessTokenTtl from now
+                .signWith(signingKey.privateKey(), Jwts.SIG.RS256)
+                .compact(); // compact() method is going to take all above properties and create a string and it will sign that string using the private key and return sined string that is our JWT token
+    }
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
     }
 
-    public void validateToken(String token) {
+    public Claims validateToken(String token) {
         try {
-            Jwts.parser().verifyWith((SecretKey) secretKey)// This is how we verify a token is valid or not. JWT package will parse the token and verify its signature using the secret key.
-                    .build() // build() method is used to create a parser instance
-                    .parseSignedClaims(token); // parseSignedClaims(token) method will parse the token and throw an exception if the token is invalid or expired
+            return parser.parseSignedClaims(token).getPayload(); // This is how we verify a token is valid or not. JWT package will look up the public key of the token's kid and verify its signature with it. parseSignedClaims(token) method will parse the token and throw an exception if the token is invalid or expired
 
         } catch (SignatureException e){
             throw new JwtException("Invalid JWT signature");
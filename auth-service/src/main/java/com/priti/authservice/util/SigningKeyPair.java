@@ -0,0 +1,8 @@
+package com.priti.authservice.util;
+
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+
+public record SigningKeyPair(String kid, RSAPublicKey publicKey, RSAPrivateKey privateKey, Instant createdAt) {
+}
@@ -0,0 +1,131 @@
+package com.priti.authservice.util;
+
+import com.priti.authservice.model.UserCredentials;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Users by email with a time-to-live, plus the emails that have no user ("negative" entries). Entries are immutable
+// UserCredentials snapshots, never the JPA entity.
+//
+// Both maps are bounded and evict the least recently used entry. They are kept apart so that a flood of logins with
+// made-up emails only churns the negative map and cannot push real users out. Negative entries live shorter, as a user
+// created behind our back (e.g. by data.sql) is only visible after they expire.
+public final class UserCache {
+
+    private final long ttlNanos;
+
+    private final long negativeTtlNanos;
+
+    private final Map<String, CachedUser> users;
+
+    private final Map<String, Long> missingUntil; // email -> expiry (System.nanoTime)
+
+    // Bumped by every invalidation: a lookup that raced with one must not put its possibly stale result
+    private long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserCache(int maxUsers, long ttlMillis, int maxMissing, long negativeTtlMillis) {
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.negativeTtlNanos = negativeTtlMillis * 1_000_000;
+        this.users = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return evict(size() > maxUsers);
+            }
+        };
+        this.missingUntil = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return evict(size() > maxMissing);
+            }
+        };
+    }
+
+    // Returns the cached answer for email, or calls loader (outside the lock) and caches what it returns, found or not
+    public Optional<UserCredentials> get(String email, Function<String, Optional<UserCredentials>> loader) {
+        long invalidationsBefore;
+        synchronized (this) {
+            long now = System.nanoTime();
+            CachedUser cached = users.get(email);
+            if (cached != null) {
+                if (now - cached.expiresAt() < 0) {
+                    hits.increment();
+                    return Optional.of(cached.user());
+                }
+                users.remove(email);
+            }
+            Long missingExpiresAt = missingUntil.get(email);
+            if (missingExpiresAt != null) {
+                if (now - missingExpiresAt < 0) {
+                    negativeHits.increment();
+                    return Optional.empty();
+                }
+                missingUntil.remove(email);
+            }
+            invalidationsBefore = invalidations;
+        }
+
+        misses.increment();
+        Optional<UserCredentials> loaded = loader.apply(email);
+
+        synchronized (this) {
+            if (invalidations == invalidationsBefore) {
+                long now = System.nanoTime();
+                if (loaded.isPresent()) {
+                    users.put(email, new CachedUser(loaded.get(), now + ttlNanos));
+                } else {
+                    missingUntil.put(email, now + negativeTtlNanos);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    public synchronized void invalidate(String email) {
+        invalidations++;
+        users.remove(email);
+        missingUntil.remove(email);
+    }
+
+    public synchronized int size() {
+        return users.size();
+    }
+
+    public synchronized int negativeSize() {
+        return missingUntil.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getNegativeHits() {
+        return negativeHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private boolean evict(boolean full) {
+        if (full) {
+            evictions.increment();
+        }
+        return full;
+    }
+
+    private record CachedUser(UserCredentials user, long expiresAt) {
+    }
+}
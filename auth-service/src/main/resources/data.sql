@@ -16,4 +16,28 @@ SELECT 'b16d3e64-25ec-4f60-93be-951531ce169a', 'testpriti@test.com',
        OR email = 'testpriti@test.com'
 );
 
+-- RSA keys the access tokens are signed with (see SigningKeyServiceImpl)
+CREATE TABLE IF NOT EXISTS signing_keys (
+    kid VARCHAR(255) PRIMARY KEY,
+    public_key VARCHAR(1024) NOT NULL,
+    encrypted_private_key VARCHAR(4096) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+    );
+
+-- Access tokens revoked by logout, until they expire (see TokenRevocationServiceImpl)
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti VARCHAR(255) PRIMARY KEY,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL
+    );
+CREATE INDEX IF NOT EXISTS revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
 
+-- Refresh tokens by SHA-256 hash; a family is one login and everything refreshed from it
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    token_hash VARCHAR(255) PRIMARY KEY,
+    user_id UUID NOT NULL,
+    family_id UUID NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP WITH TIME ZONE
+    );
+CREATE INDEX IF NOT EXISTS refresh_tokens_family_id ON refresh_tokens (family_id);
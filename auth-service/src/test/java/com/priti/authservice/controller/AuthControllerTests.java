@@ -0,0 +1,40 @@
+package com.priti.authservice.controller;
+
+import com.priti.authservice.exception.GlobalExceptionHandler;
+import com.priti.authservice.exception.LoginCapacityExceededException;
+import com.priti.authservice.service.AuthService;
+import com.priti.authservice.service.TokenRevocationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AuthControllerTests {
+
+    private final AuthService authService = mock(AuthService.class);
+
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new AuthController(authService, mock(TokenRevocationService.class)))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void shouldAnswer429WithRetryAfterWhenThePasswordHashingPoolIsFull() throws Exception {
+        when(authService.authenticate(any())).thenThrow(new LoginCapacityExceededException("password hashing queue is full", 1));
+
+        mockMvc.perform(post("/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"testpriti@test.com\", \"password\": \"password123\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value("Too many login attempts, please retry later"));
+    }
+}
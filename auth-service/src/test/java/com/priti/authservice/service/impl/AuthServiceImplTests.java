@@ -0,0 +1,87 @@
+package com.priti.authservice.service.impl;
+
+import com.priti.authservice.dto.LoginRequestDTO;
+import com.priti.authservice.model.UserCredentials;
+import com.priti.authservice.service.PasswordHashingService;
+import com.priti.authservice.service.PasswordHashingService.PasswordCheck;
+import com.priti.authservice.service.RefreshTokenService;
+import com.priti.authservice.service.TokenRevocationService;
+import com.priti.authservice.service.UserService;
+import com.priti.authservice.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthServiceImplTests {
+
+    private static final UserCredentials USER =
+            new UserCredentials(UUID.randomUUID(), "testpriti@test.com", "$2a$10$legacy", "ADMIN");
+
+    private final UserService userService = mock(UserService.class);
+
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+
+    private final AuthServiceImpl authService = new AuthServiceImpl(userService, passwordHashingService, jwtUtil,
+            refreshTokenService, mock(TokenRevocationService.class));
+
+    @BeforeEach
+    void stubTokens() {
+        when(userService.findByEmail(USER.email())).thenReturn(Optional.of(USER));
+        when(jwtUtil.generateToken(USER.email(), USER.role())).thenReturn("access-token");
+        when(jwtUtil.getAccessTokenTtl()).thenReturn(Duration.ofMinutes(15));
+        when(refreshTokenService.issue(USER.id())).thenReturn("refresh-token");
+    }
+
+    @Test
+    void shouldStoreTheUpgradedHashOnLogin() {
+        when(passwordHashingService.check("password123", USER.passwordHash()))
+                .thenReturn(new PasswordCheck(true, "{bcrypt}$2a$12$upgraded"));
+
+        assertTrue(authService.authenticate(login("password123")).isPresent());
+
+        verify(userService).updatePassword(USER, "{bcrypt}$2a$12$upgraded");
+    }
+
+    @Test
+    void shouldLogInEvenWhenTheUpgradedHashCannotBeStored() {
+        when(passwordHashingService.check("password123", USER.passwordHash()))
+                .thenReturn(new PasswordCheck(true, "{bcrypt}$2a$12$upgraded"));
+        doThrow(new IllegalStateException("database unavailable")).when(userService).updatePassword(any(), anyString());
+
+        assertTrue(authService.authenticate(login("password123")).isPresent());
+    }
+
+    @Test
+    void shouldNotTouchTheHashOfACurrentOrWrongPassword() {
+        when(passwordHashingService.check("password123", USER.passwordHash())).thenReturn(new PasswordCheck(true, null));
+        when(passwordHashingService.check("wrong", USER.passwordHash())).thenReturn(new PasswordCheck(false, null));
+
+        assertTrue(authService.authenticate(login("password123")).isPresent());
+        assertTrue(authService.authenticate(login("wrong")).isEmpty());
+
+        verify(userService, never()).updatePassword(any(), anyString());
+    }
+
+    private static LoginRequestDTO login(String password) {
+        LoginRequestDTO request = new LoginRequestDTO();
+        request.setEmail(USER.email());
+        request.setPassword(password);
+        return request;
+    }
+}
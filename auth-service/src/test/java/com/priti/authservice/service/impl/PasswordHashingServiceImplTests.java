@@ -0,0 +1,131 @@
+package com.priti.authservice.service.impl;
+
+import com.priti.authservice.config.SecurityConfig;
+import com.priti.authservice.exception.LoginCapacityExceededException;
+import com.priti.authservice.service.PasswordHashingService.PasswordCheck;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingServiceImplTests {
+
+    private static final int STRENGTH = 5; // low enough to keep the tests fast
+
+    private final PasswordEncoder passwordEncoder = new SecurityConfig().passwordEncoder(STRENGTH);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private PasswordHashingServiceImpl service;
+
+    @AfterEach
+    void destroy() {
+        release.countDown();
+        service.destroy();
+    }
+
+    @Test
+    void shouldRejectLoginsBeyondThePoolAndQueueAtOnce() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        service = new PasswordHashingServiceImpl(blockingEncoder(running), 1, 1, Duration.ofSeconds(10));
+        CompletableFuture<PasswordCheck> first = CompletableFuture.supplyAsync(() -> service.check("password123", "hash"));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<PasswordCheck> queued = CompletableFuture.supplyAsync(() -> service.check("password123", "hash"));
+        waitUntilQueued(1);
+
+        long start = System.nanoTime();
+        LoginCapacityExceededException rejected = assertThrows(LoginCapacityExceededException.class,
+                () -> service.check("password123", "hash"));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1)); // not queued behind the others
+        assertEquals(1, rejected.getRetryAfterSeconds());
+        release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS).matches());
+        assertTrue(queued.get(5, TimeUnit.SECONDS).matches());
+    }
+
+    @Test
+    void shouldGiveUpOnACheckThatWaitsLongerThanMaxWait() {
+        service = new PasswordHashingServiceImpl(blockingEncoder(new CountDownLatch(1)), 1, 1, Duration.ofMillis(100));
+
+        LoginCapacityExceededException rejected = assertThrows(LoginCapacityExceededException.class,
+                () -> service.check("password123", "hash"));
+
+        assertEquals(1, rejected.getRetryAfterSeconds());
+    }
+
+    @Test
+    void shouldRehashAHashBelowTheConfiguredStrength() {
+        service = new PasswordHashingServiceImpl(passwordEncoder, 1, 1, Duration.ofSeconds(10));
+        String weak = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password123");
+
+        PasswordCheck check = service.check("password123", weak);
+
+        assertTrue(check.matches());
+        assertTrue(check.upgradedHash().startsWith("{bcrypt}$2a$05$"));
+        assertTrue(passwordEncoder.matches("password123", check.upgradedHash()));
+    }
+
+    @Test
+    void shouldRehashALegacyHashWithoutAnAlgorithmPrefix() {
+        service = new PasswordHashingServiceImpl(passwordEncoder, 1, 1, Duration.ofSeconds(10));
+        String legacy = new BCryptPasswordEncoder(STRENGTH).encode("password123"); // as seeded by data.sql
+
+        PasswordCheck check = service.check("password123", legacy);
+
+        assertTrue(check.matches());
+        assertTrue(check.upgradedHash().startsWith("{bcrypt}"));
+    }
+
+    @Test
+    void shouldKeepACurrentHashAndNotUpgradeOnAWrongPassword() {
+        service = new PasswordHashingServiceImpl(passwordEncoder, 1, 1, Duration.ofSeconds(10));
+        String current = passwordEncoder.encode("password123");
+        String weak = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password123");
+
+        assertNull(service.check("password123", current).upgradedHash());
+        PasswordCheck wrongPassword = service.check("wrong", weak);
+        assertFalse(wrongPassword.matches());
+        assertNull(wrongPassword.upgradedHash());
+    }
+
+    // Matches every password, once `release` is counted down
+    private PasswordEncoder blockingEncoder(CountDownLatch running) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+    }
+
+    private void waitUntilQueued(int checks) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.queuedChecks() < checks && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(checks, service.queuedChecks());
+    }
+}
@@ -0,0 +1,126 @@
+package com.priti.authservice.service.impl;
+
+import com.priti.authservice.model.SigningKey;
+import com.priti.authservice.repository.SigningKeyRepository;
+import com.priti.authservice.util.SigningKeyPair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Instances share their keys through the signing_keys table, stood in for by an in-memory list
+class SigningKeyServiceImplTests {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private static final Duration ROTATION_INTERVAL = Duration.ofHours(24);
+
+    private static final Duration ACTIVATION_DELAY = Duration.ofMinutes(10);
+
+    private static final Duration RETENTION = Duration.ofHours(48);
+
+    private final List<SigningKey> table = new CopyOnWriteArrayList<>();
+
+    private final SigningKeyRepository repository = mock(SigningKeyRepository.class);
+
+    @BeforeEach
+    void stubRepository() {
+        when(repository.save(any(SigningKey.class))).thenAnswer(invocation -> {
+            table.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(repository.findByCreatedAtAfterOrderByCreatedAtDesc(any(Instant.class))).thenAnswer(invocation -> {
+            Instant createdAfter = invocation.getArgument(0);
+            return table.stream()
+                    .filter(key -> key.getCreatedAt().isAfter(createdAfter))
+                    .sorted(Comparator.comparing(SigningKey::getCreatedAt).reversed())
+                    .toList();
+        });
+    }
+
+    @Test
+    void shouldCreateAKeyOnFirstStartAndSignWithItRightAway() {
+        SigningKeyServiceImpl service = start();
+
+        assertEquals(1, table.size());
+        SigningKeyPair signingKey = service.getSigningKey();
+        assertEquals(table.get(0).getKid(), signingKey.kid());
+        assertEquals(signingKey.publicKey(), service.getVerificationKey(signingKey.kid()).orElseThrow());
+    }
+
+    @Test
+    void shouldPublishANewKeyBeforeSigningWithIt() {
+        SigningKeyServiceImpl service = start();
+        String oldKid = service.getSigningKey().kid();
+
+        age(table.get(0), ROTATION_INTERVAL.plusMinutes(1));
+        service.rotateIfDue();
+
+        assertEquals(2, table.size());
+        String newKid = table.get(1).getKid();
+        assertEquals(List.of(newKid, oldKid), List.copyOf(service.getPublishedKeys().keySet()));
+        assertEquals(oldKid, service.getSigningKey().kid()); // gateways have not seen the new key yet
+
+        age(table.get(1), ACTIVATION_DELAY.plusSeconds(1));
+        service.rotateIfDue();
+
+        assertEquals(2, table.size());
+        assertEquals(newKid, service.getSigningKey().kid());
+        assertTrue(service.getVerificationKey(oldKid).isPresent()); // tokens signed before the switch stay valid
+    }
+
+    @Test
+    void shouldStopPublishingKeysAfterTheRetention() {
+        SigningKeyServiceImpl service = start();
+        String oldKid = service.getSigningKey().kid();
+
+        age(table.get(0), RETENTION.plusMinutes(1));
+        service.rotateIfDue();
+
+        assertEquals(1, service.getPublishedKeys().size());
+        assertNotEquals(oldKid, service.getSigningKey().kid());
+        assertTrue(service.getVerificationKey(oldKid).isEmpty());
+    }
+
+    @Test
+    void shouldVerifyWithAKeyCreatedByAnotherInstanceOnceItReloads() {
+        SigningKeyServiceImpl first = start();
+        age(table.get(0), ROTATION_INTERVAL.plusMinutes(1));
+        SigningKeyServiceImpl second = start(); // rotates: the key is due
+        String newKid = table.get(1).getKid();
+
+        // Unknown kids reload at most every 10s, so bogus kids cannot hammer the database
+        assertTrue(first.getVerificationKey(newKid).isEmpty());
+        assertTrue(first.getVerificationKey("bogus").isEmpty());
+        verify(repository, times(4)).findByCreatedAtAfterOrderByCreatedAtDesc(any(Instant.class)); // two per start
+
+        first.rotateIfDue();
+
+        assertEquals(second.getVerificationKey(newKid), first.getVerificationKey(newKid));
+        assertEquals(2, table.size());
+    }
+
+    private SigningKeyServiceImpl start() {
+        SigningKeyServiceImpl service = new SigningKeyServiceImpl(repository, SECRET, ROTATION_INTERVAL, ACTIVATION_DELAY, RETENTION);
+        service.init();
+        return service;
+    }
+
+    private static void age(SigningKey key, Duration age) {
+        key.setCreatedAt(key.getCreatedAt().minus(age));
+    }
+}
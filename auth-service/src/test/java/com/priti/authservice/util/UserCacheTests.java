@@ -0,0 +1,90 @@
+package com.priti.authservice.util;
+
+import com.priti.authservice.model.UserCredentials;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserCacheTests {
+
+    private final List<String> loaded = new ArrayList<>();
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedUser() {
+        UserCache cache = new UserCache(2, 60_000, 10, 60_000);
+        cache.get("a@test.com", this::load);
+        cache.get("b@test.com", this::load);
+        cache.get("a@test.com", this::load); // b is now the least recently used
+        cache.get("c@test.com", this::load);
+
+        cache.get("a@test.com", this::load);
+        cache.get("b@test.com", this::load);
+
+        assertEquals(List.of("a@test.com", "b@test.com", "c@test.com", "b@test.com"), loaded);
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    void shouldCacheUnknownEmailsSeparatelyFromUsers() {
+        UserCache cache = new UserCache(1, 60_000, 1, 60_000);
+        cache.get("a@test.com", this::load);
+
+        Optional<UserCredentials> first = cache.get("unknown-1@test.com", this::loadNothing);
+        Optional<UserCredentials> second = cache.get("unknown-1@test.com", this::loadNothing);
+        cache.get("unknown-2@test.com", this::loadNothing); // pushes unknown-1 out, not the real user
+        cache.get("a@test.com", this::load);
+
+        assertTrue(first.isEmpty());
+        assertTrue(second.isEmpty());
+        assertEquals(List.of("a@test.com", "unknown-1@test.com", "unknown-2@test.com"), loaded);
+        assertEquals(1, cache.getNegativeHits());
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.negativeSize());
+    }
+
+    @Test
+    void shouldExpireNegativeEntriesOnTheirOwnTtl() throws InterruptedException {
+        UserCache cache = new UserCache(10, 60_000, 10, 20);
+        cache.get("new@test.com", this::loadNothing);
+        Thread.sleep(50);
+
+        cache.get("new@test.com", this::load); // created since, e.g. by data.sql
+
+        assertEquals(List.of("new@test.com", "new@test.com"), loaded);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void shouldNotCacheALookupThatRacedWithAnInvalidation() {
+        UserCache cache = new UserCache(10, 60_000, 10, 60_000);
+        // The password is changed (and the email invalidated) while the lookup still holds the old row
+        Function<String, Optional<UserCredentials>> staleLoad = email -> {
+            Optional<UserCredentials> row = load(email);
+            cache.invalidate(email);
+            return row;
+        };
+
+        cache.get("a@test.com", staleLoad);
+        cache.get("a@test.com", this::load);
+
+        assertEquals(2, loaded.size());
+        assertEquals(0, cache.getHits());
+    }
+
+    private Optional<UserCredentials> load(String email) {
+        loaded.add(email);
+        return Optional.of(new UserCredentials(UUID.randomUUID(), email, "$2a$12$hash", "ADMIN"));
+    }
+
+    private Optional<UserCredentials> loadNothing(String email) {
+        loaded.add(email);
+        return Optional.empty();
+    }
+}
@@ -12,6 +12,12 @@ import software.amazon.awscdk.RemovalPolicy;
 import software.amazon.awscdk.Stack;
 import software.amazon.awscdk.StackProps;
 import software.amazon.awscdk.Token;
+import software.amazon.awscdk.services.applicationautoscaling.AdjustmentType;
+import software.amazon.awscdk.services.applicationautoscaling.BasicStepScalingPolicyProps;
+import software.amazon.awscdk.services.applicationautoscaling.EnableScalingProps;
+import software.amazon.awscdk.services.applicationautoscaling.ScalingInterval;
+import software.amazon.awscdk.services.cloudwatch.Metric;
+import software.amazon.awscdk.services.cloudwatch.MetricOptions;
 import software.amazon.awscdk.services.ec2.ISubnet;
 import software.amazon.awscdk.services.ec2.InstanceClass;
 import software.amazon.awscdk.services.ec2.InstanceSize;
@@ -22,11 +28,14 @@ import software.amazon.awscdk.services.ecs.CloudMapNamespaceOptions;
 import software.amazon.awscdk.services.ecs.Cluster;
 import software.amazon.awscdk.services.ecs.ContainerDefinitionOptions;
 import software.amazon.awscdk.services.ecs.ContainerImage;
+import software.amazon.awscdk.services.ecs.CpuUtilizationScalingProps;
 import software.amazon.awscdk.services.ecs.FargateService;
 import software.amazon.awscdk.services.ecs.FargateTaskDefinition;
 import software.amazon.awscdk.services.ecs.LogDriver;
 import software.amazon.awscdk.services.ecs.PortMapping;
 import software.amazon.awscdk.services.ecs.Protocol;
+import software.amazon.awscdk.services.ecs.RequestCountScalingProps;
+import software.amazon.awscdk.services.ecs.ScalableTaskCount;
 import software.amazon.awscdk.services.ecs.patterns.ApplicationLoadBalancedFargateService;
 import software.amazon.awscdk.services.logs.LogGroup;
 import software.amazon.awscdk.services.logs.RetentionDays;
@@ -40,6 +49,8 @@ import software.amazon.awscdk.services.route53.CfnHealthCheck;
 
 public class LocalStack extends Stack {
 
+    private static final String MSK_CLUSTER_NAME = "kafka-cluster";
+
     private final Vpc vpc;
 
     private final Cluster ecsCluster;
@@ -72,6 +83,9 @@ public class LocalStack extends Stack {
         authService.getNode().addDependency(authDbHealthCheck);
         authService.getNode().addDependency(authServiceDb);
 
+        createAutoScaling("AuthService", authService,
+                ServiceScaling.fromContext(this, "auth-service", new ServiceScaling(1, 4, 60, 0, 0)));
+
         FargateService medicalBillingService =
                 createFargateService("MedicalBillingService",
                         "medical-billing-service",
@@ -79,6 +93,9 @@ public class LocalStack extends Stack {
                         null,
                         null);
 
+        createAutoScaling("MedicalBillingService", medicalBillingService,
+                ServiceScaling.fromContext(this, "medical-billing-service", new ServiceScaling(1, 4, 60, 0, 0)));
+
         FargateService medicalAnalyticsService =
                 createFargateService("MedicalAnalyticsService",
                         "medical-analytics-service",
@@ -88,14 +105,22 @@ public class LocalStack extends Stack {
 
         medicalAnalyticsService.getNode().addDependency(mskCluster);
 
+        // More consumers than partitions of medical-profile (3) would sit idle, hence the default maximum
+        ServiceScaling analyticsScaling =
+                ServiceScaling.fromContext(this, "medical-analytics-service", new ServiceScaling(1, 3, 70, 0, 1000));
+        ScalableTaskCount analyticsTaskCount = createAutoScaling("MedicalAnalyticsService", medicalAnalyticsService, analyticsScaling);
+        createKafkaLagScaling("MedicalAnalyticsService", analyticsTaskCount, analyticsScaling,
+                "medical-analytics-service", "medical-profile");
+
         FargateService medicalProfileService =
                 createFargateService("MedicalProfileService",
                         "medical-profile-service",
-                        List.of(8081),
+                        List.of(8081,9002),
                         medicalProfileServiceDb,
                         Map.of(
                             "BILLING_SERVICE_ADDRESS", "host.docker.internal",
-                            "BILLING_SERVICE_GRPC_PORT", "9001"
+                            "BILLING_SERVICE_GRPC_PORT", "9001",
+                            "PROFILE_GRPC_AUTH_TOKEN", "local-profile-grpc-token"
                         ));
 
         medicalProfileService.getNode().addDependency(medicalProfileDbHealthCheck);
@@ -103,7 +128,15 @@ public class LocalStack extends Stack {
         medicalProfileService.getNode().addDependency(medicalBillingService);
         medicalProfileService.getNode().addDependency(mskCluster);
 
-        createApiGatewayService();
+        createAutoScaling("MedicalProfileService", medicalProfileService,
+                ServiceScaling.fromContext(this, "medical-profile-service", new ServiceScaling(1, 6, 60, 0, 0)));
+
+        ApplicationLoadBalancedFargateService apiGateway = createApiGatewayService();
+
+        ServiceScaling apiGatewayScaling =
+                ServiceScaling.fromContext(this, "api-gateway", new ServiceScaling(1, 6, 60, 500, 0));
+        ScalableTaskCount apiGatewayTaskCount = createAutoScaling("APIGatewayService", apiGateway.getService(), apiGatewayScaling);
+        createRequestCountScaling("APIGatewayService", apiGatewayTaskCount, apiGatewayScaling, apiGateway);
     }
 
     //we have used aws cdk to create a VPC. VPC creates the routing and the networks that are needed for our internal services to work and communicate with each other.
@@ -150,7 +183,7 @@ public class LocalStack extends Stack {
 
     private CfnCluster createMskCluster() {
         return CfnCluster.Builder.create(this, "MskCluster")
-                .clusterName("kafka-cluster")
+                .clusterName(MSK_CLUSTER_NAME)
                 .kafkaVersion("2.8.0")
                 .numberOfBrokerNodes(2)
                 .brokerNodeGroupInfo(CfnCluster.BrokerNodeGroupInfoProperty.builder()
@@ -232,7 +265,7 @@ public class LocalStack extends Stack {
                 .build();
     }
 
-    private void createApiGatewayService(){
+    private ApplicationLoadBalancedFargateService createApiGatewayService(){
         FargateTaskDefinition taskDefinition = FargateTaskDefinition.Builder.create(this, "APIGatewayTaskDefinition")
                 .cpu(256)
                 .memoryLimitMiB(512)
@@ -273,11 +306,91 @@ public class LocalStack extends Stack {
                 .desiredCount( 1)
                 .healthCheckGracePeriod(Duration.seconds(60))
                 .build();
+
+        return apiGateway;
+    }
+
+    // Task count between the service's bounds, following CPU: target tracking keeps the average near cpuTargetPercent
+    // (adding and removing tasks), step scaling adds several tasks at once on a sharp spike, where target tracking would
+    // only get there over several rounds. Scale-in stays with target tracking, which waits until every policy agrees.
+    private ScalableTaskCount createAutoScaling(String id, FargateService service, ServiceScaling scaling) {
+        ScalableTaskCount taskCount = service.autoScaleTaskCount(EnableScalingProps.builder()
+                .minCapacity(scaling.minCapacity())
+                .maxCapacity(scaling.maxCapacity())
+                .build());
+
+        taskCount.scaleOnCpuUtilization(id + "CpuTargetTracking", CpuUtilizationScalingProps.builder()
+                .targetUtilizationPercent(scaling.cpuTargetPercent())
+                .scaleOutCooldown(Duration.seconds(60))
+                .scaleInCooldown(Duration.seconds(300))
+                .build());
+
+        taskCount.scaleOnMetric(id + "CpuStepScaling", BasicStepScalingPolicyProps.builder()
+                .metric(service.metricCpuUtilization(MetricOptions.builder()
+                        .period(Duration.minutes(1))
+                        .build()))
+                .scalingSteps(List.of(
+                        ScalingInterval.builder().lower(85).upper(95).change(2).build(),
+                        ScalingInterval.builder().lower(95).change(4).build()))
+                .adjustmentType(AdjustmentType.CHANGE_IN_CAPACITY)
+                .cooldown(Duration.seconds(60))
+                .build());
+
+        return taskCount;
+    }
+
+    // Services behind the load balancer: keep the requests per task near requestsPerTarget (per minute, as counted by the ALB)
+    private void createRequestCountScaling(String id, ScalableTaskCount taskCount, ServiceScaling scaling,
+                                           ApplicationLoadBalancedFargateService service) {
+        if (scaling.requestsPerTarget() <= 0) {
+            return;
+        }
+        taskCount.scaleOnRequestCount(id + "RequestCountTargetTracking", RequestCountScalingProps.builder()
+                .requestsPerTarget(scaling.requestsPerTarget())
+                .targetGroup(service.getTargetGroup())
+                .scaleOutCooldown(Duration.seconds(60))
+                .scaleInCooldown(Duration.seconds(300))
+                .build());
+    }
+
+    // Kafka consumers: add tasks while the consumer group falls behind (SumOffsetLag, reported by MSK per consumer
+    // group and topic). Only scale-out: an empty backlog says nothing about how many consumers are needed to keep it
+    // empty, so scale-in is left to the CPU target.
+    private void createKafkaLagScaling(String id, ScalableTaskCount taskCount, ServiceScaling scaling,
+                                      String consumerGroup, String topic) {
+        if (scaling.maxOffsetLag() <= 0) {
+            return;
+        }
+        Metric offsetLag = Metric.Builder.create()
+                .namespace("AWS/Kafka")
+                .metricName("SumOffsetLag")
+                .dimensionsMap(Map.of(
+                        "Cluster Name", MSK_CLUSTER_NAME,
+                        "Consumer Group", consumerGroup,
+                        "Topic", topic))
+                .statistic("Maximum")
+                .period(Duration.minutes(1))
+                .build();
+
+        taskCount.scaleOnMetric(id + "KafkaLagStepScaling", BasicStepScalingPolicyProps.builder()
+                .metric(offsetLag)
+                .scalingSteps(List.of(
+                        ScalingInterval.builder().lower(scaling.maxOffsetLag()).upper(scaling.maxOffsetLag() * 10).change(1).build(),
+                        ScalingInterval.builder().lower(scaling.maxOffsetLag() * 10).change(2).build()))
+                .adjustmentType(AdjustmentType.CHANGE_IN_CAPACITY)
+                .cooldown(Duration.seconds(120))
+                .build());
     }
 
     //Entry point for the code that is going to create our cloud formation template for our infrastructure.
     public static void main(final String[] args) {
-        App app = new App(AppProps.builder().outdir("./cdk.out").build());// Here, we are creating a new aws CDK application and we are defining where we want the output to be stored. When ever our stack is created, its going to generate a cloud formation template and store it in the ./cdk.out directory. This is the directory that we are going to use to deploy our stack to AWS using the AWS CLI or any other tool that supports cloud formation templates.
+        // -Dscaling.<service>.<setting>=... overrides the autoscaling defaults (see ServiceScaling)
+        Map<String, Object> context = new HashMap<>();
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("scaling."))
+                .forEach(name -> context.put(name, System.getProperty(name)));
+
+        App app = new App(AppProps.builder().outdir("./cdk.out").context(context).build());// Here, we are creating a new aws CDK application and we are defining where we want the output to be stored. When ever our stack is created, its going to generate a cloud formation template and store it in the ./cdk.out directory. This is the directory that we are going to use to deploy our stack to AWS using the AWS CLI or any other tool that supports cloud formation templates.
         StackProps props = StackProps.builder()
                 .synthesizer(new BootstraplessSynthesizer()) //synthesizer is aws term that is used to convert our java code that defines our infrastructure into a cloud formation template. The synthesizer is responsible for generating the cloud formation template from our CDK code. In this case, we are using a BootstraplessSynthesizer which is a type of synthesizer that does not require bootstrapping the CDK environment. This is useful for local development and testing purposes, as it allows us to create stacks without needing to set up the CDK bootstrap resources in our AWS account.
                 .build();
@@ -0,0 +1,36 @@
+package org.priti.stack;
+
+import software.constructs.Construct;
+
+// Autoscaling bounds and targets of one service. The defaults are set in LocalStack; each value can be overridden per
+// service through CDK context, e.g. -c scaling.medical-profile-service.max-capacity=8 (cdk CLI), an entry in cdk.json,
+// or -Dscaling.medical-profile-service.max-capacity=8 when running LocalStack.main directly.
+//
+// requestsPerTarget only applies to services behind the load balancer, maxOffsetLag only to Kafka consumers
+// (0 = no such policy).
+public record ServiceScaling(int minCapacity,
+                             int maxCapacity,
+                             int cpuTargetPercent,
+                             int requestsPerTarget,
+                             int maxOffsetLag) {
+
+    public ServiceScaling {
+        if (minCapacity < 0 || maxCapacity < minCapacity) {
+            throw new IllegalArgumentException("Invalid task count bounds: min " + minCapacity + ", max " + maxCapacity);
+        }
+    }
+
+    public static ServiceScaling fromContext(Construct scope, String serviceName, ServiceScaling defaults) {
+        return new ServiceScaling(
+                intFromContext(scope, serviceName, "min-capacity", defaults.minCapacity()),
+                intFromContext(scope, serviceName, "max-capacity", defaults.maxCapacity()),
+                intFromContext(scope, serviceName, "cpu-target-percent", defaults.cpuTargetPercent()),
+                intFromContext(scope, serviceName, "requests-per-target", defaults.requestsPerTarget()),
+                intFromContext(scope, serviceName, "max-offset-lag", defaults.maxOffsetLag()));
+    }
+
+    private static int intFromContext(Construct scope, String serviceName, String key, int defaultValue) {
+        Object value = scope.getNode().tryGetContext("scaling." + serviceName + "." + key);
+        return value == null ? defaultValue : Integer.parseInt(value.toString());
+    }
+}
@@ -0,0 +1,77 @@
+package org.priti.stack;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awscdk.App;
+import software.amazon.awscdk.AppProps;
+import software.amazon.awscdk.BootstraplessSynthesizer;
+import software.amazon.awscdk.StackProps;
+import software.amazon.awscdk.assertions.Match;
+import software.amazon.awscdk.assertions.Template;
+
+import java.util.List;
+import java.util.Map;
+
+class LocalStackTests {
+
+    @Test
+    void shouldScaleEveryServiceOnCpu() {
+        Template template = synthesize(Map.of());
+
+        template.resourceCountIs("AWS::ApplicationAutoScaling::ScalableTarget", 5);
+        template.resourcePropertiesCountIs("AWS::ApplicationAutoScaling::ScalingPolicy", Map.of(
+                "PolicyType", "TargetTrackingScaling",
+                "TargetTrackingScalingPolicyConfiguration", Map.of(
+                        "PredefinedMetricSpecification", Map.of("PredefinedMetricType", "ECSServiceAverageCPUUtilization"))),
+                5);
+        template.resourcePropertiesCountIs("AWS::ApplicationAutoScaling::ScalingPolicy", Map.of(
+                "PolicyType", "StepScaling"),
+                6); // a CPU step policy per service, plus consumer lag for analytics
+    }
+
+    @Test
+    void shouldScaleTheGatewayOnRequestsPerTarget() {
+        Template template = synthesize(Map.of());
+
+        template.hasResourceProperties("AWS::ApplicationAutoScaling::ScalingPolicy", Map.of(
+                "PolicyType", "TargetTrackingScaling",
+                "TargetTrackingScalingPolicyConfiguration", Map.of(
+                        "TargetValue", 500,
+                        "PredefinedMetricSpecification", Map.of("PredefinedMetricType", "ALBRequestCountPerTarget"))));
+    }
+
+    @Test
+    void shouldScaleAnalyticsOnConsumerLag() {
+        Template template = synthesize(Map.of());
+
+        template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+                "Namespace", "AWS/Kafka",
+                "MetricName", "SumOffsetLag",
+                "Statistic", "Maximum",
+                "ComparisonOperator", "GreaterThanOrEqualToThreshold",
+                "Threshold", 1000,
+                "Dimensions", Match.arrayWith(List.of(
+                        Map.of("Name", "Consumer Group", "Value", "medical-analytics-service")))));
+        template.hasResourceProperties("AWS::ApplicationAutoScaling::ScalableTarget", Map.of(
+                "MinCapacity", 1,
+                "MaxCapacity", 3)); // one consumer per partition of medical-profile
+    }
+
+    @Test
+    void shouldTakeBoundsFromContext() {
+        Template template = synthesize(Map.of(
+                "scaling.medical-profile-service.min-capacity", "2",
+                "scaling.medical-profile-service.max-capacity", "10"));
+
+        template.hasResourceProperties("AWS::ApplicationAutoScaling::ScalableTarget", Map.of(
+                "MinCapacity", 2,
+                "MaxCapacity", 10));
+    }
+
+    private static Template synthesize(Map<String, Object> context) {
+        App app = new App(AppProps.builder().context(context).build());
+        LocalStack stack = new LocalStack(app, "localstack", StackProps.builder()
+                .synthesizer(new BootstraplessSynthesizer())
+                .build());
+        return Template.fromStack(stack);
+    }
+}
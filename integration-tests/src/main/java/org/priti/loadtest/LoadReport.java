@@ -0,0 +1,105 @@
+package org.priti.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Results of the measured part of a run, per operation and overall.
+//
+// Two latencies are recorded for every request:
+// - response time: from when the request was scheduled to be sent until its response arrived. This is what a user
+//   arriving at that moment would have seen, including any time the request waited because the load generator or its
+//   connections were backed up: it is corrected for coordinated omission.
+// - service time: from when the request was actually sent. This alone understates latency as soon as anything queues.
+// Requests that were never sent because max-in-flight was reached are counted as dropped.
+public class LoadReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = 3_600_000_000L;
+
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+    private final Stats total = new Stats();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile long measuredNanos;
+
+    public LoadReport() {
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    void record(Operation operation, long responseTimeNanos, long serviceTimeNanos, int status) {
+        stats.get(operation).record(responseTimeNanos, serviceTimeNanos, status);
+        total.record(responseTimeNanos, serviceTimeNanos, status);
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    void setMeasuredNanos(long measuredNanos) {
+        this.measuredNanos = measuredNanos;
+    }
+
+    public void print(PrintStream out, double targetRate) {
+        double seconds = measuredNanos / 1e9;
+        out.printf("%nTarget rate %.1f req/s, measured for %.1f s, dropped (not sent, max-in-flight reached): %d%n",
+                targetRate, seconds, dropped.sum());
+        out.printf("%-37s | %-38s | %-26s |%n", "", "response time ms (from scheduled)", "service time ms (from sent)");
+        out.printf("%-8s %9s %9s %8s | %8s %8s %8s %9s | %8s %8s %8s | %s%n",
+                "", "requests", "req/s", "errors", "p50", "p99", "p99.9", "max", "p50", "p99", "p99.9", "status codes");
+        stats.forEach((operation, operationStats) -> {
+            if (operationStats.responseTime.getTotalCount() > 0) {
+                operationStats.print(out, operation.name(), seconds);
+            }
+        });
+        total.print(out, "TOTAL", seconds);
+    }
+
+    private static final class Stats {
+
+        private final Histogram responseTime = new ConcurrentHistogram(1, HIGHEST_TRACKABLE_MICROS, 3);
+
+        private final Histogram serviceTime = new ConcurrentHistogram(1, HIGHEST_TRACKABLE_MICROS, 3);
+
+        private final LongAdder errors = new LongAdder();
+
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void record(long responseTimeNanos, long serviceTimeNanos, int status) {
+            responseTime.recordValue(micros(responseTimeNanos));
+            serviceTime.recordValue(micros(serviceTimeNanos));
+            if (status / 100 != 2) {
+                errors.increment(); // status 0: no response (connection error or timeout)
+            }
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+
+        void print(PrintStream out, String name, double seconds) {
+            Map<Integer, Long> byStatus = new TreeMap<>();
+            statuses.forEach((status, count) -> byStatus.put(status, count.sum()));
+            out.printf("%-8s %9d %9.1f %8d | %8.2f %8.2f %8.2f %9.2f | %8.2f %8.2f %8.2f | %s%n",
+                    name, responseTime.getTotalCount(), responseTime.getTotalCount() / seconds, errors.sum(),
+                    millis(responseTime.getValueAtPercentile(50)), millis(responseTime.getValueAtPercentile(99)),
+                    millis(responseTime.getValueAtPercentile(99.9)), millis(responseTime.getMaxValue()),
+                    millis(serviceTime.getValueAtPercentile(50)), millis(serviceTime.getValueAtPercentile(99)),
+                    millis(serviceTime.getValueAtPercentile(99.9)), byStatus);
+        }
+
+        private static long micros(long nanos) {
+            return Math.min(Math.max(nanos / 1_000, 1), HIGHEST_TRACKABLE_MICROS);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1_000.0;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.priti.loadtest;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Open-model load test of the API gateway: login, list, create, update and delete at a constant arrival rate, reporting
+// throughput and coordinated-omission-corrected p50 / p99 / p99.9 per operation.
+//
+//   mvn compile exec:java -Dload.rate=200 -Dload.duration=2m
+//
+// Against the stack on localhost:8084 (docker or LocalStack), or with -Dload.local=true against services started on
+// this machine by LocalServices (build their jars first). Other settings: load.base-url, load.warmup (10s),
+// load.max-in-flight (5000), load.mix (login=5,list=40,create=20,update=20,delete=15), load.email, load.password.
+// Note that the gateway rate-limits each user to 20 req/s by default; LocalServices raises that limit.
+public class LoadTest {
+
+    private static final Duration RELOGIN_INTERVAL = Duration.ofMinutes(5); // well within the access token lifetime
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        LocalServices localServices = config.local() ? LocalServices.start(config.projectRoot()) : null;
+        ScheduledExecutorService relogin = Executors.newSingleThreadScheduledExecutor();
+        try {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            MedicalProfileWorkload workload = new MedicalProfileWorkload(httpClient, config.baseUrl(), config.email(), config.password());
+            workload.login();
+            relogin.scheduleAtFixedRate(() -> {
+                try {
+                    workload.login();
+                } catch (Exception e) {
+                    System.err.println("Re-login failed: " + e.getMessage());
+                }
+            }, RELOGIN_INTERVAL.toSeconds(), RELOGIN_INTERVAL.toSeconds(), TimeUnit.SECONDS);
+
+            System.out.printf("Offering %.1f req/s to %s for %s after %s warm-up%n",
+                    config.rate(), config.baseUrl(), config.duration(), config.warmup());
+            LoadReport report = new OpenModelLoadGenerator(config).run(workload);
+            report.print(System.out, config.rate());
+        } finally {
+            relogin.shutdownNow();
+            if (localServices != null) {
+                localServices.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.priti.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Settings of a run, from system properties (-Dload.rate=200 ...)
+public record LoadTestConfig(String baseUrl, double rate, Duration duration, Duration warmup, int maxInFlight,
+                             Map<Operation, Integer> mix, String email, String password, boolean local, Path projectRoot) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                System.getProperty("load.base-url", "http://localhost:8084"),
+                Double.parseDouble(System.getProperty("load.rate", "100")),
+                parseDuration(System.getProperty("load.duration", "60s")),
+                parseDuration(System.getProperty("load.warmup", "10s")),
+                Integer.parseInt(System.getProperty("load.max-in-flight", "5000")),
+                parseMix(System.getProperty("load.mix", "login=5,list=40,create=20,update=20,delete=15")),
+                System.getProperty("load.email", "testpriti@test.com"),
+                System.getProperty("load.password", "password123"),
+                Boolean.parseBoolean(System.getProperty("load.local", "false")),
+                Path.of(System.getProperty("load.project-root", "..")).toAbsolutePath().normalize());
+    }
+
+    // "90s", "5m", "500ms" or ISO-8601 ("PT1M")
+    static Duration parseDuration(String value) {
+        String text = value.trim().toLowerCase();
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        if (text.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        if (text.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        return Duration.parse(value.trim());
+    }
+
+    // "login=5,list=40,..." -> relative weights
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] entry = part.trim().split("=");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in load.mix, got: " + part);
+            }
+            mix.put(Operation.valueOf(entry[0].trim().toUpperCase()), Integer.parseInt(entry[1].trim()));
+        }
+        return mix;
+    }
+}
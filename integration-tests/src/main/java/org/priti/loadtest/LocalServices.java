@@ -0,0 +1,150 @@
+package org.priti.loadtest;
+
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+// Everything the load test talks to, on this machine and without Docker, Postgres or a Kafka cluster:
+// - Kafka as an embedded KRaft broker inside this JVM
+// - each service as a child JVM from its executable jar (mvn package in its module first), auth-service and
+//   medical-profile-service on in-memory H2, billing's gRPC server on localhost:9001
+// - the gateway on localhost:8084 routing to them, with rate limits high enough not to cap the offered load
+// Logs of the services go to target/load-test-logs.
+public final class LocalServices implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final EmbeddedKafkaKraftBroker kafka;
+
+    private final List<Process> processes = new ArrayList<>();
+
+    private final Path projectRoot;
+
+    private final Path logDirectory;
+
+    private LocalServices(EmbeddedKafkaKraftBroker kafka, Path projectRoot, Path logDirectory) {
+        this.kafka = kafka;
+        this.projectRoot = projectRoot;
+        this.logDirectory = logDirectory;
+    }
+
+    public static LocalServices start(Path projectRoot) throws Exception {
+        EmbeddedKafkaKraftBroker kafka = startKafka();
+        Path logDirectory = Files.createDirectories(Path.of("target", "load-test-logs"));
+        LocalServices services = new LocalServices(kafka, projectRoot, logDirectory);
+        try {
+            services.startAll(kafka.getBrokersAsString());
+        } catch (Exception e) {
+            services.close();
+            throw e;
+        }
+        return services;
+    }
+
+    private void startAll(String kafkaBrokers) throws Exception {
+        for (Service service : services(kafkaBrokers, logDirectory)) {
+            Path jar = service.jar(projectRoot);
+            List<String> command = new ArrayList<>(List.of(javaExecutable(), "-jar", jar.toString()));
+            command.addAll(service.arguments());
+            ProcessBuilder builder = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(logDirectory.resolve(service.module() + ".log").toFile());
+            builder.environment().putAll(service.environment());
+            System.out.println("Starting " + service.module() + " on port " + service.port());
+            processes.add(builder.start());
+            waitForPort(service.module(), service.port(), Duration.ofMillis(500));
+        }
+    }
+
+    // How to run each service locally, in start order (the gateway last, after auth-service publishes its keys)
+    static List<Service> services(String kafkaBrokers, Path workDirectory) {
+        String jwtSecret = Base64.getEncoder().encodeToString(new SecureRandom().generateSeed(32));
+        return List.of(
+                new Service("medical-billing-service", 8082, Map.of(), List.of(
+                        "--spring.kafka.bootstrap-servers=" + kafkaBrokers)),
+                new Service("medical-analytics-service", 8083, Map.of(), List.of(
+                        "--spring.kafka.bootstrap-servers=" + kafkaBrokers,
+                        "--analytics.snapshot.directory=" + workDirectory.resolve("analytics-snapshots").toAbsolutePath(),
+                        "--analytics.columnar.directory=" + workDirectory.resolve("analytics-columnar").toAbsolutePath())),
+                new Service("auth-service", 8085, Map.of(), List.of(
+                        "--jwt.secret=" + jwtSecret,
+                        "--spring.datasource.url=jdbc:h2:mem:auth;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.sql.init.mode=always")),
+                new Service("medical-profile-service", 8081, Map.of(), List.of(
+                        "--spring.datasource.url=jdbc:h2:mem:profile;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.kafka.bootstrap-servers=" + kafkaBrokers,
+                        "--billing.service.address=localhost",
+                        "--billing.service.grpc.port=9001")),
+                new Service("api-gateway", 8084, Map.of(
+                        "GATEWAY_RATE_LIMIT_REPLENISH_RATE", "1000000",
+                        "GATEWAY_RATE_LIMIT_BURST_CAPACITY", "1000000",
+                        "GATEWAY_RATE_LIMIT_ROUTE_REPLENISH_RATE", "1000000"), List.of(
+                        "--auth.service.url=http://localhost:8085",
+                        "--spring.cloud.discovery.client.simple.instances.auth-service[0].uri=http://localhost:8085",
+                        "--spring.cloud.discovery.client.simple.instances.medical-profile-service[0].uri=http://localhost:8081")));
+    }
+
+    static EmbeddedKafkaKraftBroker startKafka() {
+        EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, 3, "medical-profile");
+        kafka.brokerProperties(Map.of(
+                "transaction.state.log.replication.factor", "1", // medical-analytics-service's transactional stats producer
+                "transaction.state.log.min.isr", "1"));
+        kafka.afterPropertiesSet();
+        return kafka;
+    }
+
+    static String javaExecutable() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    // Polls until the port answers HTTP (any status means the server is up)
+    static void waitForPort(String module, int port, Duration pollInterval) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/")).timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (IOException e) {
+                Thread.sleep(pollInterval.toMillis());
+            }
+        }
+        throw new IllegalStateException(module + " did not answer on port " + port + " within " + STARTUP_TIMEOUT);
+    }
+
+    record Service(String module, int port, Map<String, String> environment, List<String> arguments) {
+
+        Path jar(Path projectRoot) {
+            Path jar = projectRoot.resolve(module).resolve("target").resolve(module + "-0.0.1-SNAPSHOT.jar");
+            if (!Files.isRegularFile(jar)) {
+                throw new IllegalStateException("Missing " + jar + ": build it first with mvn -f " + module + "/pom.xml package -DskipTests");
+            }
+            return jar;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (int i = processes.size() - 1; i >= 0; i--) {
+            processes.get(i).destroy();
+        }
+        kafka.destroy();
+    }
+}
@@ -0,0 +1,150 @@
+package org.priti.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Login, list, create, update and delete of medical profiles through the API gateway, sent asynchronously.
+//
+// Profiles created during the run are what updates and deletes work on; while there are none, those become creates.
+// Every login (and the scheduled re-login in LoadTest) replaces the access token used by the other requests.
+public class MedicalProfileWorkload {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([^\"]+)\"");
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+
+    private final String baseUrl;
+
+    private final String loginPayload;
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ConcurrentLinkedDeque<Profile> profiles = new ConcurrentLinkedDeque<>();
+
+    private volatile String token;
+
+    public MedicalProfileWorkload(HttpClient httpClient, String baseUrl, String email, String password) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.loginPayload = """
+                {"email": "%s", "password": "%s"}""".formatted(email, password);
+    }
+
+    // Blocking login, before the run and periodically during it
+    public void login() throws Exception {
+        HttpResponse<String> response = httpClient.send(loginRequest(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200 || !storeToken(response.body())) {
+            throw new IllegalStateException("Login failed with status " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    // Sends one request of the given kind; completes with the HTTP status and the operation actually performed
+    public CompletableFuture<Result> execute(Operation operation) {
+        return switch (operation) {
+            case LOGIN -> send(Operation.LOGIN, loginRequest(), this::storeToken);
+            case LIST -> send(Operation.LIST, authorized("/api/medical-profiles").GET().build(), null);
+            case CREATE -> create();
+            case UPDATE -> {
+                Profile profile = profiles.pollFirst();
+                if (profile == null) {
+                    yield create();
+                }
+                HttpRequest request = authorized("/api/medical-profiles/" + profile.id())
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(payload(profile.email(), "Updated Street " + sequence.incrementAndGet())))
+                        .build();
+                // back at the end of the queue whatever happened, so it is updated or deleted again later
+                yield send(Operation.UPDATE, request, null).whenComplete((result, error) -> profiles.offerLast(profile));
+            }
+            case DELETE -> {
+                Profile profile = profiles.pollFirst();
+                if (profile == null) {
+                    yield create();
+                }
+                yield send(Operation.DELETE, authorized("/api/medical-profiles/" + profile.id()).DELETE().build(), null);
+            }
+        };
+    }
+
+    private CompletableFuture<Result> create() {
+        String email = "load-" + runId + "-" + sequence.incrementAndGet() + "@example.com";
+        HttpRequest request = authorized("/api/medical-profiles")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payload(email, "1 Load Test Street")))
+                .build();
+        return send(Operation.CREATE, request, body -> {
+            Matcher matcher = ID.matcher(body);
+            if (matcher.find()) {
+                profiles.offerLast(new Profile(matcher.group(1), email));
+            }
+        });
+    }
+
+    private CompletableFuture<Result> send(Operation operation, HttpRequest request, Consumer<String> onSuccess) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (onSuccess != null && response.statusCode() / 100 == 2) {
+                        onSuccess.accept(response.body());
+                    }
+                    return new Result(operation, response.statusCode());
+                });
+    }
+
+    private HttpRequest loginRequest() {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(loginPayload))
+                .build();
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private boolean storeToken(String body) {
+        Matcher matcher = TOKEN.matcher(body);
+        if (!matcher.find()) {
+            return false;
+        }
+        token = matcher.group(1);
+        return true;
+    }
+
+    private static String payload(String email, String address) {
+        return """
+                {"name": "Load Test", "email": "%s", "address": "%s", "dateOfBirth": "1990-01-01", "registeredDate": "2024-01-01"}"""
+                .formatted(email, address);
+    }
+
+    // Profiles created by the run and not deleted yet
+    public int liveProfiles() {
+        return profiles.size();
+    }
+
+    public record Result(Operation operation, int status) {
+        boolean ok() {
+            return status / 100 == 2;
+        }
+    }
+
+    private record Profile(String id, String email) {
+    }
+}
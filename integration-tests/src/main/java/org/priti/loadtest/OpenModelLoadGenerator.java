@@ -0,0 +1,102 @@
+package org.priti.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Constant-arrival-rate (open model) load: request i is due at start + i / rate, whether or not earlier requests have
+// completed. A closed loop of N users waiting for each response would slow down together with the system and quietly
+// stop sending exactly when it is slow (coordinated omission); here a slow system just has more requests in flight.
+//
+// Latency is measured from the due time, not from when the request could actually be sent (see LoadReport), so time
+// lost to a stalled generator or exhausted connections still shows up. A request that would exceed max-in-flight is
+// not sent at all and is counted as dropped rather than delaying the schedule.
+public class OpenModelLoadGenerator {
+
+    private final double rate;
+
+    private final long durationNanos;
+
+    private final long warmupNanos;
+
+    private final int maxInFlight;
+
+    private final Operation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    public OpenModelLoadGenerator(LoadTestConfig config) {
+        this.rate = config.rate();
+        this.durationNanos = config.duration().toNanos();
+        this.warmupNanos = config.warmup().toNanos();
+        this.maxInFlight = config.maxInFlight();
+        this.operations = config.mix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += config.mix().get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+        if (sum <= 0 || rate <= 0) {
+            throw new IllegalArgumentException("load.rate and the load.mix weights must be positive");
+        }
+    }
+
+    // Warm-up first (sent, not recorded), then the measured duration; returns once every request has completed
+    public LoadReport run(MedicalProfileWorkload workload) throws InterruptedException {
+        LoadReport report = new LoadReport();
+        AtomicInteger inFlight = new AtomicInteger();
+        long totalRequests = (long) ((warmupNanos + durationNanos) / 1e9 * rate);
+        long start = System.nanoTime();
+        long progressEvery = Math.max(1, (long) (rate * 10));
+
+        for (long i = 0; i < totalRequests; i++) {
+            long due = start + (long) (i * 1e9 / rate); // computed from i, so falling behind never shifts the schedule
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = due - start >= warmupNanos;
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                if (measured) {
+                    report.recordDropped();
+                }
+                continue;
+            }
+            Operation operation = pick();
+            long sent = System.nanoTime();
+            workload.execute(operation).whenComplete((result, error) -> {
+                long end = System.nanoTime();
+                inFlight.decrementAndGet();
+                if (measured) {
+                    // a request that got no response (timeout, connection refused) is recorded with status 0
+                    report.record(result != null ? result.operation() : operation, end - due, end - sent,
+                            result != null ? result.status() : 0);
+                }
+            });
+            if (i > 0 && i % progressEvery == 0) {
+                System.out.printf("%6.1f s  sent %d  in flight %d  live profiles %d%n",
+                        (System.nanoTime() - start) / 1e9, i, inFlight.get(), workload.liveProfiles());
+            }
+        }
+
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        report.setMeasuredNanos(durationNanos); // throughput over the measured schedule
+        return report;
+    }
+
+    private Operation pick() {
+        int ticket = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+}
@@ -0,0 +1,10 @@
+package org.priti.loadtest;
+
+// The requests the workload is made of, as a client of the API gateway would send them
+public enum Operation {
+    LOGIN,  // POST /auth/login
+    LIST,   // GET /api/medical-profiles
+    CREATE, // POST /api/medical-profiles
+    UPDATE, // PUT /api/medical-profiles/{id} of a profile created earlier in the run
+    DELETE  // DELETE /api/medical-profiles/{id} of a profile created earlier in the run
+}
@@ -0,0 +1,126 @@
+package org.priti.loadtest;
+
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Time from launching a service's JVM until it answers its first HTTP request, for the plain jar and for the
+// fast-startup variant (AOT-processed + class data sharing archive, as in Dockerfile.fast-startup), per service.
+//
+//   mvn -f <service>/pom.xml package -Pfast-startup -DskipTests      (for each service)
+//   mvn compile exec:java -Dexec.mainClass=org.priti.loadtest.StartupBenchmark [-Dstartup.runs=5] [-Dstartup.services=auth-service,api-gateway]
+//
+// Both variants run from the same AOT-processed jar: without -Dspring.aot.enabled=true Spring ignores the generated
+// code, so "plain" is the regular startup. Services run one at a time, with the local settings of LocalServices.
+// The CDS archive is created by a training run with this JVM (-Dspring.context.exit=onRefresh), like in the image.
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Path projectRoot = Path.of(System.getProperty("load.project-root", "..")).toAbsolutePath().normalize();
+        int runs = Integer.getInteger("startup.runs", 3);
+        Set<String> only = System.getProperty("startup.services") == null
+                ? Set.of()
+                : Set.of(System.getProperty("startup.services").split(","));
+        Path workDirectory = Files.createDirectories(Path.of("target", "startup-benchmark")).toAbsolutePath();
+
+        EmbeddedKafkaKraftBroker kafka = LocalServices.startKafka();
+        List<String> results = new ArrayList<>();
+        try {
+            for (LocalServices.Service service : LocalServices.services(kafka.getBrokersAsString(), workDirectory)) {
+                if (!only.isEmpty() && !only.contains(service.module())) {
+                    continue;
+                }
+                Path jar = service.jar(projectRoot);
+                Path extracted = prepareFastStartup(service, jar, workDirectory);
+                String fastJar = extracted.resolve(jar.getFileName()).toString();
+
+                long[] plain = new long[runs];
+                long[] fast = new long[runs];
+                for (int run = 0; run < runs; run++) { // alternate so both see the same machine conditions
+                    plain[run] = timeToFirstRequest(service, workDirectory,
+                            List.of("-jar", jar.toString()));
+                    fast[run] = timeToFirstRequest(service, workDirectory,
+                            List.of("-XX:SharedArchiveFile=" + extracted.resolve("app.jsa"), "-Dspring.aot.enabled=true", "-jar", fastJar));
+                }
+                long plainMillis = median(plain);
+                long fastMillis = median(fast);
+                System.out.printf("%s: plain %d ms, AOT + CDS %d ms%n", service.module(), plainMillis, fastMillis);
+                results.add(String.format("%-28s %10d %12d %9.2fx", service.module(), plainMillis, fastMillis,
+                        (double) plainMillis / fastMillis));
+            }
+        } finally {
+            kafka.destroy();
+        }
+
+        System.out.printf("%nTime to first request, median of %d runs%n", runs);
+        System.out.printf("%-28s %10s %12s %10s%n", "service", "plain ms", "AOT+CDS ms", "speed-up");
+        results.forEach(System.out::println);
+    }
+
+    // Extracts the jar and creates its CDS archive with a training run; returns the extracted directory
+    private static Path prepareFastStartup(LocalServices.Service service, Path jar, Path workDirectory) throws Exception {
+        Path extracted = workDirectory.resolve(service.module());
+        run(service.module() + "-extract", workDirectory, List.of(LocalServices.javaExecutable(),
+                "-Djarmode=tools", "-jar", jar.toString(), "extract", "--force", "--destination", extracted.toString()));
+        List<String> training = new ArrayList<>(List.of(LocalServices.javaExecutable(),
+                "-XX:ArchiveClassesAtExit=" + extracted.resolve("app.jsa"),
+                "-Dspring.aot.enabled=true", "-Dspring.context.exit=onRefresh",
+                "-jar", extracted.resolve(jar.getFileName()).toString()));
+        training.addAll(service.arguments());
+        run(service.module() + "-training", workDirectory, training);
+        return extracted;
+    }
+
+    private static void run(String name, Path workDirectory, List<String> command) throws Exception {
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(workDirectory.resolve(name + ".log").toFile())
+                .start();
+        if (!process.waitFor(5, TimeUnit.MINUTES) || process.exitValue() != 0) {
+            process.destroyForcibly();
+            throw new IllegalStateException(name + " failed (was the jar built with -Pfast-startup?), see "
+                    + workDirectory.resolve(name + ".log"));
+        }
+    }
+
+    private static long timeToFirstRequest(LocalServices.Service service, Path workDirectory, List<String> jvmArguments)
+            throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(LocalServices.javaExecutable());
+        command.addAll(jvmArguments);
+        command.addAll(service.arguments());
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(workDirectory.resolve(service.module() + ".log").toFile());
+        builder.environment().putAll(service.environment());
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            LocalServices.waitForPort(service.module(), service.port(), Duration.ofMillis(5));
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            stop(process);
+        }
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
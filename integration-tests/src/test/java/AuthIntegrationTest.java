@@ -3,7 +3,11 @@ import io.restassured.response.Response;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.TimeUnit;
+
 import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 
 public class AuthIntegrationTest {
@@ -71,4 +75,65 @@ public class AuthIntegrationTest {
                 .statusCode(401) ;
 
     }
+
+    @Test
+    public void shouldRejectTokensAfterLogout() throws InterruptedException {
+        // Login -> refresh -> logout. After logout neither the access token nor the refresh token may work.
+        String loginPayload = """
+                    {
+                        "email": "testpriti@test.com",
+                        "password": "password123"
+                    }
+                """;
+        Response login = given()
+                .contentType("application/json")
+                .body(loginPayload)
+                .when()
+                .post("/auth/login")
+                .then()
+                .statusCode(200)
+                .body("refreshToken", notNullValue())
+                .extract()
+                .response();
+        String refreshToken = login.jsonPath().getString("refreshToken");
+
+        // A refresh token is single use: it is replaced by the one in the response
+        Response refreshed = given()
+                .contentType("application/json")
+                .body("{\"refreshToken\": \"" + refreshToken + "\"}")
+                .when()
+                .post("/auth/refresh")
+                .then()
+                .statusCode(200)
+                .body("refreshToken", not(refreshToken))
+                .extract()
+                .response();
+        String token = refreshed.jsonPath().getString("token");
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .contentType("application/json")
+                .body("{\"refreshToken\": \"" + refreshed.jsonPath().getString("refreshToken") + "\"}")
+                .when()
+                .post("/auth/logout")
+                .then()
+                .statusCode(204);
+
+        // The gateway polls revocations every 5 seconds, so the access token stops working within that
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        int status;
+        while ((status = given().header("Authorization", "Bearer " + token).when().get("/api/medical-profiles").statusCode()) != 401
+                && System.nanoTime() < deadline) {
+            Thread.sleep(250);
+        }
+        assertEquals(401, status, "access token still accepted 30s after logout");
+
+        given()
+                .contentType("application/json")
+                .body("{\"refreshToken\": \"" + refreshToken + "\"}")
+                .when()
+                .post("/auth/refresh")
+                .then()
+                .statusCode(401);
+    }
 }
@@ -0,0 +1,33 @@
+package com.priti.medicalanalyticsservice.aggregation;
+
+// Each window is counted in finer buckets so the same counter can answer both tumbling and sliding queries.
+// We retain two windows worth of buckets so the previous tumbling window is still complete while the current one fills up.
+public enum AggregationWindow {
+    MINUTE(1_000L, 60),       // 1 second buckets
+    HOUR(60_000L, 60),        // 1 minute buckets
+    DAY(3_600_000L, 24);      // 1 hour buckets
+
+    private final long bucketMillis;
+    private final int bucketsPerWindow;
+
+    AggregationWindow(long bucketMillis, int bucketsPerWindow) {
+        this.bucketMillis = bucketMillis;
+        this.bucketsPerWindow = bucketsPerWindow;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public int getBucketsPerWindow() {
+        return bucketsPerWindow;
+    }
+
+    public long getWindowMillis() {
+        return bucketMillis * bucketsPerWindow;
+    }
+
+    public int getRetainedBuckets() {
+        return bucketsPerWindow * 2;
+    }
+}
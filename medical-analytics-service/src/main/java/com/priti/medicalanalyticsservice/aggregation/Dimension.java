@@ -0,0 +1,6 @@
+package com.priti.medicalanalyticsservice.aggregation;
+
+public enum Dimension {
+    EVENT_TYPE,
+    EMAIL_DOMAIN
+}
@@ -0,0 +1,163 @@
+package com.priti.medicalanalyticsservice.aggregation;
+
+import com.priti.medicalanalyticsservice.dto.WindowedCountsResponseDTO;
+import com.priti.medicalanalyticsservice.kafka.MedicalProfileEventHandler;
+import com.priti.medicalanalyticsservice.snapshot.SnapshotParticipant;
+import medical.profile.events.MedicalProfileEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps per-minute, per-hour and per-day event counts for every event type and email domain we have seen.
+// Everything is in memory and lock-free on the write path, so the kafka listener thread only pays for a map lookup
+// and a few LongAdder increments per event.
+@Service
+public class StreamingAggregationEngine implements MedicalProfileEventHandler, SnapshotParticipant {
+
+    static final String OTHER_KEY = "other";
+    static final String UNKNOWN_KEY = "unknown";
+
+    private final int maxKeysPerDimension;
+
+    private final Map<Dimension, ConcurrentHashMap<String, KeyCounters>> counters = new EnumMap<>(Dimension.class);
+
+    public StreamingAggregationEngine(@Value("${analytics.aggregation.max-keys-per-dimension:10000}") int maxKeysPerDimension) {
+        this.maxKeysPerDimension = maxKeysPerDimension;
+        for (Dimension dimension : Dimension.values()) {
+            counters.put(dimension, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public String handlerName() {
+        return snapshotName();
+    }
+
+    @Override
+    public void handle(MedicalProfileEvent event, long timestampMillis) {
+        record(event.getEventType(), event.getEmail(), timestampMillis);
+    }
+
+    public void record(String eventType, String email, long timestampMillis) {
+        counterFor(Dimension.EVENT_TYPE, eventType == null || eventType.isBlank() ? UNKNOWN_KEY : eventType)
+                .increment(timestampMillis);
+        if (email != null && !email.isBlank()) { // update events only carry the email when it changed
+            counterFor(Dimension.EMAIL_DOMAIN, emailDomain(email))
+                    .increment(timestampMillis);
+        }
+    }
+
+    public WindowedCountsResponseDTO query(Dimension dimension, AggregationWindow window, WindowMode mode, long nowMillis) {
+        long bucketMillis = window.getBucketMillis();
+        long nowBucketId = Math.floorDiv(nowMillis, bucketMillis);
+        long fromBucketId = mode == WindowMode.TUMBLING
+                ? Math.floorDiv(nowMillis, window.getWindowMillis()) * window.getBucketsPerWindow()
+                : nowBucketId - window.getBucketsPerWindow() + 1;
+
+        Map<String, Long> counts = new TreeMap<>();
+        long total = 0;
+        for (Map.Entry<String, KeyCounters> entry : counters.get(dimension).entrySet()) {
+            long count = entry.getValue().get(window).sum(fromBucketId, nowBucketId);
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+                total += count;
+            }
+        }
+
+        return new WindowedCountsResponseDTO(
+                dimension.name(),
+                window.name(),
+                mode.name(),
+                Instant.ofEpochMilli(fromBucketId * bucketMillis).toString(),
+                Instant.ofEpochMilli((nowBucketId + 1) * bucketMillis).toString(),
+                counts,
+                total);
+    }
+
+    @Override
+    public String snapshotName() {
+        return "windowed-counts";
+    }
+
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        for (Dimension dimension : Dimension.values()) {
+            Map<String, KeyCounters> keys = Map.copyOf(counters.get(dimension));
+            out.writeInt(keys.size());
+            for (Map.Entry<String, KeyCounters> entry : keys.entrySet()) {
+                out.writeUTF(entry.getKey());
+                for (AggregationWindow window : AggregationWindow.values()) {
+                    entry.getValue().get(window).writeTo(out);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(DataInputStream in) throws IOException {
+        for (Dimension dimension : Dimension.values()) {
+            ConcurrentHashMap<String, KeyCounters> keys = counters.get(dimension);
+            int keyCount = in.readInt();
+            for (int i = 0; i < keyCount; i++) {
+                KeyCounters keyCounters = keys.computeIfAbsent(in.readUTF(), k -> new KeyCounters());
+                for (AggregationWindow window : AggregationWindow.values()) {
+                    keyCounters.get(window).readFrom(in);
+                }
+            }
+        }
+    }
+
+    private KeyCounters counterFor(Dimension dimension, String key) {
+        ConcurrentHashMap<String, KeyCounters> keys = counters.get(dimension);
+        KeyCounters existing = keys.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        // Cap the number of distinct keys so a flood of one-off domains cannot grow the heap without bound.
+        if (keys.size() >= maxKeysPerDimension) {
+            return keys.computeIfAbsent(OTHER_KEY, k -> new KeyCounters());
+        }
+        return keys.computeIfAbsent(key, k -> new KeyCounters());
+    }
+
+    public static String emailDomain(String email) {
+        if (email == null) {
+            return UNKNOWN_KEY;
+        }
+        int at = email.lastIndexOf('@');
+        if (at < 0 || at == email.length() - 1) {
+            return UNKNOWN_KEY;
+        }
+        return email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    // One counter per window for a single dimension value, e.g. EMAIL_DOMAIN=test.com
+    private static final class KeyCounters {
+        private final EnumMap<AggregationWindow, WindowedCounter> byWindow = new EnumMap<>(AggregationWindow.class);
+
+        KeyCounters() {
+            for (AggregationWindow window : AggregationWindow.values()) {
+                byWindow.put(window, new WindowedCounter(window.getBucketMillis(), window.getRetainedBuckets()));
+            }
+        }
+
+        void increment(long timestampMillis) {
+            for (WindowedCounter counter : byWindow.values()) {
+                counter.increment(timestampMillis);
+            }
+        }
+
+        WindowedCounter get(AggregationWindow window) {
+            return byWindow.get(window);
+        }
+    }
+}
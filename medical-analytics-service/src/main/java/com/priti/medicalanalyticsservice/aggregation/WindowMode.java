@@ -0,0 +1,6 @@
+package com.priti.medicalanalyticsservice.aggregation;
+
+public enum WindowMode {
+    TUMBLING, // the current calendar-aligned window (UTC), e.g. 10:42:00-10:42:59
+    SLIDING   // the last full window length ending now, e.g. the last 60 seconds
+}
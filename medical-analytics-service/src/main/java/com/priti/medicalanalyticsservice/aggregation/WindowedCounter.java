@@ -0,0 +1,94 @@
+package com.priti.medicalanalyticsservice.aggregation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free ring of time buckets. Each slot holds the counter for one bucket id (timestamp / bucketMillis).
+// When time moves on, the slot is swapped for a fresh bucket with a CAS, so writers never block each other
+// and memory stays fixed at `retainedBuckets` slots no matter how many events arrive.
+public class WindowedCounter {
+
+    private record Bucket(long id, LongAdder count) {
+    }
+
+    private final long bucketMillis;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    public WindowedCounter(long bucketMillis, int retainedBuckets) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = new AtomicReferenceArray<>(retainedBuckets);
+    }
+
+    public void increment(long timestampMillis) {
+        long id = bucketId(timestampMillis);
+        int index = index(id);
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.id() == id) {
+                bucket.count().increment();
+                return;
+            }
+            if (bucket != null && bucket.id() > id) {
+                return; // event is older than anything we still keep, the slot already belongs to a newer bucket
+            }
+            LongAdder count = new LongAdder();
+            count.increment();
+            if (buckets.compareAndSet(index, bucket, new Bucket(id, count))) {
+                return;
+            }
+            // another thread rolled the slot first, retry against whatever it installed
+        }
+    }
+
+    // Sum of all buckets with fromBucketId <= id <= toBucketId that are still retained.
+    public long sum(long fromBucketId, long toBucketId) {
+        long from = Math.max(fromBucketId, toBucketId - buckets.length() + 1);
+        long total = 0;
+        for (long id = from; id <= toBucketId; id++) {
+            Bucket bucket = buckets.get(index(id));
+            if (bucket != null && bucket.id() == id) {
+                total += bucket.count().sum();
+            }
+        }
+        return total;
+    }
+
+    // Only buckets that exist are written: count, then (bucket id, sum) pairs
+    public void writeTo(DataOutputStream out) throws IOException {
+        int present = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            if (buckets.get(i) != null) {
+                present++;
+            }
+        }
+        out.writeInt(present);
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null) {
+                out.writeLong(bucket.id());
+                out.writeLong(bucket.count().sum());
+            }
+        }
+    }
+
+    public void readFrom(DataInputStream in) throws IOException {
+        int present = in.readInt();
+        for (int i = 0; i < present; i++) {
+            long id = in.readLong();
+            LongAdder count = new LongAdder();
+            count.add(in.readLong());
+            buckets.set(index(id), new Bucket(id, count));
+        }
+    }
+
+    public long bucketId(long timestampMillis) {
+        return Math.floorDiv(timestampMillis, bucketMillis);
+    }
+
+    private int index(long bucketId) {
+        return (int) Math.floorMod(bucketId, (long) buckets.length());
+    }
+}
@@ -0,0 +1,107 @@
+package com.priti.medicalanalyticsservice.columnar;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// One fixed-capacity segment file holding three columns back to back:
+//   [timestamp millis: capacity * 8 bytes][event type id: capacity * 4 bytes][email domain id: capacity * 4 bytes]
+// The file is memory mapped, so the data lives in the page cache outside the Java heap and adds no GC work.
+final class ColumnSegment implements AutoCloseable {
+
+    static final int BYTES_PER_ROW = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final Path file;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int eventTypeOffset;
+    private final int emailDomainOffset;
+
+    // Written by the single appender after the row's columns, read by scans: rows below it are always complete
+    private volatile int rowCount;
+    // Zone map so time-filtered scans can skip whole segments
+    private volatile long minTimestamp = Long.MAX_VALUE;
+    private volatile long maxTimestamp = Long.MIN_VALUE;
+
+    private ColumnSegment(Path file, int capacity, FileChannel channel, MappedByteBuffer buffer) {
+        this.file = file;
+        this.capacity = capacity;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.eventTypeOffset = capacity * Long.BYTES;
+        this.emailDomainOffset = eventTypeOffset + capacity * Integer.BYTES;
+    }
+
+    // Opens (or creates) the segment file. Rows past existingRows are treated as free space and get overwritten.
+    static ColumnSegment open(Path file, int capacity, int existingRows) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * BYTES_PER_ROW);
+        ColumnSegment segment = new ColumnSegment(file, capacity, channel, buffer);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int row = 0; row < existingRows; row++) {
+            long timestamp = segment.timestamp(row);
+            min = Math.min(min, timestamp);
+            max = Math.max(max, timestamp);
+        }
+        segment.minTimestamp = min;
+        segment.maxTimestamp = max;
+        segment.rowCount = existingRows;
+        return segment;
+    }
+
+    // Single writer only. Returns false when the segment is full.
+    boolean append(long timestampMillis, int eventTypeId, int emailDomainId) {
+        int row = rowCount;
+        if (row >= capacity) {
+            return false;
+        }
+        buffer.putLong(row * Long.BYTES, timestampMillis);
+        buffer.putInt(eventTypeOffset + row * Integer.BYTES, eventTypeId);
+        buffer.putInt(emailDomainOffset + row * Integer.BYTES, emailDomainId);
+        if (timestampMillis < minTimestamp) {
+            minTimestamp = timestampMillis;
+        }
+        if (timestampMillis > maxTimestamp) {
+            maxTimestamp = timestampMillis;
+        }
+        rowCount = row + 1; // publish the row
+        return true;
+    }
+
+    long timestamp(int row) {
+        return buffer.getLong(row * Long.BYTES);
+    }
+
+    int eventType(int row) {
+        return buffer.getInt(eventTypeOffset + row * Integer.BYTES);
+    }
+
+    int emailDomain(int row) {
+        return buffer.getInt(emailDomainOffset + row * Integer.BYTES);
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    boolean overlaps(long fromMillis, long toMillis) {
+        return rowCount > 0 && minTimestamp < toMillis && maxTimestamp >= fromMillis;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
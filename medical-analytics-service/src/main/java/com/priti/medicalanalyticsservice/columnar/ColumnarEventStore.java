@@ -0,0 +1,256 @@
+package com.priti.medicalanalyticsservice.columnar;
+
+import com.priti.medicalanalyticsservice.aggregation.StreamingAggregationEngine;
+import com.priti.medicalanalyticsservice.dto.EventQueryResponseDTO;
+import com.priti.medicalanalyticsservice.kafka.MedicalProfileEventHandler;
+import com.priti.medicalanalyticsservice.snapshot.SnapshotParticipant;
+import medical.profile.events.MedicalProfileEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Append-only columnar copy of every MedicalProfileEvent for ad-hoc filter / group-by counts.
+//
+// Rows go into fixed-size memory-mapped segment files (see ColumnSegment), strings are dictionary encoded, and only the
+// small dictionaries live on the heap. Queries split every segment into chunks and scan the chunks in parallel.
+// Appends are serialised on this object; scans never lock and only read rows that were fully published.
+@Service
+public class ColumnarEventStore implements MedicalProfileEventHandler, SnapshotParticipant, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnarEventStore.class);
+
+    private static final int SCAN_CHUNK_ROWS = 64 * 1024;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final Path directory;
+    private final int segmentRows;
+
+    private final StringDictionary eventTypes = new StringDictionary();
+    private final StringDictionary emailDomains = new StringDictionary();
+    private final List<ColumnSegment> segments = new CopyOnWriteArrayList<>();
+
+    public ColumnarEventStore(@Value("${analytics.columnar.directory:columnar}") String directory,
+                              @Value("${analytics.columnar.segment-rows:1048576}") int segmentRows) {
+        this.directory = Path.of(directory);
+        this.segmentRows = segmentRows;
+    }
+
+    @Override
+    public String handlerName() {
+        return snapshotName();
+    }
+
+    @Override
+    public synchronized void handle(MedicalProfileEvent event, long timestampMillis) {
+        String eventType = event.getEventType().isBlank() ? "unknown" : event.getEventType();
+        int eventTypeId = eventTypes.idFor(eventType);
+        int emailDomainId = emailDomains.idFor(StreamingAggregationEngine.emailDomain(event.getEmail()));
+
+        ColumnSegment current = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (current == null || !current.append(timestampMillis, eventTypeId, emailDomainId)) {
+            current = newSegment(segments.size(), 0);
+            current.append(timestampMillis, eventTypeId, emailDomainId);
+        }
+    }
+
+    // Counts events with fromMillis <= timestamp < toMillis, optionally filtered by event type and/or email domain.
+    public EventQueryResponseDTO count(long fromMillis, long toMillis, String eventType, String emailDomain, EventGroupBy groupBy) {
+        long start = System.nanoTime();
+        int eventTypeFilter = eventType == null ? -1 : eventTypes.lookup(eventType);
+        int emailDomainFilter = emailDomain == null ? -1 : emailDomains.lookup(emailDomain.toLowerCase(Locale.ROOT));
+        boolean impossibleFilter = (eventType != null && eventTypeFilter < 0) || (emailDomain != null && emailDomainFilter < 0);
+
+        List<Chunk> chunks = new ArrayList<>();
+        if (!impossibleFilter) {
+            for (ColumnSegment segment : segments) {
+                if (!segment.overlaps(fromMillis, toMillis)) {
+                    continue; // zone map: nothing in this segment falls in the time range
+                }
+                int rows = segment.rowCount();
+                for (int from = 0; from < rows; from += SCAN_CHUNK_ROWS) {
+                    chunks.add(new Chunk(segment, from, Math.min(rows, from + SCAN_CHUNK_ROWS)));
+                }
+            }
+        }
+
+        int groupCount = switch (groupBy) {
+            case EVENT_TYPE -> eventTypes.size();
+            case EMAIL_DOMAIN -> emailDomains.size();
+            case NONE, DAY -> 1;
+        };
+        Partial result = chunks.parallelStream()
+                .map(chunk -> chunk.scan(fromMillis, toMillis, eventTypeFilter, emailDomainFilter, groupBy, groupCount))
+                .reduce(new Partial(groupCount), Partial::merge);
+
+        return new EventQueryResponseDTO(
+                Instant.ofEpochMilli(fromMillis).toString(),
+                Instant.ofEpochMilli(toMillis).toString(),
+                groupBy.name(),
+                result.toGroups(groupBy, this),
+                result.total,
+                result.scannedRows,
+                (System.nanoTime() - start) / 1_000);
+    }
+
+    @Override
+    public String snapshotName() {
+        return "columnar-event-store";
+    }
+
+    // The rows themselves are already in the segment files; the snapshot only records dictionaries and row counts.
+    @Override
+    public synchronized void writeSnapshot(DataOutputStream out) throws IOException {
+        writeDictionary(out, eventTypes);
+        writeDictionary(out, emailDomains);
+        out.writeInt(segments.size());
+        for (ColumnSegment segment : segments) {
+            segment.force(); // make sure the rows counted below are on disk, not only in the page cache
+            out.writeInt(segment.rowCount());
+        }
+    }
+
+    @Override
+    public synchronized void restoreSnapshot(DataInputStream in) throws IOException {
+        readDictionary(in, eventTypes);
+        readDictionary(in, emailDomains);
+        int segmentCount = in.readInt();
+        for (int i = 0; i < segmentCount; i++) {
+            newSegment(i, in.readInt());
+        }
+        log.info("Reopened {} columnar segments with {} event types and {} email domains", segmentCount, eventTypes.size(), emailDomains.size());
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (ColumnSegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    private ColumnSegment newSegment(int index, int existingRows) {
+        try {
+            Files.createDirectories(directory);
+            ColumnSegment segment = ColumnSegment.open(directory.resolve("segment-%05d.col".formatted(index)), segmentRows, existingRows);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open columnar segment " + index, e);
+        }
+    }
+
+    private static void writeDictionary(DataOutputStream out, StringDictionary dictionary) throws IOException {
+        List<String> values = dictionary.values();
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static void readDictionary(DataInputStream in, StringDictionary dictionary) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            dictionary.idFor(in.readUTF()); // ids are handed out in order, so they match the stored ones
+        }
+    }
+
+    private record Chunk(ColumnSegment segment, int fromRow, int toRow) {
+
+        Partial scan(long fromMillis, long toMillis, int eventTypeFilter, int emailDomainFilter, EventGroupBy groupBy, int groupCount) {
+            Partial partial = new Partial(groupCount);
+            for (int row = fromRow; row < toRow; row++) {
+                long timestamp = segment.timestamp(row);
+                if (timestamp < fromMillis || timestamp >= toMillis) {
+                    continue;
+                }
+                int eventType = segment.eventType(row);
+                if (eventTypeFilter >= 0 && eventType != eventTypeFilter) {
+                    continue;
+                }
+                int emailDomain = segment.emailDomain(row);
+                if (emailDomainFilter >= 0 && emailDomain != emailDomainFilter) {
+                    continue;
+                }
+                switch (groupBy) {
+                    case EVENT_TYPE -> partial.add(eventType);
+                    case EMAIL_DOMAIN -> partial.add(emailDomain);
+                    case DAY -> partial.addDay(Math.floorDiv(timestamp, MILLIS_PER_DAY));
+                    case NONE -> partial.add(0);
+                }
+            }
+            partial.scannedRows = toRow - fromRow;
+            return partial;
+        }
+    }
+
+    private static final class Partial {
+        private final long[] byId;
+        private final Map<Long, Long> byDay = new HashMap<>();
+        private long total;
+        private long scannedRows;
+
+        Partial(int groupCount) {
+            this.byId = new long[groupCount];
+        }
+
+        void add(int id) {
+            if (id < byId.length) { // ids added after the query started are outside the snapshot of the dictionary
+                byId[id]++;
+                total++;
+            }
+        }
+
+        void addDay(long epochDay) {
+            byDay.merge(epochDay, 1L, Long::sum);
+            total++;
+        }
+
+        Partial merge(Partial other) {
+            Partial merged = new Partial(byId.length);
+            for (int i = 0; i < byId.length; i++) {
+                merged.byId[i] = byId[i] + other.byId[i];
+            }
+            merged.byDay.putAll(byDay);
+            other.byDay.forEach((day, count) -> merged.byDay.merge(day, count, Long::sum));
+            merged.total = total + other.total;
+            merged.scannedRows = scannedRows + other.scannedRows;
+            return merged;
+        }
+
+        Map<String, Long> toGroups(EventGroupBy groupBy, ColumnarEventStore store) {
+            Map<String, Long> groups = new LinkedHashMap<>();
+            switch (groupBy) {
+                case EVENT_TYPE, EMAIL_DOMAIN -> {
+                    StringDictionary dictionary = groupBy == EventGroupBy.EVENT_TYPE ? store.eventTypes : store.emailDomains;
+                    for (int id = 0; id < byId.length; id++) {
+                        if (byId[id] > 0) {
+                            groups.put(dictionary.value(id), byId[id]);
+                        }
+                    }
+                }
+                case DAY -> byDay.entrySet().stream()
+                        .sorted(Map.Entry.comparingByKey())
+                        .forEach(entry -> groups.put(LocalDate.ofEpochDay(entry.getKey()).toString(), entry.getValue()));
+                case NONE -> groups.put("all", total);
+            }
+            return groups;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.priti.medicalanalyticsservice.columnar;
+
+public enum EventGroupBy {
+    NONE,
+    EVENT_TYPE,
+    EMAIL_DOMAIN,
+    DAY // UTC calendar day of the event timestamp
+}
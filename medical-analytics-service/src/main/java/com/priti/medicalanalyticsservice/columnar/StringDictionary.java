@@ -0,0 +1,44 @@
+package com.priti.medicalanalyticsservice.columnar;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Dictionary encoding for a string column: each distinct value gets a dense int id, and the column stores only the id.
+// New values are rare (event types, email domains), so a copy-on-write list keeps id -> value lookups lock-free for scans.
+final class StringDictionary {
+
+    private final Map<String, Integer> idsByValue = new ConcurrentHashMap<>();
+    private final List<String> valuesById = new CopyOnWriteArrayList<>();
+
+    // Only called by the single appender (under the store's write lock)
+    int idFor(String value) {
+        Integer existing = idsByValue.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        int id = valuesById.size();
+        valuesById.add(value);
+        idsByValue.put(value, id);
+        return id;
+    }
+
+    // -1 when the value never occurred, which lets a filter on it short-circuit to an empty result
+    int lookup(String value) {
+        Integer id = idsByValue.get(value);
+        return id == null ? -1 : id;
+    }
+
+    String value(int id) {
+        return valuesById.get(id);
+    }
+
+    int size() {
+        return valuesById.size();
+    }
+
+    List<String> values() {
+        return List.copyOf(valuesById);
+    }
+}
@@ -0,0 +1,23 @@
+package com.priti.medicalanalyticsservice.config;
+
+import com.priti.medicalanalyticsservice.stats.AggregateStatsPublisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// The fast-startup build (Spring AOT) evaluates @ConditionalOnProperty when the image is built, so whether stats are
+// published no longer follows analytics.stats.enabled at runtime. Refuse to start rather than silently doing the
+// opposite of the configuration. In a regular build the property and the beans always agree.
+@Component
+public class AotConditionsCheck {
+
+    public AotConditionsCheck(@Value("${analytics.stats.enabled:true}") boolean statsEnabled,
+                              ObjectProvider<AggregateStatsPublisher> aggregateStatsPublisher) {
+        boolean publisherPresent = aggregateStatsPublisher.getIfAvailable() != null;
+        if (statsEnabled != publisherPresent) {
+            throw new IllegalStateException("analytics.stats.enabled is " + statsEnabled + " but this build "
+                    + (publisherPresent ? "publishes" : "does not publish")
+                    + " stats. Rebuild the fast-startup image with --build-arg ANALYTICS_STATS_ENABLED=" + statsEnabled);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.priti.medicalanalyticsservice.config;
+
+import com.priti.medicalanalyticsservice.stats.AggregateStatsPublisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+
+@Configuration
+@ConditionalOnProperty(name = "analytics.stats.enabled", havingValue = "true", matchIfMissing = true)
+public class KafkaStatsConfig {
+
+    // Transactional batch container for AggregateStatsPublisher. The container begins a Kafka transaction per batch,
+    // sends the batch's offsets to it after the listener returns and commits, or aborts and redelivers on failure.
+    //
+    // The publisher's @KafkaListener needs this factory while the publisher bean is still being created, so the
+    // transaction manager is only looked up when the container is created, once the publisher is complete.
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> statsKafkaListenerContainerFactory(
+            ConsumerFactory<String, byte[]> consumerFactory,
+            ObjectProvider<AggregateStatsPublisher> aggregateStatsPublisher,
+            @Value("${analytics.kafka.consumer.concurrency:3}") int concurrency) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.setContainerCustomizer(container -> container.getContainerProperties()
+                .setKafkaAwareTransactionManager(aggregateStatsPublisher.getObject().getTransactionManager()));
+        return factory;
+    }
+}
@@ -0,0 +1,109 @@
+package com.priti.medicalanalyticsservice.controller;
+
+import com.priti.medicalanalyticsservice.aggregation.AggregationWindow;
+import com.priti.medicalanalyticsservice.aggregation.Dimension;
+import com.priti.medicalanalyticsservice.aggregation.StreamingAggregationEngine;
+import com.priti.medicalanalyticsservice.aggregation.WindowMode;
+import com.priti.medicalanalyticsservice.columnar.ColumnarEventStore;
+import com.priti.medicalanalyticsservice.columnar.EventGroupBy;
+import com.priti.medicalanalyticsservice.dto.DeadLetterReplayResponseDTO;
+import com.priti.medicalanalyticsservice.dto.DistinctCountsResponseDTO;
+import com.priti.medicalanalyticsservice.dto.EventQueryResponseDTO;
+import com.priti.medicalanalyticsservice.dto.SketchSnapshotDTO;
+import com.priti.medicalanalyticsservice.dto.TopEmailDomainsResponseDTO;
+import com.priti.medicalanalyticsservice.dto.WindowedCountsResponseDTO;
+import com.priti.medicalanalyticsservice.kafka.DeadLetterReplayService;
+import com.priti.medicalanalyticsservice.sketch.SketchService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    private final StreamingAggregationEngine streamingAggregationEngine;
+
+    private final SketchService sketchService;
+
+    private final ColumnarEventStore columnarEventStore;
+
+    private final DeadLetterReplayService deadLetterReplayService;
+
+    public AnalyticsController(StreamingAggregationEngine streamingAggregationEngine, SketchService sketchService,
+                               ColumnarEventStore columnarEventStore, DeadLetterReplayService deadLetterReplayService) {
+        this.streamingAggregationEngine = streamingAggregationEngine;
+        this.sketchService = sketchService;
+        this.columnarEventStore = columnarEventStore;
+        this.deadLetterReplayService = deadLetterReplayService;
+    }
+
+    // e.g. GET /analytics/registrations?dimension=EMAIL_DOMAIN&window=HOUR&mode=SLIDING
+    @GetMapping("/registrations")
+    public ResponseEntity<WindowedCountsResponseDTO> getRegistrations(
+            @RequestParam(defaultValue = "EVENT_TYPE") Dimension dimension,
+            @RequestParam(defaultValue = "MINUTE") AggregationWindow window,
+            @RequestParam(defaultValue = "TUMBLING") WindowMode mode) {
+        return ResponseEntity.ok().body(
+                streamingAggregationEngine.query(dimension, window, mode, System.currentTimeMillis()));
+    }
+
+    // Approximate (HyperLogLog) distinct patients and emails in a month, e.g. GET /analytics/distinct?month=2025-06
+    @GetMapping("/distinct")
+    public ResponseEntity<DistinctCountsResponseDTO> getDistinctCounts(@RequestParam(required = false) YearMonth month) {
+        return ResponseEntity.ok().body(sketchService.getDistinctCounts(month == null ? YearMonth.now(ZoneOffset.UTC) : month));
+    }
+
+    // 400 unless 1 <= limit <= analytics.sketch.top-k
+    @GetMapping("/top-email-domains")
+    public ResponseEntity<TopEmailDomainsResponseDTO> getTopEmailDomains(@RequestParam(required = false) YearMonth month,
+                                                                         @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > sketchService.getTopKCapacity()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok().body(sketchService.getTopEmailDomains(month == null ? YearMonth.now(ZoneOffset.UTC) : month, limit));
+    }
+
+    // Export this instance's sketches so they can be merged into another instance with POST /analytics/sketches/merge
+    @GetMapping("/sketches/{month}")
+    public ResponseEntity<SketchSnapshotDTO> exportSketches(@PathVariable YearMonth month) {
+        return ResponseEntity.ok().body(sketchService.exportSnapshot(month));
+    }
+
+    // 409 if the snapshot was already merged or its month is no longer retained (see SketchService.mergeSnapshot)
+    @PostMapping("/sketches/merge")
+    public ResponseEntity<Void> mergeSketches(@RequestBody SketchSnapshotDTO snapshot) {
+        if (!sketchService.mergeSnapshot(snapshot)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    // Ad-hoc counts over every stored event, e.g.
+    // GET /analytics/events/count?from=2025-06-01T00:00:00Z&to=2025-07-01T00:00:00Z&eventType=MEDICAL_PROFILE_CREATED&groupBy=EMAIL_DOMAIN
+    @GetMapping("/events/count")
+    public ResponseEntity<EventQueryResponseDTO> countEvents(@RequestParam Instant from,
+                                                             @RequestParam Instant to,
+                                                             @RequestParam(required = false) String eventType,
+                                                             @RequestParam(required = false) String emailDomain,
+                                                             @RequestParam(defaultValue = "NONE") EventGroupBy groupBy) {
+        return ResponseEntity.ok().body(
+                columnarEventStore.count(from.toEpochMilli(), to.toEpochMilli(), eventType, emailDomain, groupBy));
+    }
+
+    // Sends dead-lettered events through the retry topics again, e.g. POST /analytics/dead-letters/replay?limit=5000
+    @PostMapping("/dead-letters/replay")
+    public ResponseEntity<DeadLetterReplayResponseDTO> replayDeadLetters(@RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok().body(deadLetterReplayService.replay(limit));
+    }
+}
@@ -0,0 +1,80 @@
+package com.priti.medicalanalyticsservice.controller;
+
+import com.priti.medicalanalyticsservice.dto.ProfileRebuildResponseDTO;
+import com.priti.medicalanalyticsservice.dto.ProfileViewResponseDTO;
+import com.priti.medicalanalyticsservice.readmodel.ProfileReadModel;
+import com.priti.medicalanalyticsservice.readmodel.ProfileReadModelRebuilder;
+import com.priti.medicalanalyticsservice.readmodel.ProfileView;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+
+// Read-only profile queries for reporting and dashboards, served from the in-memory read model instead of
+// medical-profile-service. Results can lag the profile service by the consumer lag of the medical-profile topic.
+@RestController
+@RequestMapping("/analytics/profiles")
+public class ProfileReadModelController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ProfileReadModel profileReadModel;
+
+    private final ProfileReadModelRebuilder profileReadModelRebuilder;
+
+    public ProfileReadModelController(ProfileReadModel profileReadModel, ProfileReadModelRebuilder profileReadModelRebuilder) {
+        this.profileReadModel = profileReadModel;
+        this.profileReadModelRebuilder = profileReadModelRebuilder;
+    }
+
+    // e.g. GET /analytics/profiles?emailDomain=example.com&limit=100, next page with &after=<last id of this page>
+    @GetMapping
+    public ResponseEntity<List<ProfileViewResponseDTO>> getProfiles(@RequestParam(required = false) String emailDomain,
+                                                                    @RequestParam(required = false) String after,
+                                                                    @RequestParam(defaultValue = "100") int limit) {
+        List<ProfileViewResponseDTO> profiles = profileReadModel
+                .getProfiles(emailDomain, after, Math.max(1, Math.min(limit, MAX_PAGE_SIZE))).stream()
+                .map(ProfileReadModelController::toDTO)
+                .toList();
+        return ResponseEntity.ok().body(profiles);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ProfileViewResponseDTO> getProfile(@PathVariable String id) {
+        return profileReadModel.getProfile(id)
+                .map(view -> ResponseEntity.ok().body(toDTO(view)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Starts replaying the whole medical-profile topic into a fresh read model; reads keep using the old one until it
+    // is done. Follow it with GET /analytics/profiles/rebuild. force=true swaps in the result even if it looks partial.
+    @PostMapping("/rebuild")
+    public ResponseEntity<ProfileRebuildResponseDTO> rebuild(@RequestParam(defaultValue = "false") boolean force) {
+        try {
+            return ResponseEntity.accepted().location(URI.create("/analytics/profiles/rebuild"))
+                    .body(profileReadModelRebuilder.startRebuild(force));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // another rebuild is still running
+        }
+    }
+
+    @GetMapping("/rebuild")
+    public ResponseEntity<ProfileRebuildResponseDTO> getRebuild() {
+        return profileReadModelRebuilder.getStatus()
+                .map(status -> ResponseEntity.ok().body(status))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static ProfileViewResponseDTO toDTO(ProfileView view) {
+        return new ProfileViewResponseDTO(view.id(), view.name(), view.email(), view.address(), view.dateOfBirth(),
+                view.registeredDate(), view.version(), Instant.ofEpochMilli(view.updatedAtMillis()).toString());
+    }
+}
@@ -0,0 +1,51 @@
+package com.priti.medicalanalyticsservice.dto;
+
+public class DeadLetterReplayResponseDTO {
+    private String deadLetterTopic;
+    private String targetTopic;
+    private long replayed;
+    private long remaining;
+
+    public DeadLetterReplayResponseDTO() {
+        // Default constructor for serialization/deserialization
+    }
+
+    public DeadLetterReplayResponseDTO(String deadLetterTopic, String targetTopic, long replayed, long remaining) {
+        this.deadLetterTopic = deadLetterTopic;
+        this.targetTopic = targetTopic;
+        this.replayed = replayed;
+        this.remaining = remaining;
+    }
+
+    public String getDeadLetterTopic() {
+        return deadLetterTopic;
+    }
+
+    public void setDeadLetterTopic(String deadLetterTopic) {
+        this.deadLetterTopic = deadLetterTopic;
+    }
+
+    public String getTargetTopic() {
+        return targetTopic;
+    }
+
+    public void setTargetTopic(String targetTopic) {
+        this.targetTopic = targetTopic;
+    }
+
+    public long getReplayed() {
+        return replayed;
+    }
+
+    public void setReplayed(long replayed) {
+        this.replayed = replayed;
+    }
+
+    public long getRemaining() {
+        return remaining;
+    }
+
+    public void setRemaining(long remaining) {
+        this.remaining = remaining;
+    }
+}
@@ -0,0 +1,41 @@
+package com.priti.medicalanalyticsservice.dto;
+
+public class DistinctCountsResponseDTO {
+    private String month;
+    private long distinctPatients;
+    private long distinctEmails;
+
+    public DistinctCountsResponseDTO() {
+        // Default constructor for serialization/deserialization
+    }
+
+    public DistinctCountsResponseDTO(String month, long distinctPatients, long distinctEmails) {
+        this.month = month;
+        this.distinctPatients = distinctPatients;
+        this.distinctEmails = distinctEmails;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public long getDistinctPatients() {
+        return distinctPatients;
+    }
+
+    public void setDistinctPatients(long distinctPatients) {
+        this.distinctPatients = distinctPatients;
+    }
+
+    public long getDistinctEmails() {
+        return distinctEmails;
+    }
+
+    public void setDistinctEmails(long distinctEmails) {
+        this.distinctEmails = distinctEmails;
+    }
+}
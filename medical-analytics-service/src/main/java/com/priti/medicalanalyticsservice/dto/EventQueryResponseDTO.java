@@ -0,0 +1,84 @@
+package com.priti.medicalanalyticsservice.dto;
+
+import java.util.Map;
+
+public class EventQueryResponseDTO {
+    private String from;
+    private String to;
+    private String groupBy;
+    private Map<String, Long> groups;
+    private long total;
+    private long scannedRows;
+    private long elapsedMicros;
+
+    public EventQueryResponseDTO() {
+        // Default constructor for serialization/deserialization
+    }
+
+    public EventQueryResponseDTO(String from, String to, String groupBy, Map<String, Long> groups, long total,
+                                 long scannedRows, long elapsedMicros) {
+        this.from = from;
+        this.to = to;
+        this.groupBy = groupBy;
+        this.groups = groups;
+        this.total = total;
+        this.scannedRows = scannedRows;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(String groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public Map<String, Long> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(Map<String, Long> groups) {
+        this.groups = groups;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getScannedRows() {
+        return scannedRows;
+    }
+
+    public void setScannedRows(long scannedRows) {
+        this.scannedRows = scannedRows;
+    }
+
+    public long getElapsedMicros() {
+        return elapsedMicros;
+    }
+
+    public void setElapsedMicros(long elapsedMicros) {
+        this.elapsedMicros = elapsedMicros;
+    }
+}
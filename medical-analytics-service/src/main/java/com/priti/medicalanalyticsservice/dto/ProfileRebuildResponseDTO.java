@@ -0,0 +1,73 @@
+package com.priti.medicalanalyticsservice.dto;
+
+// State of the latest profile read model rebuild: RUNNING, COMPLETED or FAILED (with the reason in error)
+public class ProfileRebuildResponseDTO {
+    private String status;
+    private String startedAt;
+    private long eventsRead;
+    private int profiles;
+    private long elapsedMillis;
+    private String error;
+
+    public ProfileRebuildResponseDTO() {
+        // Default constructor for serialization/deserialization
+    }
+
+    public ProfileRebuildResponseDTO(String status, String startedAt, long eventsRead, int profiles, long elapsedMillis,
+                                     String error) {
+        this.status = status;
+        this.startedAt = startedAt;
+        this.eventsRead = eventsRead;
+        this.profiles = profiles;
+        this.elapsedMillis = elapsedMillis;
+        this.error = error;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getEventsRead() {
+        return eventsRead;
+    }
+
+    public void setEventsRead(long eventsRead) {
+        this.eventsRead = eventsRead;
+    }
+
+    public int getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(int profiles) {
+        this.profiles = profiles;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,65 @@
+package com.priti.medicalanalyticsservice.dto;
+
+import java.util.List;
+
+// Base64 encoded sketches of one month, used to merge state between analytics instances.
+public class SketchSnapshotDTO {
+    private String month;
+    private String distinctPatients;
+    private String distinctEmails;
+    private String emailDomains;
+    private List<String> topEmailDomainCandidates;
+
+    public SketchSnapshotDTO() {
+        // Default constructor for serialization/deserialization
+    }
+
+    public SketchSnapshotDTO(String month, String distinctPatients, String distinctEmails, String emailDomains,
+                             List<String> topEmailDomainCandidates) {
+        this.month = month;
+        this.distinctPatients = distinctPatients;
+        this.distinctEmails = distinctEmails;
+        this.emailDomains = emailDomains;
+        this.topEmailDomainCandidates = topEmailDomainCandidates;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public String getDistinctPatients() {
+        return distinctPatients;
+    }
+
+    public void setDistinctPatients(String distinctPatients) {
+        this.distinctPatients = distinctPatients;
+    }
+
+    public String getDistinctEmails() {
+        return distinctEmails;
+    }
+
+    public void setDistinctEmails(String distinctEmails) {
+        this.distinctEmails = distinctEmails;
+    }
+
+    public String getEmailDomains() {
+        return emailDomains;
+    }
+
+    public void setEmailDomains(String emailDomains) {
+        this.emailDomains = emailDomains;
+    }
+
+    public List<String> getTopEmailDomainCandidates() {
+        return topEmailDomainCandidates;
+    }
+
+    public void setTopEmailDomainCandidates(List<String> topEmailDomainCandidates) {
+        this.topEmailDomainCandidates = topEmailDomainCandidates;
+    }
+}
@@ -0,0 +1,35 @@
+package com.priti.medicalanalyticsservice.dto;
+
+import com.priti.medicalanalyticsservice.sketch.TopK;
+
+import java.util.List;
+
+public class TopEmailDomainsResponseDTO {
+    private String month;
+    private List<TopK.Entry> domains;
+
+    public TopEmailDomainsResponseDTO() {
+        // Default constructor for serialization/deserialization
+    }
+
+    public TopEmailDomainsResponseDTO(String month, List<TopK.Entry> domains) {
+        this.month = month;
+        this.domains = domains;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public List<TopK.Entry> getDomains() {
+        return domains;
+    }
+
+    public void setDomains(List<TopK.Entry> domains) {
+        this.domains = domains;
+    }
+}
@@ -0,0 +1,84 @@
+package com.priti.medicalanalyticsservice.dto;
+
+import java.util.Map;
+
+public class WindowedCountsResponseDTO {
+    private String dimension;
+    private String window;
+    private String mode;
+    private String windowStart;
+    private String windowEnd;
+    private Map<String, Long> counts;
+    private long total;
+
+    public WindowedCountsResponseDTO() {
+        // Default constructor for serialization/deserialization
+    }
+
+    public WindowedCountsResponseDTO(String dimension, String window, String mode, String windowStart, String windowEnd,
+                                     Map<String, Long> counts, long total) {
+        this.dimension = dimension;
+        this.window = window;
+        this.mode = mode;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.counts = counts;
+        this.total = total;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getWindow() {
+        return window;
+    }
+
+    public void setWindow(String window) {
+        this.window = window;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public String getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(String windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public String getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(String windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public Map<String, Long> getCounts() {
+        return counts;
+    }
+
+    public void setCounts(Map<String, Long> counts) {
+        this.counts = counts;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,145 @@
+package com.priti.medicalanalyticsservice.kafka;
+
+import com.priti.medicalanalyticsservice.dto.DeadLetterReplayResponseDTO;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Resubmits dead-lettered events to the analytics retry topic in bulk, e.g. after the bug that made them fail is fixed.
+// Progress is tracked with a dedicated consumer group on the dead-letter topic, so every record is replayed once and
+// the dead-letter topic itself stays untouched as an audit trail.
+@Service
+public class DeadLetterReplayService {
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplayService.class);
+
+    private static final String DLT_HEADER_PREFIX = "kafka_dlt-";
+    private static final String RETRY_HEADER_PREFIX = "retry_topic-";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final long SEND_TIMEOUT_SECONDS = 30;
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final String retryTopic;
+
+    private final String deadLetterTopic;
+
+    private final String replayGroupId;
+
+    public DeadLetterReplayService(ConsumerFactory<String, byte[]> consumerFactory,
+                                   KafkaTemplate<String, byte[]> kafkaTemplate,
+                                   FailedEventForwarder failedEventForwarder,
+                                   @Value("${analytics.retry.replay-group-id:medical-analytics-service-dlt-replay}") String replayGroupId) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.retryTopic = failedEventForwarder.getRetryTopic();
+        this.deadLetterTopic = retryTopic + "-dlt"; // default dead-letter suffix of @RetryableTopic in KafkaConsumer
+        this.replayGroupId = replayGroupId;
+    }
+
+    // Replays at most maxRecords records that were dead-lettered before this call started. Records arriving during
+    // the replay (including ones that fail again) are left for the next call.
+    public synchronized DeadLetterReplayResponseDTO replay(int maxRecords) {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer(replayGroupId, "dlt-replay", null, overrides)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(deadLetterTopic);
+            if (partitionInfos != null) { // null while nothing has been dead-lettered yet and the topic does not exist
+                for (PartitionInfo partitionInfo : partitionInfos) {
+                    partitions.add(new TopicPartition(partitionInfo.topic(), partitionInfo.partition()));
+                }
+            }
+            if (partitions.isEmpty()) {
+                return new DeadLetterReplayResponseDTO(deadLetterTopic, retryTopic, 0, 0);
+            }
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            Map<TopicPartition, Long> startOffsets = new HashMap<>();
+            for (TopicPartition topicPartition : partitions) {
+                startOffsets.put(topicPartition, consumer.position(topicPartition)); // last replay's commit, or the beginning
+            }
+
+            List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>();
+            Map<TopicPartition, OffsetAndMetadata> replayedOffsets = new HashMap<>();
+            while (sends.size() < maxRecords && hasRemaining(consumer, endOffsets)) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition topicPartition = new TopicPartition(record.topic(), record.partition());
+                    if (sends.size() >= maxRecords || record.offset() >= endOffsets.get(topicPartition)) {
+                        continue; // polled but not replayed: not committed, so the next replay picks it up
+                    }
+                    sends.add(kafkaTemplate.send(toRetryRecord(record)));
+                    replayedOffsets.put(topicPartition, new OffsetAndMetadata(record.offset() + 1));
+                }
+            }
+
+            // Only move the replay group forward once every resubmitted record is on the retry topic
+            kafkaTemplate.flush();
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            consumer.commitSync(replayedOffsets);
+
+            long remaining = 0;
+            for (TopicPartition topicPartition : partitions) {
+                OffsetAndMetadata replayed = replayedOffsets.get(topicPartition);
+                long position = replayed != null ? replayed.offset() : startOffsets.get(topicPartition);
+                remaining += Math.max(0, endOffsets.get(topicPartition) - position);
+            }
+            log.info("Replayed {} dead-lettered events from {} to {}, {} remaining", sends.size(), deadLetterTopic, retryTopic, remaining);
+            return new DeadLetterReplayResponseDTO(deadLetterTopic, retryTopic, sends.size(), remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while replaying " + deadLetterTopic, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Could not replay " + deadLetterTopic, e);
+        }
+    }
+
+    private static boolean hasRemaining(Consumer<String, byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> endOffset : endOffsets.entrySet()) {
+            if (consumer.position(endOffset.getKey()) < endOffset.getValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Keeps the original producer headers, but drops the retry bookkeeping of the previous round: with the old attempt
+    // count still attached the record would go straight back to the dead-letter topic.
+    private ProducerRecord<String, byte[]> toRetryRecord(ConsumerRecord<String, byte[]> record) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(DLT_HEADER_PREFIX) && !header.key().startsWith(RETRY_HEADER_PREFIX)) {
+                headers.add(header);
+            }
+        }
+        return new ProducerRecord<>(retryTopic, null, record.timestamp(), record.key(), record.value(), headers);
+    }
+}
@@ -0,0 +1,94 @@
+package com.priti.medicalanalyticsservice.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Moves a record that failed on the main topic to the analytics retry topic, so the main partition keeps flowing
+// and the record is retried out of band (see KafkaConsumer#retryEvent).
+@Service
+public class FailedEventForwarder {
+    private static final Logger log = LoggerFactory.getLogger(FailedEventForwarder.class);
+
+    public static final String ORIGINAL_TOPIC_HEADER = "analytics-original-topic";
+    public static final String ORIGINAL_PARTITION_HEADER = "analytics-original-partition";
+    public static final String ORIGINAL_OFFSET_HEADER = "analytics-original-offset";
+    public static final String EXCEPTION_HEADER = "analytics-exception";
+    // Comma separated MedicalProfileEventHandler names that already applied the record before it failed
+    public static final String APPLIED_HANDLERS_HEADER = "analytics-applied-handlers";
+
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final String retryTopic;
+
+    public FailedEventForwarder(KafkaTemplate<String, byte[]> kafkaTemplate,
+                                @Value("${analytics.retry.topic:medical-profile-analytics}") String retryTopic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.retryTopic = retryTopic;
+    }
+
+    public String getRetryTopic() {
+        return retryTopic;
+    }
+
+    // Waits for the broker to accept the record: the batch is only acknowledged once every failed record is safely
+    // on the retry topic. Failures are rare, so blocking here does not slow down healthy batches.
+    public void forward(ConsumerRecord<String, byte[]> record, Exception cause, Set<String> appliedHandlers) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            headers.add(header); // keep the producer's headers for the retry topic and, eventually, the dead-letter topic
+        }
+        setAppliedHandlers(headers, appliedHandlers);
+        headers.add(ORIGINAL_TOPIC_HEADER, record.topic().getBytes(StandardCharsets.UTF_8));
+        headers.add(ORIGINAL_PARTITION_HEADER, String.valueOf(record.partition()).getBytes(StandardCharsets.UTF_8));
+        headers.add(ORIGINAL_OFFSET_HEADER, String.valueOf(record.offset()).getBytes(StandardCharsets.UTF_8));
+        headers.add(EXCEPTION_HEADER, String.valueOf(cause).getBytes(StandardCharsets.UTF_8));
+
+        ProducerRecord<String, byte[]> retryRecord =
+                new ProducerRecord<>(retryTopic, null, record.timestamp(), record.key(), record.value(), headers);
+        try {
+            kafkaTemplate.send(retryRecord).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            log.warn("Forwarded {}-{}@{} to {}: {}", record.topic(), record.partition(), record.offset(), retryTopic, cause.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while forwarding failed event to " + retryTopic, e);
+        } catch (ExecutionException | TimeoutException e) {
+            // Rethrown so the batch is not acknowledged and gets redelivered instead of losing the record
+            throw new KafkaException("Could not forward failed event to " + retryTopic, e);
+        }
+    }
+
+    public static Set<String> appliedHandlers(Headers headers) {
+        Header header = headers.lastHeader(APPLIED_HANDLERS_HEADER);
+        Set<String> appliedHandlers = new LinkedHashSet<>();
+        if (header != null && header.value().length > 0) {
+            appliedHandlers.addAll(Arrays.asList(new String(header.value(), StandardCharsets.UTF_8).split(",")));
+        }
+        return appliedHandlers;
+    }
+
+    public static void setAppliedHandlers(Headers headers, Set<String> appliedHandlers) {
+        headers.remove(APPLIED_HANDLERS_HEADER);
+        if (!appliedHandlers.isEmpty()) {
+            headers.add(APPLIED_HANDLERS_HEADER, String.join(",", appliedHandlers).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
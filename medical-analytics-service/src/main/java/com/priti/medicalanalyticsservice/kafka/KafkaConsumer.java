@@ -1,27 +1,140 @@
 package com.priti.medicalanalyticsservice.kafka;
 
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.priti.medicalanalyticsservice.snapshot.SnapshotManager;
 import medical.profile.events.MedicalProfileEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
-public class KafkaConsumer {
+public class KafkaConsumer implements ConsumerSeekAware {
     private static final Logger log = LoggerFactory.getLogger(KafkaConsumer.class);
-    @KafkaListener(topics="medical-profile", groupId="medical-analytics-service")
-    public void consumeEvent(byte[] event) {
+
+    private final List<MedicalProfileEventHandler> eventHandlers;
+
+    private final SnapshotManager snapshotManager;
+
+    private final FailedEventForwarder failedEventForwarder;
+
+    public KafkaConsumer(List<MedicalProfileEventHandler> eventHandlers, SnapshotManager snapshotManager,
+                         FailedEventForwarder failedEventForwarder) {
+        this.eventHandlers = eventHandlers;
+        this.snapshotManager = snapshotManager;
+        this.failedEventForwarder = failedEventForwarder;
+    }
+
+    // On the first assignment after a restart, continue right after the last snapshot instead of the committed offset,
+    // so the events between the snapshot and the crash are replayed into the restored state.
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        for (TopicPartition topicPartition : assignments.keySet()) {
+            snapshotManager.takeRestoredOffset(topicPartition).ifPresent(offset -> {
+                log.info("Seeking {} to snapshot offset {}", topicPartition, offset);
+                callback.seek(topicPartition.topic(), topicPartition.partition(), offset);
+            });
+        }
+    }
+
+    // Receives everything one poll returned for this container thread's partitions (up to max.poll.records).
+    @KafkaListener(topics="medical-profile", groupId="medical-analytics-service", containerFactory="batchKafkaListenerContainerFactory")
+    public void consumeEvents(List<ConsumerRecord<String, byte[]>> records, Acknowledgment acknowledgment) {
+        snapshotManager.processBatch(records, () -> {
+            for (ConsumerRecord<String, byte[]> record : records) {
+                consumeEvent(record);
+            }
+        });
+        acknowledgment.acknowledge(); // commit the offsets of the whole batch only after every record in it is processed
+        log.debug("Processed batch of {} medical profile events", records.size());
+    }
+
+    // A record that fails here is handed to the retry topic and the batch moves on, so one bad record never holds up
+    // the healthy records behind it on the same partition. The handlers that already applied it are named on the
+    // retry record and skipped there, so a retry never counts the event twice.
+    public void consumeEvent(ConsumerRecord<String, byte[]> record) {
+        Set<String> appliedHandlers = new LinkedHashSet<>();
         try {
-            MedicalProfileEvent medicalProfileEvent = MedicalProfileEvent.parseFrom(event);
-            // we can perform any business logic related to analytics here by calling service layer or database
-
-            log.info("Received Medical Profile Event: [MedicalProfileId={},Name={},Email={}]",
-                    medicalProfileEvent.getMedicalProfileId(),
-                    medicalProfileEvent.getName(),
-                    medicalProfileEvent.getEmail());
-        } catch (InvalidProtocolBufferException e) {
-            log.error("Error deserializing event {}", e.getMessage());
+            dispatch(parse(record), record.timestamp(), appliedHandlers);
+        } catch (Exception e) {
+            failedEventForwarder.forward(record, e, appliedHandlers);
+        }
+    }
+
+    // Out-of-band retries of records the batch listener gave up on. Each failed attempt moves the record to the next
+    // retry topic (medical-profile-analytics-retry-0, -1, ...), whose consumer waits out the exponential backoff by
+    // pausing only that retry partition. After the last attempt the record lands on medical-profile-analytics-dlt with
+    // its original headers. Records that cannot be parsed will never succeed and go to the dead-letter topic at once.
+    @RetryableTopic(
+            attempts = "${analytics.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${analytics.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${analytics.retry.multiplier:2.0}",
+                    maxDelayExpression = "${analytics.retry.max-delay-ms:60000}"),
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            exclude = InvalidProtocolBufferException.class,
+            traversingCauses = "true",
+            kafkaTemplate = "kafkaTemplate")
+    @KafkaListener(topics="${analytics.retry.topic:medical-profile-analytics}", groupId="medical-analytics-service")
+    public void retryEvent(ConsumerRecord<String, byte[]> record) throws InvalidProtocolBufferException {
+        MedicalProfileEvent medicalProfileEvent = parse(record);
+        Set<String> appliedHandlers = FailedEventForwarder.appliedHandlers(record.headers());
+        // a batch of one, so retried events are covered by snapshots like everything else
+        snapshotManager.processBatch(List.of(record), () -> {
+            try {
+                dispatch(medicalProfileEvent, record.timestamp(), appliedHandlers);
+            } catch (RuntimeException e) {
+                // the next retry topic (or the dead-letter topic) gets this record's headers, including this one
+                FailedEventForwarder.setAppliedHandlers(record.headers(), appliedHandlers);
+                throw e;
+            }
+        });
+    }
+
+    @DltHandler
+    public void deadLetterEvent(ConsumerRecord<String, byte[]> record,
+                                @Header(name = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false) byte[] exceptionMessage) {
+        // stays on the dead-letter topic until it is resubmitted with POST /analytics/dead-letters/replay
+        log.error("Dead-lettered medical profile event {}-{}@{}: {}", record.topic(), record.partition(), record.offset(),
+                exceptionMessage == null ? "unknown error" : new String(exceptionMessage, StandardCharsets.UTF_8));
+    }
+
+    private MedicalProfileEvent parse(ConsumerRecord<String, byte[]> record) throws InvalidProtocolBufferException {
+        return MedicalProfileEvent.parseFrom(record.value());
+    }
+
+    // Adds each handler that applied the event to appliedHandlers, and skips the ones already in it
+    private void dispatch(MedicalProfileEvent medicalProfileEvent, long timestampMillis, Set<String> appliedHandlers) {
+        // we can perform any business logic related to analytics here by calling service layer or database
+
+        // debug rather than info: one log line per event costs more than the rest of the processing at batch rates
+        log.debug("Received Medical Profile Event: [MedicalProfileId={},Name={},Email={}]",
+                medicalProfileEvent.getMedicalProfileId(),
+                medicalProfileEvent.getName(),
+                medicalProfileEvent.getEmail());
+
+        // record timestamp is when the producer sent the event, so windows reflect intake time rather than consume time
+        for (MedicalProfileEventHandler eventHandler : eventHandlers) {
+            if (appliedHandlers.contains(eventHandler.handlerName())) {
+                continue;
+            }
+            eventHandler.handle(medicalProfileEvent, timestampMillis);
+            appliedHandlers.add(eventHandler.handlerName());
         }
     }
 }
@@ -0,0 +1,15 @@
+package com.priti.medicalanalyticsservice.kafka;
+
+import medical.profile.events.MedicalProfileEvent;
+
+// Anything that builds analytics state from the medical-profile topic. KafkaConsumer parses each record once
+// and hands it to every handler bean, so adding a new view does not touch the listener.
+public interface MedicalProfileEventHandler {
+
+    // Stable across restarts: a record that failed in another handler carries the names of the handlers that already
+    // applied it, and only the rest see it again on the retry topic (see KafkaConsumer).
+    String handlerName();
+
+    // timestampMillis is the kafka record timestamp, i.e. when the producer sent the event
+    void handle(MedicalProfileEvent event, long timestampMillis);
+}
@@ -0,0 +1,217 @@
+package com.priti.medicalanalyticsservice.readmodel;
+
+import com.priti.medicalanalyticsservice.aggregation.StreamingAggregationEngine;
+import medical.profile.events.MedicalProfileEvent;
+import medical.profile.events.MedicalProfileEventKind;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Profiles by id plus a secondary index of profile ids by email domain.
+//
+// Events are applied only if their version is newer than what the index already holds, so duplicates, replays and
+// the overlap between a rebuild and live consumption are harmless. Deleted ids keep a tombstone with the delete's
+// version, so an older event replayed after the delete cannot bring the profile back. Tombstones are pruned once the
+// delete is older than the topic's retention (see pruneTombstones), as no older event can be replayed by then.
+final class ProfileIndex {
+
+    // Field names used in MedicalProfileEvent.changed_fields
+    private static final String NAME_FIELD = "name";
+    private static final String EMAIL_FIELD = "email";
+    private static final String ADDRESS_FIELD = "address";
+    private static final String DATE_OF_BIRTH_FIELD = "date_of_birth";
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ConcurrentSkipListMap<String, ProfileView> profilesById = new ConcurrentSkipListMap<>();
+    private final Map<String, NavigableSet<String>> idsByEmailDomain = new ConcurrentHashMap<>();
+    private final Map<String, Tombstone> deletedVersions = new ConcurrentHashMap<>();
+
+    // Events of one profile can arrive on two threads during a rebuild (live listener and the rebuild replay)
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    ProfileIndex() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    void apply(MedicalProfileEvent event, long timestampMillis) {
+        String id = event.getMedicalProfileId();
+        if (id.isEmpty()) {
+            return;
+        }
+        long version = event.getVersion();
+        synchronized (locks[Math.floorMod(id.hashCode(), LOCK_STRIPES)]) {
+            Tombstone tombstone = deletedVersions.get(id);
+            if (tombstone != null && version < tombstone.version()) {
+                return;
+            }
+            ProfileView current = profilesById.get(id);
+            if (current != null && version <= current.version()) {
+                return;
+            }
+
+            switch (kindOf(event)) {
+                case MEDICAL_PROFILE_DELETED -> {
+                    if (current != null) {
+                        profilesById.remove(id);
+                        unindex(current);
+                    }
+                    deletedVersions.put(id, new Tombstone(version, timestampMillis));
+                }
+                case MEDICAL_PROFILE_UPDATED -> {
+                    // an update for a profile created before the topic's retention starts still yields a partial view
+                    ProfileView base = current != null ? current
+                            : new ProfileView(id, "", "", "", "", "", "", -1, timestampMillis);
+                    List<String> changedFields = event.getChangedFieldsList();
+                    String email = changedFields.contains(EMAIL_FIELD) ? event.getEmail() : base.email();
+                    put(current, new ProfileView(id,
+                            changedFields.contains(NAME_FIELD) ? event.getName() : base.name(),
+                            email,
+                            domainOf(email),
+                            changedFields.contains(ADDRESS_FIELD) ? event.getAddress() : base.address(),
+                            changedFields.contains(DATE_OF_BIRTH_FIELD) ? event.getDateOfBirth() : base.dateOfBirth(),
+                            base.registeredDate(),
+                            version,
+                            timestampMillis));
+                }
+                default -> put(current, new ProfileView(id, event.getName(), event.getEmail(), domainOf(event.getEmail()),
+                        event.getAddress(), event.getDateOfBirth(), event.getRegisteredDate(), version, timestampMillis));
+            }
+        }
+    }
+
+    ProfileView get(String id) {
+        return profilesById.get(id);
+    }
+
+    // Keyset pagination in id order: pass the last id of the previous page as afterId
+    List<ProfileView> list(String afterId, int limit) {
+        Iterable<ProfileView> views = afterId == null
+                ? profilesById.values()
+                : profilesById.tailMap(afterId, false).values();
+        List<ProfileView> page = new ArrayList<>(Math.min(limit, 1024));
+        for (ProfileView view : views) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(view);
+        }
+        return page;
+    }
+
+    List<ProfileView> listByEmailDomain(String emailDomain, String afterId, int limit) {
+        NavigableSet<String> ids = idsByEmailDomain.get(emailDomain);
+        List<ProfileView> page = new ArrayList<>();
+        if (ids == null) {
+            return page;
+        }
+        for (String id : afterId == null ? ids : ids.tailSet(afterId, false)) {
+            if (page.size() == limit) {
+                break;
+            }
+            ProfileView view = profilesById.get(id);
+            if (view != null) {
+                page.add(view);
+            }
+        }
+        return page;
+    }
+
+    int size() {
+        return profilesById.size();
+    }
+
+    int tombstones() {
+        return deletedVersions.size();
+    }
+
+    // Conditional removes, so a tombstone replaced by a newer delete in the meantime is kept
+    int pruneTombstones(long deletedBeforeMillis) {
+        int before = deletedVersions.size();
+        deletedVersions.values().removeIf(tombstone -> tombstone.deletedAtMillis() < deletedBeforeMillis);
+        return Math.max(0, before - deletedVersions.size());
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        List<ProfileView> views = new ArrayList<>(profilesById.values());
+        out.writeInt(views.size());
+        for (ProfileView view : views) {
+            out.writeUTF(view.id());
+            out.writeUTF(view.name());
+            out.writeUTF(view.email());
+            out.writeUTF(view.address());
+            out.writeUTF(view.dateOfBirth());
+            out.writeUTF(view.registeredDate());
+            out.writeLong(view.version());
+            out.writeLong(view.updatedAtMillis());
+        }
+        List<Map.Entry<String, Tombstone>> tombstones = List.copyOf(deletedVersions.entrySet());
+        out.writeInt(tombstones.size());
+        for (Map.Entry<String, Tombstone> tombstone : tombstones) {
+            out.writeUTF(tombstone.getKey());
+            out.writeLong(tombstone.getValue().version());
+            out.writeLong(tombstone.getValue().deletedAtMillis());
+        }
+    }
+
+    static ProfileIndex readFrom(DataInputStream in) throws IOException {
+        ProfileIndex index = new ProfileIndex();
+        int views = in.readInt();
+        for (int i = 0; i < views; i++) {
+            String id = in.readUTF();
+            String name = in.readUTF();
+            String email = in.readUTF();
+            ProfileView view = new ProfileView(id, name, email, domainOf(email), in.readUTF(), in.readUTF(), in.readUTF(),
+                    in.readLong(), in.readLong());
+            index.put(null, view);
+        }
+        int tombstones = in.readInt();
+        for (int i = 0; i < tombstones; i++) {
+            index.deletedVersions.put(in.readUTF(), new Tombstone(in.readLong(), in.readLong()));
+        }
+        return index;
+    }
+
+    private void put(ProfileView previous, ProfileView view) {
+        profilesById.put(view.id(), view);
+        if (previous != null && !previous.emailDomain().equals(view.emailDomain())) {
+            unindex(previous);
+        }
+        if (!view.emailDomain().isEmpty()) {
+            idsByEmailDomain.computeIfAbsent(view.emailDomain(), domain -> new ConcurrentSkipListSet<>()).add(view.id());
+        }
+    }
+
+    private void unindex(ProfileView view) {
+        NavigableSet<String> ids = idsByEmailDomain.get(view.emailDomain());
+        if (ids != null) {
+            ids.remove(view.id());
+        }
+    }
+
+    private static String domainOf(String email) {
+        return email.isEmpty() ? "" : StreamingAggregationEngine.emailDomain(email);
+    }
+
+    // Events published before the typed kind existed were always creations
+    private static MedicalProfileEventKind kindOf(MedicalProfileEvent event) {
+        if (event.getKind() != MedicalProfileEventKind.MEDICAL_PROFILE_EVENT_KIND_UNSPECIFIED) {
+            return event.getKind();
+        }
+        return MedicalProfileEventKind.MEDICAL_PROFILE_CREATED;
+    }
+
+    // deletedAtMillis is the delete event's record timestamp
+    private record Tombstone(long version, long deletedAtMillis) {
+    }
+}
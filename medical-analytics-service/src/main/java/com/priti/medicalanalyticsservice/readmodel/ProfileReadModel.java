@@ -0,0 +1,114 @@
+package com.priti.medicalanalyticsservice.readmodel;
+
+import com.priti.medicalanalyticsservice.kafka.MedicalProfileEventHandler;
+import com.priti.medicalanalyticsservice.snapshot.SnapshotParticipant;
+import medical.profile.events.MedicalProfileEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+// In-memory read model of all medical profiles, kept up to date from the medical-profile topic, so reporting reads
+// are served here instead of by medical-profile-service and its database.
+//
+// A rebuild (see ProfileReadModelRebuilder) fills a fresh index from the start of the topic while live events keep
+// going to both indexes; once the replay has caught up the fresh index replaces the current one.
+@Service
+public class ProfileReadModel implements MedicalProfileEventHandler, SnapshotParticipant {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileReadModel.class);
+
+    private volatile ProfileIndex current = new ProfileIndex();
+
+    private volatile ProfileIndex rebuilding; // only set while a rebuild is running
+
+    private final long tombstoneRetentionMs;
+
+    // tombstoneRetentionMs should be at least the retention.ms of the medical-profile topic
+    public ProfileReadModel(@Value("${analytics.read-model.tombstone-retention-ms:604800000}") long tombstoneRetentionMs) {
+        this.tombstoneRetentionMs = tombstoneRetentionMs;
+    }
+
+    @Override
+    public String handlerName() {
+        return snapshotName();
+    }
+
+    @Override
+    public void handle(MedicalProfileEvent event, long timestampMillis) {
+        current.apply(event, timestampMillis);
+        ProfileIndex rebuildingIndex = rebuilding;
+        if (rebuildingIndex != null) {
+            rebuildingIndex.apply(event, timestampMillis);
+        }
+    }
+
+    public Optional<ProfileView> getProfile(String id) {
+        return Optional.ofNullable(current.get(id));
+    }
+
+    public List<ProfileView> getProfiles(String emailDomain, String afterId, int limit) {
+        return emailDomain == null
+                ? current.list(afterId, limit)
+                : current.listByEmailDomain(emailDomain.toLowerCase(Locale.ROOT), afterId, limit);
+    }
+
+    public int size() {
+        return current.size();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.read-model.tombstone-prune-interval-ms:3600000}")
+    public void pruneTombstones() {
+        long deletedBefore = System.currentTimeMillis() - tombstoneRetentionMs;
+        int pruned = current.pruneTombstones(deletedBefore);
+        ProfileIndex rebuildingIndex = rebuilding;
+        if (rebuildingIndex != null) {
+            rebuildingIndex.pruneTombstones(deletedBefore);
+        }
+        if (pruned > 0) {
+            log.info("Pruned {} profile read model tombstones older than {} ms", pruned, tombstoneRetentionMs);
+        }
+    }
+
+    synchronized ProfileIndex startRebuild() {
+        if (rebuilding != null) {
+            throw new IllegalStateException("A profile read model rebuild is already running");
+        }
+        rebuilding = new ProfileIndex();
+        return rebuilding;
+    }
+
+    synchronized void finishRebuild(ProfileIndex rebuilt) {
+        current = rebuilt;
+        rebuilding = null;
+        log.info("Profile read model rebuilt with {} profiles", rebuilt.size());
+    }
+
+    synchronized void abortRebuild() {
+        rebuilding = null;
+    }
+
+    @Override
+    public String snapshotName() {
+        return "profile-read-model";
+    }
+
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        current.writeTo(out);
+    }
+
+    @Override
+    public void restoreSnapshot(DataInputStream in) throws IOException {
+        current = ProfileIndex.readFrom(in);
+        log.info("Restored profile read model with {} profiles", current.size());
+    }
+}
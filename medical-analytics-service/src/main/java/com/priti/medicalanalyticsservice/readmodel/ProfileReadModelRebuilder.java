@@ -0,0 +1,143 @@
+package com.priti.medicalanalyticsservice.readmodel;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.priti.medicalanalyticsservice.dto.ProfileRebuildResponseDTO;
+import medical.profile.events.MedicalProfileEvent;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Rebuilds the profile read model from the beginning of the medical-profile topic, e.g. after a bug in how events are
+// applied was fixed. Reads with its own unassigned consumer, so the listeners' committed offsets are not touched.
+//
+// Runs on its own thread; the caller polls getStatus(). The rebuilt index only replaces the live one if the topic still
+// starts at offset 0 (nothing was deleted by retention) and it holds at least as many profiles as the live one, unless
+// forced: a partial replay would silently drop profiles from every read.
+@Service
+public class ProfileReadModelRebuilder implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileReadModelRebuilder.class);
+
+    private static final String TOPIC = "medical-profile";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+
+    private final ProfileReadModel profileReadModel;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "profile-rebuild"));
+
+    private volatile ProfileRebuildResponseDTO status; // latest rebuild, null until the first one starts
+
+    public ProfileReadModelRebuilder(ConsumerFactory<String, byte[]> consumerFactory, ProfileReadModel profileReadModel) {
+        this.consumerFactory = consumerFactory;
+        this.profileReadModel = profileReadModel;
+    }
+
+    // Throws IllegalStateException if a rebuild is already running
+    public synchronized ProfileRebuildResponseDTO startRebuild(boolean force) {
+        // Started before the end offsets are read: every event the live listener handles from here on also reaches the
+        // new index, and everything before is below the end offsets and replayed by the rebuild.
+        ProfileIndex rebuilt = profileReadModel.startRebuild();
+        long start = System.currentTimeMillis();
+        String startedAt = Instant.ofEpochMilli(start).toString();
+        status = new ProfileRebuildResponseDTO("RUNNING", startedAt, 0, 0, 0, null);
+        executor.execute(() -> {
+            try {
+                long eventsRead = rebuild(rebuilt, force);
+                status = new ProfileRebuildResponseDTO("COMPLETED", startedAt, eventsRead, rebuilt.size(),
+                        System.currentTimeMillis() - start, null);
+            } catch (RuntimeException e) {
+                profileReadModel.abortRebuild();
+                log.error("Profile read model rebuild failed: {}", e.getMessage());
+                status = new ProfileRebuildResponseDTO("FAILED", startedAt, 0, rebuilt.size(),
+                        System.currentTimeMillis() - start, e.getMessage());
+            }
+        });
+        return status;
+    }
+
+    public Optional<ProfileRebuildResponseDTO> getStatus() {
+        return Optional.ofNullable(status);
+    }
+
+    // Replays the topic into `rebuilt` and swaps it in; returns the number of events read
+    long rebuild(ProfileIndex rebuilt, boolean force) {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        long eventsRead = 0;
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer(null, "profile-rebuild", null, overrides)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(TOPIC);
+            if (partitionInfos != null) {
+                for (PartitionInfo partitionInfo : partitionInfos) {
+                    partitions.add(new TopicPartition(partitionInfo.topic(), partitionInfo.partition()));
+                }
+            }
+            consumer.assign(partitions);
+            if (!force) {
+                for (Map.Entry<TopicPartition, Long> beginningOffset : consumer.beginningOffsets(partitions).entrySet()) {
+                    if (beginningOffset.getValue() > 0) {
+                        throw new IllegalStateException("Refusing to rebuild: " + beginningOffset.getKey() + " starts at offset "
+                                + beginningOffset.getValue() + ", earlier events were deleted by retention");
+                    }
+                }
+            }
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            while (!caughtUp(consumer, endOffsets)) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (record.offset() >= endOffsets.get(new TopicPartition(record.topic(), record.partition()))) {
+                        continue; // the live listener applies these
+                    }
+                    try {
+                        rebuilt.apply(MedicalProfileEvent.parseFrom(record.value()), record.timestamp());
+                        eventsRead++;
+                    } catch (InvalidProtocolBufferException e) {
+                        log.debug("Skipping unparseable record {}-{}@{}", record.topic(), record.partition(), record.offset());
+                    }
+                }
+            }
+        }
+
+        if (!force && rebuilt.size() < profileReadModel.size()) {
+            throw new IllegalStateException("Refusing to replace the read model: the rebuild has " + rebuilt.size()
+                    + " profiles, the live read model " + profileReadModel.size());
+        }
+        profileReadModel.finishRebuild(rebuilt);
+        return eventsRead;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow(); // an interrupted rebuild is simply dropped, the live read model is unaffected
+    }
+
+    private static boolean caughtUp(Consumer<String, byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> endOffset : endOffsets.entrySet()) {
+            if (consumer.position(endOffset.getKey()) < endOffset.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
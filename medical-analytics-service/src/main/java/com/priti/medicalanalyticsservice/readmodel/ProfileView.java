@@ -0,0 +1,14 @@
+package com.priti.medicalanalyticsservice.readmodel;
+
+// Denormalized copy of one medical profile as last seen on the medical-profile topic.
+// Fields that no event has carried yet are empty strings.
+public record ProfileView(String id,
+                          String name,
+                          String email,
+                          String emailDomain,
+                          String address,
+                          String dateOfBirth,
+                          String registeredDate,
+                          long version,
+                          long updatedAtMillis) {
+}
@@ -0,0 +1,75 @@
+package com.priti.medicalanalyticsservice.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Frequency estimator in depth * width counters (4 * 1024 longs = 32 KB by default).
+// Estimates never undercount; they overcount by at most ~2/width of the total with probability 1 - 0.5^depth.
+// Sketches with the same dimensions merge by adding their counters.
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray counters;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("CountMinSketch depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    public void add(String key, long count) {
+        long hash = Hashing.hash64(key);
+        for (int row = 0; row < depth; row++) {
+            counters.addAndGet(row * width + column(hash, row), count);
+        }
+    }
+
+    public long estimate(String key) {
+        long hash = Hashing.hash64(key);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(row * width + column(hash, row)));
+        }
+        return min;
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot merge CountMinSketch " + other.depth + "x" + other.width + " into " + depth + "x" + width);
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.addAndGet(i, other.counters.get(i));
+        }
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + counters.length() * 8);
+        buffer.putInt(depth).putInt(width);
+        for (int i = 0; i < counters.length(); i++) {
+            buffer.putLong(counters.get(i));
+        }
+        return buffer.array();
+    }
+
+    public static CountMinSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CountMinSketch sketch = new CountMinSketch(buffer.getInt(), buffer.getInt());
+        if (buffer.remaining() != sketch.counters.length() * 8) {
+            throw new IllegalArgumentException("Corrupt CountMinSketch: unexpected length " + bytes.length);
+        }
+        for (int i = 0; i < sketch.counters.length(); i++) {
+            sketch.counters.set(i, buffer.getLong());
+        }
+        return sketch;
+    }
+
+    // Kirsch-Mitzenmacher: row hashes derived from the two halves of one 64-bit hash
+    private int column(long hash, int row) {
+        int combined = (int) hash + row * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+}
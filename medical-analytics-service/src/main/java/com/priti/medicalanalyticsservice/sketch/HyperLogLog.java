@@ -0,0 +1,98 @@
+package com.priti.medicalanalyticsservice.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Distinct-count estimator with a fixed 2^precision bytes of state (16 KB at the default precision of 14, ~0.8% error).
+// Registers are packed four to an int and updated with CAS, so several listener threads can add at once.
+// Two sketches with the same precision merge by taking the register-wise maximum, which is how instances combine counts.
+public class HyperLogLog {
+
+    private final int precision;
+    private final int registerCount;
+    private final AtomicIntegerArray registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 18 but was " + precision);
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+        this.registers = new AtomicIntegerArray(registerCount / 4);
+    }
+
+    public void add(String value) {
+        long hash = Hashing.hash64(value);
+        int index = (int) (hash >>> (64 - precision));
+        // the guard bit stops the run of leading zeros from running past the bits we have left
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        updateRegister(index, Long.numberOfLeadingZeros(remaining) + 1);
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < registerCount; i++) {
+            int value = register(i);
+            sum += 1.0 / (1L << value);
+            if (value == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / registerCount);
+        double estimate = alpha * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            estimate = registerCount * Math.log((double) registerCount / zeros); // linear counting for small cardinalities
+        }
+        return Math.round(estimate);
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog with precision " + other.precision + " into " + precision);
+        }
+        for (int i = 0; i < registerCount; i++) {
+            updateRegister(i, other.register(i));
+        }
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + registerCount);
+        buffer.put((byte) precision);
+        for (int i = 0; i < registerCount; i++) {
+            buffer.put((byte) register(i));
+        }
+        return buffer.array();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        HyperLogLog hyperLogLog = new HyperLogLog(buffer.get());
+        if (buffer.remaining() != hyperLogLog.registerCount) {
+            throw new IllegalArgumentException("Corrupt HyperLogLog: expected " + hyperLogLog.registerCount + " registers but got " + buffer.remaining());
+        }
+        for (int i = 0; i < hyperLogLog.registerCount; i++) {
+            hyperLogLog.updateRegister(i, buffer.get());
+        }
+        return hyperLogLog;
+    }
+
+    private int register(int index) {
+        return (registers.get(index >>> 2) >>> ((index & 3) * 8)) & 0xFF;
+    }
+
+    private void updateRegister(int index, int value) {
+        int slot = index >>> 2;
+        int shift = (index & 3) * 8;
+        while (true) {
+            int current = registers.get(slot);
+            if (((current >>> shift) & 0xFF) >= value) {
+                return;
+            }
+            int updated = (current & ~(0xFF << shift)) | (value << shift);
+            if (registers.compareAndSet(slot, current, updated)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.priti.medicalanalyticsservice.sketch;
+
+// All sketches kept for one calendar month. Size is fixed by the configured precision/width, not by event volume.
+public class MonthlySketches {
+
+    private final HyperLogLog distinctPatients;
+    private final HyperLogLog distinctEmails;
+    private final TopK emailDomains;
+
+    public MonthlySketches(int hyperLogLogPrecision, int countMinDepth, int countMinWidth, int topKCapacity) {
+        this(new HyperLogLog(hyperLogLogPrecision),
+                new HyperLogLog(hyperLogLogPrecision),
+                new TopK(topKCapacity, new CountMinSketch(countMinDepth, countMinWidth)));
+    }
+
+    public MonthlySketches(HyperLogLog distinctPatients, HyperLogLog distinctEmails, TopK emailDomains) {
+        this.distinctPatients = distinctPatients;
+        this.distinctEmails = distinctEmails;
+        this.emailDomains = emailDomains;
+    }
+
+    public HyperLogLog getDistinctPatients() {
+        return distinctPatients;
+    }
+
+    public HyperLogLog getDistinctEmails() {
+        return distinctEmails;
+    }
+
+    public TopK getEmailDomains() {
+        return emailDomains;
+    }
+}
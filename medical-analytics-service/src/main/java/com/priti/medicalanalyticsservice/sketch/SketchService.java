@@ -0,0 +1,243 @@
+package com.priti.medicalanalyticsservice.sketch;
+
+import com.priti.medicalanalyticsservice.dto.DistinctCountsResponseDTO;
+import com.priti.medicalanalyticsservice.dto.SketchSnapshotDTO;
+import com.priti.medicalanalyticsservice.dto.TopEmailDomainsResponseDTO;
+import com.priti.medicalanalyticsservice.kafka.MedicalProfileEventHandler;
+import com.priti.medicalanalyticsservice.snapshot.SnapshotParticipant;
+import medical.profile.events.MedicalProfileEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Approximate "distinct patients / emails per month" and "top email domains per month" in fixed memory.
+// Only the last `retainedMonths` months (counted from the current month) are kept, so total memory is bounded by
+// retainedMonths * size of MonthlySketches. Older months are dropped when events are ingested; reads never evict.
+@Service
+public class SketchService implements MedicalProfileEventHandler, SnapshotParticipant {
+
+    private final int hyperLogLogPrecision;
+    private final int countMinDepth;
+    private final int countMinWidth;
+    private final int topKCapacity;
+    private final int retainedMonths;
+
+    private final Map<YearMonth, MonthlySketches> sketchesByMonth = new ConcurrentHashMap<>();
+
+    // SHA-256 of every snapshot merged through mergeSnapshot, per month, so a retried import is not counted twice
+    private final Map<YearMonth, Set<String>> mergedSnapshotDigests = new ConcurrentHashMap<>();
+
+    public SketchService(@Value("${analytics.sketch.hll-precision:14}") int hyperLogLogPrecision,
+                         @Value("${analytics.sketch.cms-depth:4}") int countMinDepth,
+                         @Value("${analytics.sketch.cms-width:1024}") int countMinWidth,
+                         @Value("${analytics.sketch.top-k:50}") int topKCapacity,
+                         @Value("${analytics.sketch.retained-months:3}") int retainedMonths) {
+        this.hyperLogLogPrecision = hyperLogLogPrecision;
+        this.countMinDepth = countMinDepth;
+        this.countMinWidth = countMinWidth;
+        this.topKCapacity = topKCapacity;
+        this.retainedMonths = retainedMonths;
+    }
+
+    @Override
+    public String handlerName() {
+        return snapshotName();
+    }
+
+    @Override
+    public void handle(MedicalProfileEvent event, long timestampMillis) {
+        record(event.getMedicalProfileId(), event.getEmail(), timestampMillis);
+    }
+
+    public void record(String medicalProfileId, String email, long timestampMillis) {
+        YearMonth month = YearMonth.from(Instant.ofEpochMilli(timestampMillis).atZone(ZoneOffset.UTC));
+        YearMonth oldestKept = oldestKeptMonth();
+        if (month.isBefore(oldestKept)) {
+            return; // e.g. replayed events from a month that has already been dropped
+        }
+        if (!sketchesByMonth.containsKey(month)) {
+            evictBefore(oldestKept);
+        }
+        MonthlySketches sketches = sketchesFor(month);
+        if (medicalProfileId != null && !medicalProfileId.isBlank()) {
+            sketches.getDistinctPatients().add(medicalProfileId);
+        }
+        if (email != null && !email.isBlank()) {
+            sketches.getDistinctEmails().add(email.toLowerCase(Locale.ROOT));
+            int at = email.lastIndexOf('@');
+            if (at >= 0 && at < email.length() - 1) {
+                sketches.getEmailDomains().add(email.substring(at + 1).toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    public DistinctCountsResponseDTO getDistinctCounts(YearMonth month) {
+        MonthlySketches sketches = sketchesByMonth.get(month);
+        if (sketches == null) {
+            return new DistinctCountsResponseDTO(month.toString(), 0, 0);
+        }
+        return new DistinctCountsResponseDTO(month.toString(),
+                sketches.getDistinctPatients().estimate(),
+                sketches.getDistinctEmails().estimate());
+    }
+
+    // The most domains getTopEmailDomains can return: the heavy-hitter sketch only tracks this many candidates
+    public int getTopKCapacity() {
+        return topKCapacity;
+    }
+
+    public TopEmailDomainsResponseDTO getTopEmailDomains(YearMonth month, int limit) {
+        MonthlySketches sketches = sketchesByMonth.get(month);
+        List<TopK.Entry> domains = sketches == null ? List.of() : sketches.getEmailDomains().top(limit);
+        return new TopEmailDomainsResponseDTO(month.toString(), domains);
+    }
+
+    // Serialized sketches for one month, so another instance (or a reporting job) can merge them into its own.
+    // A month with no data exports empty sketches without being created.
+    public SketchSnapshotDTO exportSnapshot(YearMonth month) {
+        MonthlySketches sketches = sketchesByMonth.getOrDefault(month, newMonthlySketches());
+        Base64.Encoder encoder = Base64.getEncoder();
+        return new SketchSnapshotDTO(month.toString(),
+                encoder.encodeToString(sketches.getDistinctPatients().toBytes()),
+                encoder.encodeToString(sketches.getDistinctEmails().toBytes()),
+                encoder.encodeToString(sketches.getEmailDomains().getSketch().toBytes()),
+                sketches.getEmailDomains().candidateKeys());
+    }
+
+    // Returns false if the month is no longer retained or this exact snapshot was merged before.
+    //
+    // HyperLogLog merges are idempotent, Count-Min merges are not: they add the counts. Repeating the same import is
+    // detected, but two different snapshots of the same instance and month overlap (the later one contains the earlier
+    // one's counts), so only merge each instance's latest snapshot of a month, once.
+    public boolean mergeSnapshot(SketchSnapshotDTO snapshot) {
+        YearMonth month = YearMonth.parse(snapshot.getMonth());
+        if (month.isBefore(oldestKeptMonth())) {
+            return false;
+        }
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] distinctPatients = decoder.decode(snapshot.getDistinctPatients());
+        byte[] distinctEmails = decoder.decode(snapshot.getDistinctEmails());
+        byte[] emailDomains = decoder.decode(snapshot.getEmailDomains());
+        List<String> candidates = snapshot.getTopEmailDomainCandidates() == null ? List.of() : snapshot.getTopEmailDomainCandidates();
+        String digest = digest(distinctPatients, distinctEmails, emailDomains, candidates);
+        if (!mergedSnapshotDigests.computeIfAbsent(month, m -> ConcurrentHashMap.newKeySet()).add(digest)) {
+            return false;
+        }
+        merge(month, distinctPatients, distinctEmails, emailDomains, candidates);
+        return true;
+    }
+
+    @Override
+    public String snapshotName() {
+        return "monthly-sketches";
+    }
+
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        Map<YearMonth, MonthlySketches> months = Map.copyOf(sketchesByMonth);
+        out.writeInt(months.size());
+        for (Map.Entry<YearMonth, MonthlySketches> entry : months.entrySet()) {
+            MonthlySketches sketches = entry.getValue();
+            out.writeUTF(entry.getKey().toString());
+            writeBytes(out, sketches.getDistinctPatients().toBytes());
+            writeBytes(out, sketches.getDistinctEmails().toBytes());
+            writeBytes(out, sketches.getEmailDomains().getSketch().toBytes());
+            List<String> candidates = sketches.getEmailDomains().candidateKeys();
+            out.writeInt(candidates.size());
+            for (String candidate : candidates) {
+                out.writeUTF(candidate);
+            }
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(DataInputStream in) throws IOException {
+        YearMonth oldestKept = oldestKeptMonth();
+        int monthCount = in.readInt();
+        for (int i = 0; i < monthCount; i++) {
+            YearMonth month = YearMonth.parse(in.readUTF());
+            byte[] distinctPatients = readBytes(in);
+            byte[] distinctEmails = readBytes(in);
+            byte[] emailDomains = readBytes(in);
+            int candidateCount = in.readInt();
+            List<String> candidates = new ArrayList<>(candidateCount);
+            for (int j = 0; j < candidateCount; j++) {
+                candidates.add(in.readUTF());
+            }
+            if (!month.isBefore(oldestKept)) {
+                merge(month, distinctPatients, distinctEmails, emailDomains, candidates);
+            }
+        }
+    }
+
+    private void merge(YearMonth month, byte[] distinctPatients, byte[] distinctEmails, byte[] emailDomains, List<String> candidates) {
+        MonthlySketches sketches = sketchesFor(month);
+        sketches.getDistinctPatients().merge(HyperLogLog.fromBytes(distinctPatients));
+        sketches.getDistinctEmails().merge(HyperLogLog.fromBytes(distinctEmails));
+        sketches.getEmailDomains().merge(CountMinSketch.fromBytes(emailDomains), candidates);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static String digest(byte[] distinctPatients, byte[] distinctEmails, byte[] emailDomains, List<String> candidates) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(distinctPatients);
+            digest.update(distinctEmails);
+            digest.update(emailDomains);
+            for (String candidate : candidates) {
+                digest.update(candidate.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MonthlySketches sketchesFor(YearMonth month) {
+        MonthlySketches existing = sketchesByMonth.get(month);
+        if (existing != null) {
+            return existing;
+        }
+        return sketchesByMonth.computeIfAbsent(month, m -> newMonthlySketches());
+    }
+
+    private MonthlySketches newMonthlySketches() {
+        return new MonthlySketches(hyperLogLogPrecision, countMinDepth, countMinWidth, topKCapacity);
+    }
+
+    private YearMonth oldestKeptMonth() {
+        return YearMonth.now(ZoneOffset.UTC).minusMonths(retainedMonths - 1L);
+    }
+
+    private void evictBefore(YearMonth oldestKept) {
+        sketchesByMonth.keySet().removeIf(m -> m.isBefore(oldestKept));
+        mergedSnapshotDigests.keySet().removeIf(m -> m.isBefore(oldestKept));
+    }
+}
@@ -0,0 +1,93 @@
+package com.priti.medicalanalyticsservice.sketch;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Heavy hitters on top of a CountMinSketch: the sketch counts every key, and at most `capacity` candidate keys with the
+// highest estimates are remembered so they can be listed. Memory is the sketch plus `capacity` strings.
+public class TopK {
+
+    public record Entry(String key, long estimate) {
+    }
+
+    private final int capacity;
+    private final CountMinSketch sketch;
+    private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+
+    // Smallest estimate among the candidates once full. Lets most long-tail keys skip the lock entirely.
+    private volatile long admissionThreshold;
+
+    public TopK(int capacity, CountMinSketch sketch) {
+        this.capacity = capacity;
+        this.sketch = sketch;
+    }
+
+    public void add(String key) {
+        sketch.add(key, 1);
+        offer(key, sketch.estimate(key));
+    }
+
+    public List<Entry> top(int limit) {
+        return candidates.keySet().stream()
+                .map(key -> new Entry(key, sketch.estimate(key)))
+                .sorted(Comparator.comparingLong(Entry::estimate).reversed().thenComparing(Entry::key))
+                .limit(limit)
+                .toList();
+    }
+
+    public List<String> candidateKeys() {
+        return List.copyOf(candidates.keySet());
+    }
+
+    public CountMinSketch getSketch() {
+        return sketch;
+    }
+
+    // Merges the other instance's counts, then re-ranks the union of both candidate sets against the merged sketch.
+    public void merge(CountMinSketch otherSketch, List<String> otherCandidates) {
+        sketch.merge(otherSketch);
+        for (String key : candidateKeys()) {
+            offer(key, sketch.estimate(key));
+        }
+        for (String key : otherCandidates) {
+            offer(key, sketch.estimate(key));
+        }
+    }
+
+    private void offer(String key, long estimate) {
+        if (candidates.computeIfPresent(key, (k, previous) -> estimate) != null) {
+            return;
+        }
+        if (candidates.size() >= capacity && estimate <= admissionThreshold) {
+            return;
+        }
+        synchronized (this) {
+            if (candidates.containsKey(key)) {
+                candidates.put(key, estimate);
+                return;
+            }
+            if (candidates.size() < capacity) {
+                candidates.put(key, estimate);
+                if (candidates.size() == capacity) {
+                    admissionThreshold = minCandidate().getValue();
+                }
+                return;
+            }
+            Map.Entry<String, Long> min = minCandidate();
+            if (estimate > min.getValue()) {
+                candidates.remove(min.getKey());
+                candidates.put(key, estimate);
+                admissionThreshold = minCandidate().getValue();
+            }
+        }
+    }
+
+    private Map.Entry<String, Long> minCandidate() {
+        return candidates.entrySet().stream()
+                .min(Map.Entry.comparingByValue())
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,9 @@
+package com.priti.medicalanalyticsservice.snapshot;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+
+// State of every participant plus the next offset to consume for every partition that state already includes.
+public record AnalyticsSnapshot(long createdAtMillis, Map<TopicPartition, Long> offsets, Map<String, byte[]> states) {
+}
@@ -0,0 +1,136 @@
+package com.priti.medicalanalyticsservice.snapshot;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Periodically writes every SnapshotParticipant together with the consumed offsets, and restores both on startup.
+//
+// Batches run under the read lock (several partitions in parallel), a snapshot takes the write lock. So a snapshot
+// always sees whole batches only, and its offsets match exactly the events its state contains. After a restart the
+// listener seeks each partition to the stored offset, so only events newer than the snapshot are replayed.
+@Service
+public class SnapshotManager {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotManager.class);
+
+    private final boolean enabled;
+    private final SnapshotStore snapshotStore;
+    private final List<SnapshotParticipant> participants;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<TopicPartition, Long> consumedOffsets = new ConcurrentHashMap<>(); // next offset to read per partition
+    private final Map<TopicPartition, Long> restoredOffsets = new ConcurrentHashMap<>(); // seek targets not used yet
+    private volatile boolean dirty;
+
+    public SnapshotManager(@Value("${analytics.snapshot.enabled:true}") boolean enabled,
+                           @Value("${analytics.snapshot.directory:snapshots}") String directory,
+                           @Value("${analytics.snapshot.retained:2}") int retainedSnapshots,
+                           List<SnapshotParticipant> participants) {
+        this.enabled = enabled;
+        this.snapshotStore = new SnapshotStore(Path.of(directory), retainedSnapshots);
+        this.participants = participants;
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (!enabled) {
+            return;
+        }
+        snapshotStore.readLatest().ifPresent(snapshot -> {
+            for (SnapshotParticipant participant : participants) {
+                byte[] state = snapshot.states().get(participant.snapshotName());
+                if (state == null) {
+                    continue;
+                }
+                try {
+                    participant.restoreSnapshot(new DataInputStream(new ByteArrayInputStream(state)));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not restore analytics state " + participant.snapshotName(), e);
+                }
+            }
+            consumedOffsets.putAll(snapshot.offsets());
+            restoredOffsets.putAll(snapshot.offsets());
+            log.info("Restored analytics snapshot from {} covering {} partitions", snapshot.createdAtMillis(), snapshot.offsets().size());
+        });
+    }
+
+    // Runs one batch so that it is either completely inside a snapshot or completely after it.
+    public void processBatch(List<? extends ConsumerRecord<?, ?>> records, Runnable batch) {
+        lock.readLock().lock();
+        try {
+            batch.run();
+            for (ConsumerRecord<?, ?> record : records) {
+                consumedOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset() + 1, Math::max);
+            }
+            dirty = true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Offset a freshly assigned partition should be moved to. Used once per partition; after a rebalance the
+    // in-memory state already reflects what this instance consumed, so the committed group offset is correct again.
+    public OptionalLong takeRestoredOffset(TopicPartition topicPartition) {
+        Long offset = restoredOffsets.remove(topicPartition);
+        return offset == null ? OptionalLong.empty() : OptionalLong.of(offset);
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.snapshot.interval-ms:60000}", initialDelayString = "${analytics.snapshot.interval-ms:60000}")
+    public void snapshot() {
+        if (!enabled || !dirty) {
+            return;
+        }
+        try {
+            AnalyticsSnapshot snapshot = capture();
+            Path file = snapshotStore.write(snapshot);
+            log.info("Wrote analytics snapshot {} covering {} partitions", file, snapshot.offsets().size());
+        } catch (IOException e) {
+            log.error("Could not write analytics snapshot {}", e.getMessage());
+        }
+    }
+
+    // Listener containers are stopped before beans are destroyed, so this final snapshot includes everything consumed.
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+
+    private AnalyticsSnapshot capture() throws IOException {
+        lock.writeLock().lock();
+        try {
+            Map<String, byte[]> states = new LinkedHashMap<>();
+            for (SnapshotParticipant participant : participants) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (DataOutputStream out = new DataOutputStream(bytes)) {
+                    participant.writeSnapshot(out);
+                }
+                states.put(participant.snapshotName(), bytes.toByteArray());
+            }
+            dirty = false;
+            return new AnalyticsSnapshot(System.currentTimeMillis(), new HashMap<>(consumedOffsets), states);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
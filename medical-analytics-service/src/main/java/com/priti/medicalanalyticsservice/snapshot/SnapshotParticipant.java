@@ -0,0 +1,18 @@
+package com.priti.medicalanalyticsservice.snapshot;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// In-memory analytics state that is written into periodic snapshots and loaded back on startup.
+// SnapshotManager calls both methods while no batch is being processed, so implementations see a consistent state.
+public interface SnapshotParticipant {
+
+    // Unique, stable name of this state inside a snapshot file
+    String snapshotName();
+
+    void writeSnapshot(DataOutputStream out) throws IOException;
+
+    // Called once on startup, before any event is consumed
+    void restoreSnapshot(DataInputStream in) throws IOException;
+}
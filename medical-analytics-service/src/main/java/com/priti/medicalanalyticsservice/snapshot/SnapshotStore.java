@@ -0,0 +1,181 @@
+package com.priti.medicalanalyticsservice.snapshot;
+
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Reads and writes snapshot files through memory-mapped buffers.
+//
+// File layout (big endian):
+//   int magic, int version, long createdAtMillis
+//   int partitionCount, then per partition: string topic, int partition, long offset
+//   int stateCount, then per state: string name, int length, bytes
+//   long crc32 of everything before it
+// Strings are an int length followed by UTF-8 bytes.
+public class SnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotStore.class);
+
+    private static final int MAGIC = 0x4D434153; // "MCAS"
+    private static final int VERSION = 1;
+    private static final String PREFIX = "analytics-snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private final Path directory;
+    private final int retainedSnapshots;
+
+    public SnapshotStore(Path directory, int retainedSnapshots) {
+        this.directory = directory;
+        this.retainedSnapshots = retainedSnapshots;
+    }
+
+    public Path write(AnalyticsSnapshot snapshot) throws IOException {
+        Files.createDirectories(directory);
+        int size = sizeOf(snapshot);
+        Path target = directory.resolve(PREFIX + snapshot.createdAtMillis() + SUFFIX);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(snapshot.createdAtMillis());
+            buffer.putInt(snapshot.offsets().size());
+            for (Map.Entry<TopicPartition, Long> entry : snapshot.offsets().entrySet()) {
+                putString(buffer, entry.getKey().topic());
+                buffer.putInt(entry.getKey().partition()).putLong(entry.getValue());
+            }
+            buffer.putInt(snapshot.states().size());
+            for (Map.Entry<String, byte[]> entry : snapshot.states().entrySet()) {
+                putString(buffer, entry.getKey());
+                buffer.putInt(entry.getValue().length).put(entry.getValue());
+            }
+            buffer.putLong(crc(buffer, size - Long.BYTES));
+            buffer.force();
+        }
+
+        // rename only after the file is complete, so a crash mid-write never leaves a half snapshot behind as "latest"
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteOldSnapshots();
+        return target;
+    }
+
+    // Newest snapshot that passes its checksum. Corrupt files are skipped so an older good one can still be used.
+    public Optional<AnalyticsSnapshot> readLatest() {
+        for (Path file : snapshotFilesNewestFirst()) {
+            try {
+                return Optional.of(read(file));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Skipping unreadable analytics snapshot {}: {}", file, e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    AnalyticsSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int size = (int) channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            long expectedCrc = buffer.getLong(size - Long.BYTES);
+            if (crc(buffer, size - Long.BYTES) != expectedCrc) {
+                throw new IOException("checksum mismatch");
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("not a version " + VERSION + " analytics snapshot");
+            }
+            long createdAtMillis = buffer.getLong();
+
+            Map<TopicPartition, Long> offsets = new LinkedHashMap<>();
+            int partitionCount = buffer.getInt();
+            for (int i = 0; i < partitionCount; i++) {
+                String topic = getString(buffer);
+                offsets.put(new TopicPartition(topic, buffer.getInt()), buffer.getLong());
+            }
+
+            Map<String, byte[]> states = new LinkedHashMap<>();
+            int stateCount = buffer.getInt();
+            for (int i = 0; i < stateCount; i++) {
+                String name = getString(buffer);
+                byte[] state = new byte[buffer.getInt()];
+                buffer.get(state);
+                states.put(name, state);
+            }
+            return new AnalyticsSnapshot(createdAtMillis, offsets, states);
+        }
+    }
+
+    private void deleteOldSnapshots() throws IOException {
+        List<Path> files = snapshotFilesNewestFirst();
+        for (Path old : files.subList(Math.min(retainedSnapshots, files.size()), files.size())) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    private List<Path> snapshotFilesNewestFirst() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(PREFIX) && file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(SnapshotStore::createdAt).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long createdAt(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static int sizeOf(AnalyticsSnapshot snapshot) {
+        int size = Integer.BYTES * 2 + Long.BYTES + Integer.BYTES;
+        for (TopicPartition topicPartition : snapshot.offsets().keySet()) {
+            size += stringSize(topicPartition.topic()) + Integer.BYTES + Long.BYTES;
+        }
+        size += Integer.BYTES;
+        for (Map.Entry<String, byte[]> entry : snapshot.states().entrySet()) {
+            size += stringSize(entry.getKey()) + Integer.BYTES + entry.getValue().length;
+        }
+        return size + Long.BYTES;
+    }
+
+    private static int stringSize(String value) {
+        return Integer.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void putString(MappedByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long crc(MappedByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, length));
+        return crc.getValue();
+    }
+}
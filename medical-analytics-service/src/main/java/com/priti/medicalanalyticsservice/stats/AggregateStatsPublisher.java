@@ -0,0 +1,131 @@
+package com.priti.medicalanalyticsservice.stats;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.priti.medicalanalyticsservice.aggregation.Dimension;
+import com.priti.medicalanalyticsservice.aggregation.StreamingAggregationEngine;
+import medical.profile.events.MedicalProfileEvent;
+import medical.profile.stats.MedicalProfileStats;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Publishes per-window event counts to the medical-profile-stats topic, exactly once.
+//
+// This listener runs in its own consumer group inside a Kafka transaction (see KafkaStatsConfig): the stats records of a
+// batch and the batch's consumed offsets are committed together or not at all. After a crash or a rebalance the batch is
+// consumed again and, because the records are computed from the batch alone, produces exactly the same output.
+// read_committed consumers of medical-profile-stats therefore see every profile event counted once.
+//
+// The producer factory, template and transaction manager are deliberately not beans: registering them would replace the
+// non-transactional ones Spring Boot provides for the rest of the service (retry and dead-letter publishing).
+@Service
+@ConditionalOnProperty(name = "analytics.stats.enabled", havingValue = "true", matchIfMissing = true)
+public class AggregateStatsPublisher implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(AggregateStatsPublisher.class);
+
+    private final String statsTopic;
+
+    private final long windowMillis;
+
+    private final DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final KafkaTransactionManager<String, byte[]> transactionManager;
+
+    public AggregateStatsPublisher(KafkaProperties kafkaProperties,
+                                   @Value("${analytics.stats.topic:medical-profile-stats}") String statsTopic,
+                                   @Value("${analytics.stats.window-ms:60000}") long windowMillis,
+                                   @Value("${analytics.stats.transaction-id-prefix:medical-analytics-stats-}") String transactionIdPrefix,
+                                   @Value("${analytics.stats.producer.linger-ms:20}") int lingerMs,
+                                   @Value("${analytics.stats.producer.batch-size:65536}") int batchSize,
+                                   @Value("${analytics.stats.producer.compression-type:lz4}") String compressionType) {
+        this.statsTopic = statsTopic;
+        this.windowMillis = windowMillis;
+
+        Map<String, Object> producerProperties = kafkaProperties.buildProducerProperties(null);
+        producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        // Transactions need the idempotent producer, which in turn needs acks=all
+        producerProperties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        producerProperties.put(ProducerConfig.ACKS_CONFIG, "all");
+        // One batch commits many small records at once: give them time to fill a compressed batch per partition
+        producerProperties.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        producerProperties.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        producerProperties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+
+        this.producerFactory = new DefaultKafkaProducerFactory<>(producerProperties);
+        this.producerFactory.setTransactionIdPrefix(transactionIdPrefix);
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        this.transactionManager = new KafkaTransactionManager<>(producerFactory);
+    }
+
+    public KafkaTransactionManager<String, byte[]> getTransactionManager() {
+        return transactionManager;
+    }
+
+    // Sends join the transaction the container started for this batch; the container adds the offsets and commits.
+    @KafkaListener(topics="medical-profile", groupId="${analytics.stats.group-id:medical-analytics-stats}",
+            containerFactory="statsKafkaListenerContainerFactory")
+    public void publishStats(List<ConsumerRecord<String, byte[]>> records) {
+        Map<StatsKey, Long> counts = aggregate(records);
+        for (Map.Entry<StatsKey, Long> count : counts.entrySet()) {
+            StatsKey statsKey = count.getKey();
+            MedicalProfileStats stats = MedicalProfileStats.newBuilder()
+                    .setWindowStartMillis(statsKey.windowStartMillis())
+                    .setWindowEndMillis(statsKey.windowStartMillis() + windowMillis)
+                    .setDimension(statsKey.dimension().name())
+                    .setKey(statsKey.key())
+                    .setCount(count.getValue())
+                    .build();
+            // keyed by dimension value, so all windows of e.g. EMAIL_DOMAIN:test.com stay in order on one partition
+            kafkaTemplate.send(statsTopic, statsKey.dimension().name() + ":" + statsKey.key(), stats.toByteArray());
+        }
+        log.debug("Published {} stats records for a batch of {} events", counts.size(), records.size());
+    }
+
+    // Counts per tumbling window and dimension value. A pure function of the batch, so a redelivered batch
+    // produces the same records it produced before its transaction was aborted.
+    Map<StatsKey, Long> aggregate(List<ConsumerRecord<String, byte[]>> records) {
+        Map<StatsKey, Long> counts = new LinkedHashMap<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            MedicalProfileEvent event;
+            try {
+                event = MedicalProfileEvent.parseFrom(record.value());
+            } catch (InvalidProtocolBufferException e) {
+                continue; // dead-lettered by the main listener, nothing to count
+            }
+            long windowStartMillis = Math.floorDiv(record.timestamp(), windowMillis) * windowMillis;
+            counts.merge(new StatsKey(windowStartMillis, Dimension.EVENT_TYPE, event.getEventType()), 1L, Long::sum);
+            if (!event.getEmail().isEmpty()) { // update events only carry the email when it changed
+                counts.merge(new StatsKey(windowStartMillis, Dimension.EMAIL_DOMAIN,
+                        StreamingAggregationEngine.emailDomain(event.getEmail())), 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public void destroy() {
+        producerFactory.destroy();
+    }
+
+    record StatsKey(long windowStartMillis, Dimension dimension, String key) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.priti.medicalanalyticsservice.aggregation;
+
+import com.priti.medicalanalyticsservice.dto.WindowedCountsResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StreamingAggregationEngineTests {
+
+    private static final long MINUTE_START = 1_700_000_040_000L; // aligned to a minute boundary
+
+    @Test
+    void shouldSplitTumblingMinutesButKeepThemInSlidingWindow() {
+        StreamingAggregationEngine engine = new StreamingAggregationEngine(100);
+        engine.record("MEDICAL_PROFILE_CREATED", "a@test.com", MINUTE_START - 10_000); // previous minute
+        engine.record("MEDICAL_PROFILE_CREATED", "b@Test.com", MINUTE_START + 5_000);
+        engine.record("MEDICAL_PROFILE_CREATED", "c@other.org", MINUTE_START + 20_000);
+
+        long now = MINUTE_START + 30_000;
+        WindowedCountsResponseDTO tumbling = engine.query(Dimension.EMAIL_DOMAIN, AggregationWindow.MINUTE, WindowMode.TUMBLING, now);
+        WindowedCountsResponseDTO sliding = engine.query(Dimension.EMAIL_DOMAIN, AggregationWindow.MINUTE, WindowMode.SLIDING, now);
+
+        assertEquals(2, tumbling.getTotal());
+        assertEquals(1L, tumbling.getCounts().get("test.com"));
+        assertEquals(3, sliding.getTotal());
+        assertEquals(2L, sliding.getCounts().get("test.com"));
+    }
+
+    @Test
+    void shouldForgetBucketsOlderThanTheWindow() {
+        StreamingAggregationEngine engine = new StreamingAggregationEngine(100);
+        engine.record("MEDICAL_PROFILE_CREATED", "a@test.com", MINUTE_START);
+
+        WindowedCountsResponseDTO later = engine.query(Dimension.EVENT_TYPE, AggregationWindow.MINUTE, WindowMode.SLIDING,
+                MINUTE_START + 61_000);
+
+        assertEquals(0, later.getTotal());
+        assertNull(later.getCounts().get("MEDICAL_PROFILE_CREATED"));
+    }
+
+    @Test
+    void shouldFoldKeysBeyondTheCapIntoOther() {
+        StreamingAggregationEngine engine = new StreamingAggregationEngine(1);
+        engine.record("MEDICAL_PROFILE_CREATED", "a@first.com", MINUTE_START);
+        engine.record("MEDICAL_PROFILE_CREATED", "a@second.com", MINUTE_START);
+
+        WindowedCountsResponseDTO counts = engine.query(Dimension.EMAIL_DOMAIN, AggregationWindow.DAY, WindowMode.TUMBLING, MINUTE_START);
+
+        assertEquals(1L, counts.getCounts().get("first.com"));
+        assertEquals(1L, counts.getCounts().get(StreamingAggregationEngine.OTHER_KEY));
+    }
+}
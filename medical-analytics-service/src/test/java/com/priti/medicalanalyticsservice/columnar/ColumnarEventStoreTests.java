@@ -0,0 +1,79 @@
+package com.priti.medicalanalyticsservice.columnar;
+
+import com.priti.medicalanalyticsservice.dto.EventQueryResponseDTO;
+import medical.profile.events.MedicalProfileEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ColumnarEventStoreTests {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long MINUTE = 60_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldGroupByEmailDomainAcrossSegments() throws IOException {
+        ColumnarEventStore store = new ColumnarEventStore(directory.toString(), 1_000); // 5 segments
+        fill(store, 5_000);
+
+        EventQueryResponseDTO byDomain = store.count(START, START + 5_000 * MINUTE, null, null, EventGroupBy.EMAIL_DOMAIN);
+
+        assertEquals(5_000, byDomain.getTotal());
+        assertEquals(1_667L, byDomain.getGroups().get("d0.com"));
+        assertEquals(1_666L, byDomain.getGroups().get("d2.com"));
+        store.destroy();
+    }
+
+    @Test
+    void shouldOnlyScanSegmentsInsideTheTimeRange() throws IOException {
+        ColumnarEventStore store = new ColumnarEventStore(directory.toString(), 1_000);
+        fill(store, 5_000);
+
+        EventQueryResponseDTO range = store.count(START + 1_000 * MINUTE, START + 2_000 * MINUTE, "MEDICAL_PROFILE_CREATED",
+                null, EventGroupBy.NONE);
+
+        assertEquals(500, range.getTotal());
+        assertEquals(1_000, range.getScannedRows()); // zone maps skip the other four segments
+        store.destroy();
+    }
+
+    @Test
+    void shouldReopenSegmentsFromSnapshot() throws IOException {
+        ColumnarEventStore store = new ColumnarEventStore(directory.toString(), 1_000);
+        fill(store, 2_500);
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        store.writeSnapshot(new DataOutputStream(snapshot));
+        store.destroy();
+
+        ColumnarEventStore restored = new ColumnarEventStore(directory.toString(), 1_000);
+        restored.restoreSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray())));
+
+        EventQueryResponseDTO byType = restored.count(START, START + 2_500 * MINUTE, null, null, EventGroupBy.EVENT_TYPE);
+        assertEquals(1_250L, byType.getGroups().get("MEDICAL_PROFILE_CREATED"));
+        assertEquals(1_250L, byType.getGroups().get("MEDICAL_PROFILE_UPDATED"));
+        restored.destroy();
+    }
+
+    private static void fill(ColumnarEventStore store, int events) {
+        for (int i = 0; i < events; i++) {
+            MedicalProfileEvent event = MedicalProfileEvent.newBuilder()
+                    .setMedicalProfileId("id-" + i)
+                    .setName("Name " + i)
+                    .setEmail("user" + i + "@d" + (i % 3) + ".com")
+                    .setEventType(i % 2 == 0 ? "MEDICAL_PROFILE_CREATED" : "MEDICAL_PROFILE_UPDATED")
+                    .build();
+            store.handle(event, START + i * MINUTE);
+        }
+    }
+}
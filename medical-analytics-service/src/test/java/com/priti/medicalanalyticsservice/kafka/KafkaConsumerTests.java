@@ -0,0 +1,95 @@
+package com.priti.medicalanalyticsservice.kafka;
+
+import com.priti.medicalanalyticsservice.snapshot.SnapshotManager;
+import medical.profile.events.MedicalProfileEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class KafkaConsumerTests {
+
+    @Test
+    void shouldForwardBadRecordsAndKeepProcessingTheBatch() {
+        List<String> handled = new ArrayList<>();
+        FailedEventForwarder failedEventForwarder = mock(FailedEventForwarder.class);
+        KafkaConsumer kafkaConsumer = new KafkaConsumer(
+                List.of(handler("recorder", event -> handled.add(event.getMedicalProfileId()))),
+                new SnapshotManager(false, "target/test-snapshots", 1, List.of()),
+                failedEventForwarder);
+
+        ConsumerRecord<String, byte[]> corrupt = new ConsumerRecord<>("medical-profile", 0, 1, null, new byte[]{(byte) 0xFF});
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        kafkaConsumer.consumeEvents(List.of(record(0, "first"), corrupt, record(2, "second")), acknowledgment);
+
+        assertEquals(List.of("first", "second"), handled);
+        verify(failedEventForwarder).forward(same(corrupt), any(), eq(Set.of()));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void shouldRetryARecordOnlyInTheHandlersThatHaveNotAppliedIt() throws Exception {
+        List<String> counted = new ArrayList<>();
+        AtomicInteger failuresLeft = new AtomicInteger(2);
+        FailedEventForwarder failedEventForwarder = mock(FailedEventForwarder.class);
+        KafkaConsumer kafkaConsumer = new KafkaConsumer(
+                List.of(handler("counts", event -> counted.add(event.getMedicalProfileId())),
+                        handler("flaky", event -> {
+                            if (failuresLeft.getAndDecrement() > 0) {
+                                throw new IllegalStateException("unavailable");
+                            }
+                        })),
+                new SnapshotManager(false, "target/test-snapshots", 1, List.of()),
+                failedEventForwarder);
+
+        ConsumerRecord<String, byte[]> record = record(0, "first");
+        kafkaConsumer.consumeEvents(List.of(record), mock(Acknowledgment.class));
+        verify(failedEventForwarder).forward(same(record), any(), eq(Set.of("counts")));
+
+        // On the retry topic: the forwarded headers say "counts" already has it, and "flaky" fails once more
+        FailedEventForwarder.setAppliedHandlers(record.headers(), Set.of("counts"));
+        assertThrows(IllegalStateException.class, () -> kafkaConsumer.retryEvent(record));
+        assertEquals(Set.of("counts"), FailedEventForwarder.appliedHandlers(record.headers()));
+
+        kafkaConsumer.retryEvent(record);
+
+        assertEquals(List.of("first"), counted); // counted once, though the record went through three attempts
+        assertEquals(-1, failuresLeft.get());
+    }
+
+    private static MedicalProfileEventHandler handler(String name, Consumer<MedicalProfileEvent> onEvent) {
+        return new MedicalProfileEventHandler() {
+            @Override
+            public String handlerName() {
+                return name;
+            }
+
+            @Override
+            public void handle(MedicalProfileEvent event, long timestampMillis) {
+                onEvent.accept(event);
+            }
+        };
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String medicalProfileId) {
+        MedicalProfileEvent event = MedicalProfileEvent.newBuilder()
+                .setMedicalProfileId(medicalProfileId)
+                .setEmail(medicalProfileId + "@test.com")
+                .setEventType("MEDICAL_PROFILE_CREATED")
+                .build();
+        return new ConsumerRecord<>("medical-profile", 0, offset, medicalProfileId, event.toByteArray());
+    }
+}
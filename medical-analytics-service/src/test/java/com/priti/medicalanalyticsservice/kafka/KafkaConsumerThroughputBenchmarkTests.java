@@ -0,0 +1,148 @@
+package com.priti.medicalanalyticsservice.kafka;
+
+import com.priti.medicalanalyticsservice.aggregation.StreamingAggregationEngine;
+import com.priti.medicalanalyticsservice.sketch.SketchService;
+import com.priti.medicalanalyticsservice.snapshot.SnapshotManager;
+import medical.profile.events.MedicalProfileEvent;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Compares the old one-record-per-call listener with the batch, one-thread-per-partition, manually acked listener.
+// Skipped in normal builds. Run with: ./mvnw test -Dtest=KafkaConsumerThroughputBenchmarkTests -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EmbeddedKafka(partitions = KafkaConsumerThroughputBenchmarkTests.PARTITIONS, topics = KafkaConsumerThroughputBenchmarkTests.TOPIC)
+class KafkaConsumerThroughputBenchmarkTests {
+
+    static final String TOPIC = "medical-profile-benchmark";
+    static final int PARTITIONS = 4;
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 200_000);
+
+    @Test
+    void batchListenerShouldOutperformRecordListener(EmbeddedKafkaBroker broker) throws Exception {
+        produceEvents(broker);
+
+        double recordRate = runRecordListener(broker);
+        double batchRate = runBatchListener(broker);
+
+        System.out.printf("record listener (concurrency 1): %.0f events/s%n", recordRate);
+        System.out.printf("batch listener (concurrency %d, manual ack): %.0f events/s (%.1fx)%n",
+                PARTITIONS, batchRate, batchRate / recordRate);
+        assertTrue(batchRate > recordRate,
+                String.format("batch listener %.0f events/s, record listener %.0f events/s", batchRate, recordRate));
+    }
+
+    private double runRecordListener(EmbeddedKafkaBroker broker) throws InterruptedException {
+        KafkaConsumer kafkaConsumer = newKafkaConsumer(broker);
+        CountDownLatch done = new CountDownLatch(EVENTS);
+
+        ContainerProperties containerProperties = new ContainerProperties(TOPIC);
+        containerProperties.setMessageListener((MessageListener<String, byte[]>) record -> {
+            kafkaConsumer.consumeEvent(record);
+            done.countDown();
+        });
+
+        return measure(broker, containerProperties, 1, done);
+    }
+
+    private double runBatchListener(EmbeddedKafkaBroker broker) throws InterruptedException {
+        KafkaConsumer kafkaConsumer = newKafkaConsumer(broker);
+        CountDownLatch done = new CountDownLatch(EVENTS);
+
+        ContainerProperties containerProperties = new ContainerProperties(TOPIC);
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        containerProperties.setMessageListener((BatchAcknowledgingMessageListener<String, byte[]>) (records, acknowledgment) -> {
+            kafkaConsumer.consumeEvents(records, acknowledgment);
+            records.forEach(record -> done.countDown());
+        });
+
+        return measure(broker, containerProperties, PARTITIONS, done);
+    }
+
+    // Same handlers the application wires into the listener
+    private KafkaConsumer newKafkaConsumer(EmbeddedKafkaBroker broker) {
+        return new KafkaConsumer(List.of(
+                new StreamingAggregationEngine(10_000),
+                new SketchService(14, 4, 1024, 50, 3)),
+                new SnapshotManager(false, "target/benchmark-snapshots", 1, List.of()),
+                new FailedEventForwarder(new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps(broker))), TOPIC + "-retry"));
+    }
+
+    private double measure(EmbeddedKafkaBroker broker, ContainerProperties containerProperties, int concurrency,
+                           CountDownLatch done) throws InterruptedException {
+        ConcurrentMessageListenerContainer<String, byte[]> container =
+                new ConcurrentMessageListenerContainer<>(consumerFactory(broker), containerProperties);
+        container.setConcurrency(concurrency);
+
+        long start = System.nanoTime();
+        container.start();
+        boolean finished = done.await(5, TimeUnit.MINUTES);
+        long elapsedNanos = System.nanoTime() - start;
+        container.stop();
+
+        assertTrue(finished, "listener did not consume all events in time");
+        return EVENTS / (elapsedNanos / 1e9);
+    }
+
+    private DefaultKafkaConsumerFactory<String, byte[]> consumerFactory(EmbeddedKafkaBroker broker) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "benchmark-" + UUID.randomUUID()); // fresh group so each run reads the topic from the start
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    private Map<String, Object> producerProps(EmbeddedKafkaBroker broker) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return props;
+    }
+
+    private void produceEvents(EmbeddedKafkaBroker broker) {
+        try (KafkaProducer<String, byte[]> producer = new KafkaProducer<>(producerProps(broker))) {
+            for (int i = 0; i < EVENTS; i++) {
+                String id = UUID.randomUUID().toString();
+                MedicalProfileEvent event = MedicalProfileEvent.newBuilder()
+                        .setMedicalProfileId(id)
+                        .setName("Benchmark " + i)
+                        .setEmail("benchmark" + i + "@domain" + (i % 50) + ".com")
+                        .setEventType("MEDICAL_PROFILE_CREATED")
+                        .build();
+                producer.send(new ProducerRecord<>(TOPIC, id, event.toByteArray()));
+            }
+            producer.flush();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.priti.medicalanalyticsservice.readmodel;
+
+import com.priti.medicalanalyticsservice.dto.ProfileRebuildResponseDTO;
+import medical.profile.events.MedicalProfileEvent;
+import medical.profile.events.MedicalProfileEventKind;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Replays a mocked medical-profile topic with a single partition
+class ProfileReadModelRebuilderTests {
+
+    private static final TopicPartition PARTITION = new TopicPartition("medical-profile", 0);
+
+    private final ProfileReadModel readModel = new ProfileReadModel(Long.MAX_VALUE);
+
+    @SuppressWarnings("unchecked")
+    private final ConsumerFactory<String, byte[]> consumerFactory = mock(ConsumerFactory.class);
+
+    private final ProfileReadModelRebuilder rebuilder = new ProfileReadModelRebuilder(consumerFactory, readModel);
+
+    @AfterEach
+    void stop() {
+        rebuilder.destroy();
+    }
+
+    @Test
+    void shouldReplaceTheReadModelInTheBackground() {
+        readModel.handle(created("p0"), 1_000);
+        topic(0, "p0", "p1", "p2");
+
+        ProfileRebuildResponseDTO started = rebuilder.startRebuild(false);
+        ProfileRebuildResponseDTO finished = awaitFinished();
+
+        assertEquals("RUNNING", started.getStatus());
+        assertEquals("COMPLETED", finished.getStatus());
+        assertEquals(3, finished.getEventsRead());
+        assertEquals(3, readModel.size());
+    }
+
+    @Test
+    void shouldRefuseWhenTheTopicNoLongerStartsAtTheFirstEvent() {
+        readModel.handle(created("p0"), 1_000);
+        topic(5, "p5", "p6");
+
+        rebuilder.startRebuild(false);
+        ProfileRebuildResponseDTO finished = awaitFinished();
+
+        assertEquals("FAILED", finished.getStatus());
+        assertTrue(finished.getError().contains("starts at offset 5"), finished.getError());
+        assertTrue(readModel.getProfile("p0").isPresent());
+    }
+
+    @Test
+    void shouldKeepTheLiveReadModelWhenTheRebuildHasFewerProfilesUnlessForced() {
+        for (String id : List.of("p0", "p1", "p2")) {
+            readModel.handle(created(id), 1_000);
+        }
+        topic(0, "p0");
+
+        rebuilder.startRebuild(false);
+        assertEquals("FAILED", awaitFinished().getStatus());
+        assertEquals(3, readModel.size());
+
+        topic(0, "p0");
+        rebuilder.startRebuild(true); // the failed rebuild released the read model for the next one
+        assertEquals("COMPLETED", awaitFinished().getStatus());
+        assertEquals(1, readModel.size());
+    }
+
+    private ProfileRebuildResponseDTO awaitFinished() {
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> !"RUNNING".equals(rebuilder.getStatus().orElseThrow().getStatus()));
+        return rebuilder.getStatus().orElseThrow();
+    }
+
+    // The next consumer the rebuilder creates reads these profiles, starting at firstOffset
+    private void topic(long firstOffset, String... ids) {
+        MockConsumer<String, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updatePartitions(PARTITION.topic(), List.of(new PartitionInfo(PARTITION.topic(), PARTITION.partition(), null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, firstOffset));
+        consumer.updateEndOffsets(Map.of(PARTITION, firstOffset + ids.length));
+        consumer.schedulePollTask(() -> {
+            for (int i = 0; i < ids.length; i++) {
+                consumer.addRecord(new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), firstOffset + i, ids[i],
+                        created(ids[i]).toByteArray()));
+            }
+        });
+        when(consumerFactory.createConsumer(isNull(), eq("profile-rebuild"), isNull(), any(Properties.class))).thenReturn(consumer);
+    }
+
+    private static MedicalProfileEvent created(String id) {
+        return MedicalProfileEvent.newBuilder()
+                .setMedicalProfileId(id)
+                .setName("Name " + id)
+                .setEmail(id + "@test.com")
+                .setKind(MedicalProfileEventKind.MEDICAL_PROFILE_CREATED)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.priti.medicalanalyticsservice.readmodel;
+
+import medical.profile.events.MedicalProfileEvent;
+import medical.profile.events.MedicalProfileEventKind;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfileReadModelTests {
+
+    private static final long TOMBSTONE_RETENTION_MS = 7L * 24 * 60 * 60 * 1000;
+
+    @Test
+    void shouldApplyDeltasAndMoveProfileBetweenDomains() {
+        ProfileReadModel readModel = new ProfileReadModel(TOMBSTONE_RETENTION_MS);
+        readModel.handle(created("p1", "alice@old.com", 0), 1_000);
+        readModel.handle(MedicalProfileEvent.newBuilder()
+                .setMedicalProfileId("p1")
+                .setKind(MedicalProfileEventKind.MEDICAL_PROFILE_UPDATED)
+                .setVersion(1)
+                .addChangedFields("email")
+                .setEmail("alice@new.com")
+                .build(), 2_000);
+
+        ProfileView view = readModel.getProfile("p1").orElseThrow();
+        assertEquals("Name p1", view.name()); // untouched by the update
+        assertEquals("alice@new.com", view.email());
+        assertEquals(1, view.version());
+        assertTrue(readModel.getProfiles("old.com", null, 10).isEmpty());
+        assertEquals(List.of(view), readModel.getProfiles("new.com", null, 10));
+    }
+
+    @Test
+    void shouldIgnoreStaleEventsAndKeepDeletesDeleted() {
+        ProfileReadModel readModel = new ProfileReadModel(TOMBSTONE_RETENTION_MS);
+        readModel.handle(created("p1", "a@test.com", 0), 1_000);
+        readModel.handle(MedicalProfileEvent.newBuilder()
+                .setMedicalProfileId("p1")
+                .setKind(MedicalProfileEventKind.MEDICAL_PROFILE_DELETED)
+                .setVersion(1)
+                .build(), 2_000);
+        readModel.handle(created("p1", "a@test.com", 0), 3_000); // replayed from the start of the topic
+
+        assertTrue(readModel.getProfile("p1").isEmpty());
+        assertEquals(0, readModel.size());
+    }
+
+    @Test
+    void shouldPageInIdOrderAndSurviveSnapshots() throws IOException {
+        ProfileReadModel readModel = new ProfileReadModel(TOMBSTONE_RETENTION_MS);
+        for (String id : List.of("c", "a", "b")) {
+            readModel.handle(created(id, id + "@test.com", 0), 1_000);
+        }
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        readModel.writeSnapshot(new DataOutputStream(snapshot));
+
+        ProfileReadModel restored = new ProfileReadModel(TOMBSTONE_RETENTION_MS);
+        restored.restoreSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray())));
+
+        assertEquals(List.of("a", "b"), restored.getProfiles(null, null, 2).stream().map(ProfileView::id).toList());
+        assertEquals(List.of("c"), restored.getProfiles("test.com", "b", 2).stream().map(ProfileView::id).toList());
+    }
+
+    @Test
+    void shouldPruneTombstonesOlderThanTheRetention() throws IOException {
+        long now = System.currentTimeMillis();
+        ProfileReadModel readModel = new ProfileReadModel(TOMBSTONE_RETENTION_MS);
+        readModel.handle(created("old", "old@test.com", 0), now - TOMBSTONE_RETENTION_MS - 2_000);
+        readModel.handle(deleted("old", 1), now - TOMBSTONE_RETENTION_MS - 1_000);
+        readModel.handle(created("recent", "recent@test.com", 0), now - 2_000);
+        readModel.handle(deleted("recent", 1), now - 1_000);
+
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        readModel.writeSnapshot(new DataOutputStream(snapshot));
+        ProfileReadModel restored = new ProfileReadModel(TOMBSTONE_RETENTION_MS);
+        restored.restoreSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray())));
+        restored.pruneTombstones();
+
+        // Only the recent delete still shields its profile from a replayed creation
+        restored.handle(created("old", "old@test.com", 0), now);
+        restored.handle(created("recent", "recent@test.com", 0), now);
+        assertTrue(restored.getProfile("old").isPresent());
+        assertTrue(restored.getProfile("recent").isEmpty());
+    }
+
+    private static MedicalProfileEvent deleted(String id, long version) {
+        return MedicalProfileEvent.newBuilder()
+                .setMedicalProfileId(id)
+                .setKind(MedicalProfileEventKind.MEDICAL_PROFILE_DELETED)
+                .setVersion(version)
+                .build();
+    }
+
+    private static MedicalProfileEvent created(String id, String email, long version) {
+        return MedicalProfileEvent.newBuilder()
+                .setMedicalProfileId(id)
+                .setName("Name " + id)
+                .setEmail(email)
+                .setAddress("1 Test Street")
+                .setDateOfBirth("1990-01-01")
+                .setRegisteredDate("2024-01-01")
+                .setKind(MedicalProfileEventKind.MEDICAL_PROFILE_CREATED)
+                .setVersion(version)
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.priti.medicalanalyticsservice.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProbabilisticSketchTests {
+
+    @Test
+    void hyperLogLogShouldEstimateWithinTwoPercent() {
+        HyperLogLog hyperLogLog = new HyperLogLog(14);
+        for (int i = 0; i < 100_000; i++) {
+            hyperLogLog.add("patient-" + i);
+            hyperLogLog.add("patient-" + i); // duplicates must not count
+        }
+
+        assertEquals(100_000, hyperLogLog.estimate(), 2_000);
+    }
+
+    @Test
+    void mergedHyperLogLogsShouldMatchOneSketchOverAllValues() {
+        HyperLogLog first = new HyperLogLog(14);
+        HyperLogLog second = new HyperLogLog(14);
+        for (int i = 0; i < 50_000; i++) {
+            first.add("email-" + i + "@test.com");
+            second.add("email-" + (i + 25_000) + "@test.com"); // half overlaps with the first instance
+        }
+
+        first.merge(HyperLogLog.fromBytes(second.toBytes()));
+
+        assertEquals(75_000, first.estimate(), 1_500);
+    }
+
+    @Test
+    void topKShouldKeepHeavyHittersAndSurviveMerge() {
+        TopK first = new TopK(3, new CountMinSketch(4, 1024));
+        TopK second = new TopK(3, new CountMinSketch(4, 1024));
+        for (int i = 0; i < 1_000; i++) {
+            first.add("gmail.com");
+            second.add("outlook.com");
+            if (i % 2 == 0) {
+                first.add("yahoo.com");
+            }
+            first.add("rare" + i + ".com");
+        }
+
+        first.merge(CountMinSketch.fromBytes(second.getSketch().toBytes()), second.candidateKeys());
+        List<TopK.Entry> top = first.top(2);
+
+        assertEquals(2, top.size());
+        assertTrue(top.stream().anyMatch(entry -> entry.key().equals("gmail.com") && entry.estimate() >= 1_000));
+        assertTrue(top.stream().anyMatch(entry -> entry.key().equals("outlook.com") && entry.estimate() >= 1_000));
+    }
+}
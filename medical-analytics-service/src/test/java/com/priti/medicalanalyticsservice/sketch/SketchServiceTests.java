@@ -0,0 +1,68 @@
+package com.priti.medicalanalyticsservice.sketch;
+
+import com.priti.medicalanalyticsservice.dto.SketchSnapshotDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SketchServiceTests {
+
+    private final YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+
+    @Test
+    void shouldNotEvictRetainedMonthsWhenExportingAFutureMonth() {
+        SketchService service = new SketchService(14, 4, 1024, 10, 3);
+        service.record("a", "a@test.com", startOf(currentMonth));
+
+        service.exportSnapshot(currentMonth.plusYears(70));
+
+        assertEquals(0, service.getDistinctCounts(currentMonth.plusYears(70)).getDistinctPatients());
+        assertEquals(1, service.getDistinctCounts(currentMonth).getDistinctPatients());
+    }
+
+    @Test
+    void shouldDropMonthsOutsideTheRetentionOnIngest() {
+        SketchService service = new SketchService(14, 4, 1024, 10, 2);
+        YearMonth expired = currentMonth.minusMonths(2);
+        SketchSnapshotDTO expiredSnapshot = snapshotOf(expired);
+
+        service.record("a", "a@test.com", startOf(expired));
+        service.record("b", "b@test.com", startOf(currentMonth.minusMonths(1)));
+        service.record("c", "c@test.com", startOf(currentMonth));
+
+        assertEquals(0, service.getDistinctCounts(expired).getDistinctPatients());
+        assertEquals(1, service.getDistinctCounts(currentMonth.minusMonths(1)).getDistinctPatients());
+        assertEquals(1, service.getDistinctCounts(currentMonth).getDistinctPatients());
+        assertFalse(service.mergeSnapshot(expiredSnapshot));
+    }
+
+    @Test
+    void shouldMergeTheSameSnapshotOnlyOnce() {
+        SketchService service = new SketchService(14, 4, 1024, 10, 3);
+        service.record("a", "a@gmail.com", startOf(currentMonth));
+        SketchSnapshotDTO snapshot = snapshotOf(currentMonth);
+
+        assertTrue(service.mergeSnapshot(snapshot));
+        assertFalse(service.mergeSnapshot(snapshot)); // e.g. a retried import
+
+        assertEquals(3, service.getTopEmailDomains(currentMonth, 1).getDomains().get(0).estimate());
+        assertEquals(3, service.getDistinctCounts(currentMonth).getDistinctPatients()); // a, b and c
+    }
+
+    // A snapshot exported by another instance that saw two gmail.com patients in `month`
+    private static SketchSnapshotDTO snapshotOf(YearMonth month) {
+        SketchService other = new SketchService(14, 4, 1024, 10, 3);
+        other.record("b", "b@gmail.com", startOf(month));
+        other.record("c", "c@gmail.com", startOf(month));
+        return other.exportSnapshot(month);
+    }
+
+    private static long startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+}
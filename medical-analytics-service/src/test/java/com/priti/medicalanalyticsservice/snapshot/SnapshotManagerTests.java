@@ -0,0 +1,60 @@
+package com.priti.medicalanalyticsservice.snapshot;
+
+import com.priti.medicalanalyticsservice.aggregation.AggregationWindow;
+import com.priti.medicalanalyticsservice.aggregation.Dimension;
+import com.priti.medicalanalyticsservice.aggregation.StreamingAggregationEngine;
+import com.priti.medicalanalyticsservice.aggregation.WindowMode;
+import com.priti.medicalanalyticsservice.sketch.SketchService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotManagerTests {
+
+    private static final long NOW = 1_700_000_040_000L;
+
+    @TempDir
+    Path snapshotDirectory;
+
+    @Test
+    void shouldRestoreStateAndOffsetsFromLatestSnapshot() {
+        StreamingAggregationEngine engine = new StreamingAggregationEngine(100);
+        SketchService sketches = new SketchService(14, 4, 1024, 10, 3);
+        SnapshotManager manager = new SnapshotManager(true, snapshotDirectory.toString(), 2, List.of(engine, sketches));
+        List<ConsumerRecord<String, byte[]>> batch = List.of(
+                new ConsumerRecord<>("medical-profile", 0, 41L, "a", new byte[0]),
+                new ConsumerRecord<>("medical-profile", 1, 7L, "b", new byte[0]));
+        long recordedAt = System.currentTimeMillis(); // sketches only keep the last few months
+
+        manager.processBatch(batch, () -> {
+            engine.record("MEDICAL_PROFILE_CREATED", "a@test.com", NOW);
+            engine.record("MEDICAL_PROFILE_CREATED", "b@test.com", NOW);
+            sketches.record("a", "a@test.com", recordedAt);
+            sketches.record("b", "b@test.com", recordedAt);
+        });
+        manager.snapshot();
+
+        StreamingAggregationEngine restoredEngine = new StreamingAggregationEngine(100);
+        SketchService restoredSketches = new SketchService(14, 4, 1024, 10, 3);
+        SnapshotManager restoredManager = new SnapshotManager(true, snapshotDirectory.toString(), 2, List.of(restoredEngine, restoredSketches));
+        restoredManager.restore();
+
+        assertEquals(2, restoredEngine.query(Dimension.EMAIL_DOMAIN, AggregationWindow.DAY, WindowMode.TUMBLING, NOW).getTotal());
+        YearMonth month = YearMonth.from(Instant.ofEpochMilli(recordedAt).atZone(ZoneOffset.UTC));
+        assertEquals(2, restoredSketches.getDistinctCounts(month).getDistinctPatients());
+        assertEquals(OptionalLong.of(42L), restoredManager.takeRestoredOffset(new TopicPartition("medical-profile", 0)));
+        assertEquals(OptionalLong.of(8L), restoredManager.takeRestoredOffset(new TopicPartition("medical-profile", 1)));
+        assertTrue(restoredManager.takeRestoredOffset(new TopicPartition("medical-profile", 0)).isEmpty()); // only used once
+    }
+}
@@ -0,0 +1,139 @@
+package com.priti.medicalanalyticsservice.stats;
+
+import com.priti.medicalanalyticsservice.config.KafkaStatsConfig;
+import medical.profile.events.MedicalProfileEvent;
+import medical.profile.stats.MedicalProfileStats;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@EmbeddedKafka(partitions = 2, topics = {"medical-profile", "medical-profile-stats"},
+        brokerProperties = {"transaction.state.log.replication.factor=1", "transaction.state.log.min.isr=1"})
+class AggregateStatsPublisherTests {
+
+    private static final int EVENTS = 500;
+    private static final long WINDOW_START = 1_700_000_040_000L; // aligned to a minute boundary
+
+    @Test
+    void shouldCountEveryEventOnceEvenWhenABatchIsRedelivered(EmbeddedKafkaBroker broker) {
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        kafkaProperties.setBootstrapServers(List.of(broker.getBrokersAsString()));
+        AggregateStatsPublisher publisher = new AggregateStatsPublisher(kafkaProperties, "medical-profile-stats", 60_000,
+                "stats-test-", 5, 16_384, "lz4");
+
+        // The first batch publishes its stats and then fails, so its transaction is aborted and the batch redelivered
+        AtomicBoolean failed = new AtomicBoolean();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("aggregateStatsPublisher", publisher);
+        ConcurrentMessageListenerContainer<String, byte[]> container = new KafkaStatsConfig()
+                .statsKafkaListenerContainerFactory(consumerFactory(broker), beanFactory.getBeanProvider(AggregateStatsPublisher.class), 2)
+                .createContainer("medical-profile");
+        container.getContainerProperties().setGroupId("stats-test");
+        container.setupMessageListener((BatchMessageListener<String, byte[]>) records -> {
+            publisher.publishStats(records);
+            if (failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("simulated crash after publishing");
+            }
+        });
+
+        produceEvents(broker);
+        container.start();
+        try {
+            Map<String, Long> totals = readCommittedTotals(broker);
+            assertEquals((long) EVENTS, totals.get("EVENT_TYPE:MEDICAL_PROFILE_CREATED"));
+            assertEquals((long) EVENTS / 2, totals.get("EMAIL_DOMAIN:even.com"));
+            assertEquals((long) EVENTS / 2, totals.get("EMAIL_DOMAIN:odd.com"));
+        } finally {
+            container.stop();
+            publisher.destroy();
+        }
+    }
+
+    // Sums counts per dimension value until the stream has been quiet for a few seconds
+    private Map<String, Long> readCommittedTotals(EmbeddedKafkaBroker broker) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "stats-reader");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+
+        Map<String, Long> totals = new HashMap<>();
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(props)) {
+            consumer.subscribe(List.of("medical-profile-stats"));
+            long quietSince = System.currentTimeMillis();
+            long deadline = quietSince + 60_000;
+            while (System.currentTimeMillis() - quietSince < 5_000 && System.currentTimeMillis() < deadline) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(500))) {
+                    MedicalProfileStats stats = parse(record.value());
+                    assertEquals(WINDOW_START, stats.getWindowStartMillis());
+                    totals.merge(record.key(), stats.getCount(), Long::sum);
+                    quietSince = System.currentTimeMillis();
+                }
+            }
+        }
+        return totals;
+    }
+
+    private static MedicalProfileStats parse(byte[] value) {
+        try {
+            return MedicalProfileStats.parseFrom(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private DefaultKafkaConsumerFactory<String, byte[]> consumerFactory(EmbeddedKafkaBroker broker) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 100);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    private void produceEvents(EmbeddedKafkaBroker broker) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+
+        try (KafkaProducer<String, byte[]> producer = new KafkaProducer<>(props)) {
+            for (int i = 0; i < EVENTS; i++) {
+                MedicalProfileEvent event = MedicalProfileEvent.newBuilder()
+                        .setMedicalProfileId("id-" + i)
+                        .setEmail("user" + i + (i % 2 == 0 ? "@even.com" : "@odd.com"))
+                        .setEventType("MEDICAL_PROFILE_CREATED")
+                        .build();
+                producer.send(new ProducerRecord<>("medical-profile", null, WINDOW_START + i, "id-" + i, event.toByteArray()));
+            }
+            producer.flush();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.priti.medicalbillingservice.config;
+
+import com.priti.medicalbillingservice.kafka.MedicalProfileEventConsumer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// The fast-startup build (Spring AOT) evaluates @ConditionalOnProperty when the image is built, so whether the event
+// consumer exists no longer follows billing.provisioning.mode at runtime. medical-profile-service does read the
+// property at runtime: with "event" there and a grpc-built billing image, nobody would provision accounts. Refuse to
+// start instead. In a regular build the property and the beans always agree.
+@Component
+public class AotConditionsCheck {
+
+    public AotConditionsCheck(@Value("${billing.provisioning.mode:grpc}") String provisioningMode,
+                              ObjectProvider<MedicalProfileEventConsumer> eventConsumer) {
+        boolean eventMode = "event".equals(provisioningMode);
+        boolean consumerPresent = eventConsumer.getIfAvailable() != null;
+        if (eventMode != consumerPresent) {
+            throw new IllegalStateException("billing.provisioning.mode is '" + provisioningMode + "' but this build "
+                    + (consumerPresent ? "consumes" : "does not consume")
+                    + " medical-profile events. Rebuild the fast-startup image with --build-arg BILLING_PROVISIONING_MODE="
+                    + provisioningMode);
+        }
+    }
+}
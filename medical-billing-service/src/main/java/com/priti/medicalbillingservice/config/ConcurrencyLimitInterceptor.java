@@ -0,0 +1,74 @@
+package com.priti.medicalbillingservice.config;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Caps the number of calls in flight and closes the rest with RESOURCE_EXHAUSTED, so clients get a status they can
+// back off on instead of a reset stream. A permit is held from the start of the call until it completes or is cancelled.
+class ConcurrencyLimitInterceptor implements ServerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitInterceptor.class);
+
+    private final int maxCalls;
+    private final Semaphore permits;
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    ConcurrencyLimitInterceptor(int maxCalls) {
+        this.maxCalls = maxCalls;
+        this.permits = new Semaphore(maxCalls);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (!permits.tryAcquire()) {
+            long rejected = rejectedCalls.incrementAndGet();
+            if (rejected == 1 || rejected % 1000 == 0) {
+                log.warn("gRPC server saturated ({} calls in flight), {} calls rejected so far", maxCalls, rejected);
+            }
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription("Server is saturated, retry later"), new Metadata());
+            return new ServerCall.Listener<>() { };
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        try {
+            return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(call, headers)) {
+                @Override
+                public void onComplete() {
+                    try {
+                        super.onComplete();
+                    } finally {
+                        release.run();
+                    }
+                }
+
+                @Override
+                public void onCancel() {
+                    try {
+                        super.onCancel();
+                    } finally {
+                        release.run();
+                    }
+                }
+            };
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+}
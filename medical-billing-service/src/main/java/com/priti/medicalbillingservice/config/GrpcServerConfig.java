@@ -0,0 +1,109 @@
+package com.priti.medicalbillingservice.config;
+
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class GrpcServerConfig implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcServerConfig.class);
+
+    // Which executor the gRPC server runs our service handlers on.
+    // DEFAULT - whatever grpc-java picks (an unbounded cached thread pool)
+    // BOUNDED - fixed number of worker threads, so a burst cannot create thousands of threads. At most
+    //           pool-size + queue-capacity calls are in flight; the rest are closed with RESOURCE_EXHAUSTED
+    // VIRTUAL - one virtual thread per call, cheap to block on (db, other services) without sizing a pool
+    // DIRECT  - run handlers straight on the netty event loop. Only safe while handlers never block.
+    public enum ExecutorMode { DEFAULT, BOUNDED, VIRTUAL, DIRECT }
+
+    private final ExecutorMode executorMode;
+    private final int poolSize;
+    private final int queueCapacity;
+    private final int maxConcurrentCallsPerConnection;
+    private final int maxInboundMessageSize;
+    private final int flowControlWindow;
+
+    private ExecutorService serverExecutor; // only set for BOUNDED and VIRTUAL
+
+    public GrpcServerConfig(
+            @Value("${billing.grpc.server.executor:default}") String executorMode,
+            @Value("${billing.grpc.server.pool-size:16}") int poolSize,
+            @Value("${billing.grpc.server.queue-capacity:1000}") int queueCapacity,
+            @Value("${billing.grpc.server.max-concurrent-calls-per-connection:0}") int maxConcurrentCallsPerConnection,
+            @Value("${billing.grpc.server.max-inbound-message-size:4194304}") int maxInboundMessageSize,
+            @Value("${billing.grpc.server.flow-control-window:0}") int flowControlWindow) {
+        this.executorMode = ExecutorMode.valueOf(executorMode.trim().toUpperCase(Locale.ROOT));
+        this.poolSize = poolSize;
+        this.queueCapacity = queueCapacity;
+        this.maxConcurrentCallsPerConnection = maxConcurrentCallsPerConnection;
+        this.maxInboundMessageSize = maxInboundMessageSize;
+        this.flowControlWindow = flowControlWindow;
+    }
+
+    @Bean
+    public GrpcServerConfigurer grpcServerConfigurer() {
+        return serverBuilder -> {
+            switch (executorMode) {
+                case BOUNDED -> serverBuilder.executor(serverExecutor = boundedExecutor())
+                        .intercept(new ConcurrencyLimitInterceptor(poolSize + queueCapacity));
+                case VIRTUAL -> serverBuilder.executor(serverExecutor = Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("grpc-billing-vt-", 0).factory()));
+                case DIRECT -> serverBuilder.directExecutor();
+                case DEFAULT -> { } // keep grpc-java's own executor
+            }
+
+            serverBuilder.maxInboundMessageSize(maxInboundMessageSize);
+
+            if (serverBuilder instanceof NettyServerBuilder nettyServerBuilder) {
+                // 0 means "leave the netty default" so unset properties don't change behaviour
+                if (maxConcurrentCallsPerConnection > 0) {
+                    nettyServerBuilder.maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection); // HTTP/2 MAX_CONCURRENT_STREAMS advertised to clients
+                }
+                if (flowControlWindow > 0) {
+                    nettyServerBuilder.flowControlWindow(flowControlWindow);
+                }
+            }
+
+            log.info("gRPC server tuned: executor={}, poolSize={}, queueCapacity={}, maxConcurrentCallsPerConnection={}, maxInboundMessageSize={}, flowControlWindow={}",
+                    executorMode, poolSize, queueCapacity, maxConcurrentCallsPerConnection, maxInboundMessageSize, flowControlWindow);
+        };
+    }
+
+    // The gRPC server is stopped before this config bean is destroyed, so no new calls reach the executor here.
+    @Override
+    public void destroy() {
+        if (serverExecutor != null) {
+            serverExecutor.shutdown();
+        }
+    }
+
+    private ExecutorService boundedExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                60L, TimeUnit.SECONDS,
+                // Never rejects: grpc runs the call setup (and ConcurrencyLimitInterceptor) on this executor too, and a
+                // task rejected there is reported by netty as a reset stream. The interceptor bounds the calls let through.
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "grpc-billing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
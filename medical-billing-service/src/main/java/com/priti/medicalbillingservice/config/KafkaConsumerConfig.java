@@ -0,0 +1,31 @@
+package com.priti.medicalbillingservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+// Only active when billing accounts are provisioned from the medical-profile topic instead of the gRPC call.
+@Configuration
+@ConditionalOnProperty(name = "billing.provisioning.mode", havingValue = "event")
+public class KafkaConsumerConfig {
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> billingBatchListenerContainerFactory(
+            ConsumerFactory<String, byte[]> consumerFactory,
+            @Value("${billing.provisioning.consumer.concurrency:1}") int concurrency) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true); // hand the listener everything one poll returned instead of one record at a time
+        factory.setConcurrency(concurrency); // one consumer thread per partition at most, extra threads sit idle
+        // The listener reports which record failed (BatchListenerFailedException): the records before it are committed,
+        // and the failed one is redelivered with the rest of the batch, 1s apart. After 9 retries only the failed record
+        // is logged and skipped.
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 9L)));
+        return factory;
+    }
+}
@@ -1,6 +1,8 @@
 package com.priti.medicalbillingservice.grpc;
 
 import billing.MedicalBillingResponse;
+import com.priti.medicalbillingservice.model.BillingAccount;
+import com.priti.medicalbillingservice.service.BillingAccountService;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.server.service.GrpcService;
 import billing.MedicalBillingServiceGrpc.MedicalBillingServiceImplBase;
@@ -16,16 +18,26 @@ public class MedicalBillingGrpcService  extends MedicalBillingServiceImplBase {
     // The actual implementation will depend on the generated gRPC stubs and the business logic
     // that needs to be applied to the medical billing operations.
     private static final Logger log = org.slf4j.LoggerFactory.getLogger(MedicalBillingGrpcService.class);
+
+    private final BillingAccountService billingAccountService;
+
+    public MedicalBillingGrpcService(BillingAccountService billingAccountService) {
+        this.billingAccountService = billingAccountService;
+    }
+
     @Override
     public void createMedicalBillingAccount(billing.MedicalBillingRequest medicalBillingRequest, StreamObserver<billing.MedicalBillingResponse> responseObserver){
         log.info("createMedicalBillingAccount request received {}", medicalBillingRequest.toString());
 
-        //Business logic such as save to db, perform calculations, etc.
-        //we will not do it now.
+        // Same idempotent provisioning path as the kafka consumer, so both modes can be switched on safely at once.
+        BillingAccount account = billingAccountService.provisionAccount(
+                medicalBillingRequest.getMedicalProfileId(),
+                medicalBillingRequest.getName(),
+                medicalBillingRequest.getEmail());
 
         MedicalBillingResponse response = MedicalBillingResponse.newBuilder()
-                .setAccountId("12345")
-                .setStatus("ACTIVE")
+                .setAccountId(account.getAccountId())
+                .setStatus(account.getStatus())
                 .build();
 
         // Send the response back to the client
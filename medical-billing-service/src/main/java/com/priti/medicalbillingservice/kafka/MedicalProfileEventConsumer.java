@@ -0,0 +1,69 @@
+package com.priti.medicalbillingservice.kafka;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.priti.medicalbillingservice.service.BillingAccountService;
+import medical.profile.events.MedicalProfileEvent;
+import medical.profile.events.MedicalProfileEventKind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@ConditionalOnProperty(name = "billing.provisioning.mode", havingValue = "event")
+public class MedicalProfileEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(MedicalProfileEventConsumer.class);
+
+    private final BillingAccountService billingAccountService;
+
+    public MedicalProfileEventConsumer(BillingAccountService billingAccountService) {
+        this.billingAccountService = billingAccountService;
+    }
+
+    // If provisioning throws, the container's DefaultErrorHandler retries from the failed record and eventually skips it
+    // (see KafkaConsumerConfig). Retrying is safe because provisionAccount is idempotent.
+    @KafkaListener(topics = "medical-profile", groupId = "medical-billing-service",
+            containerFactory = "billingBatchListenerContainerFactory")
+    public void consumeEvents(List<byte[]> events) {
+        int provisioned = 0;
+        for (int i = 0; i < events.size(); i++) {
+            MedicalProfileEvent medicalProfileEvent;
+            try {
+                medicalProfileEvent = MedicalProfileEvent.parseFrom(events.get(i));
+            } catch (InvalidProtocolBufferException e) {
+                log.error("Error deserializing event {}", e.getMessage());
+                continue;
+            }
+
+            // updates and deletes are published on the same topic but do not concern billing accounts yet
+            if (!isCreated(medicalProfileEvent)) {
+                continue;
+            }
+
+            try {
+                billingAccountService.provisionAccount(
+                        medicalProfileEvent.getMedicalProfileId(),
+                        medicalProfileEvent.getName(),
+                        medicalProfileEvent.getEmail());
+            } catch (RuntimeException e) {
+                throw new BatchListenerFailedException("Could not provision billing account for medical profile "
+                        + medicalProfileEvent.getMedicalProfileId(), e, i);
+            }
+            provisioned++;
+        }
+        log.info("Processed batch of {} medical profile events, {} billing accounts provisioned", events.size(), provisioned);
+    }
+
+    // Events published before the typed kind existed only carry the event_type string
+    private static boolean isCreated(MedicalProfileEvent medicalProfileEvent) {
+        if (medicalProfileEvent.getKind() == MedicalProfileEventKind.MEDICAL_PROFILE_EVENT_KIND_UNSPECIFIED) {
+            return MedicalProfileEventKind.MEDICAL_PROFILE_CREATED.name().equals(medicalProfileEvent.getEventType());
+        }
+        return medicalProfileEvent.getKind() == MedicalProfileEventKind.MEDICAL_PROFILE_CREATED;
+    }
+}
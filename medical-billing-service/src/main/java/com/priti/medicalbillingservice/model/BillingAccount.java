@@ -0,0 +1,37 @@
+package com.priti.medicalbillingservice.model;
+
+public class BillingAccount {
+    private final String accountId;
+    private final String medicalProfileId;
+    private final String name;
+    private final String email;
+    private final String status;
+
+    public BillingAccount(String accountId, String medicalProfileId, String name, String email, String status) {
+        this.accountId = accountId;
+        this.medicalProfileId = medicalProfileId;
+        this.name = name;
+        this.email = email;
+        this.status = status;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public String getMedicalProfileId() {
+        return medicalProfileId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+}
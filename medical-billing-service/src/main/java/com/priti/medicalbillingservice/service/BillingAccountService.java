@@ -0,0 +1,13 @@
+package com.priti.medicalbillingservice.service;
+
+import com.priti.medicalbillingservice.model.BillingAccount;
+
+import java.util.Optional;
+
+public interface BillingAccountService {
+
+    // Idempotent: provisioning the same medical profile twice returns the account created the first time.
+    BillingAccount provisionAccount(String medicalProfileId, String name, String email);
+
+    Optional<BillingAccount> findByMedicalProfileId(String medicalProfileId);
+}
@@ -0,0 +1,38 @@
+package com.priti.medicalbillingservice.service.impl;
+
+import com.priti.medicalbillingservice.model.BillingAccount;
+import com.priti.medicalbillingservice.service.BillingAccountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class BillingAccountServiceImpl implements BillingAccountService {
+
+    private static final Logger log = LoggerFactory.getLogger(BillingAccountServiceImpl.class);
+
+    // Billing has no database yet, so accounts live in memory keyed by medical profile id.
+    private final Map<String, BillingAccount> accountsByMedicalProfileId = new ConcurrentHashMap<>();
+
+    @Override
+    public BillingAccount provisionAccount(String medicalProfileId, String name, String email) {
+        // computeIfAbsent makes a redelivered kafka event or a retried gRPC call a no-op instead of a second account.
+        // The account id is derived from the profile id, so it stays the same even if this map is lost on restart.
+        return accountsByMedicalProfileId.computeIfAbsent(medicalProfileId, id -> {
+            String accountId = UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8)).toString();
+            log.info("Provisioned billing account {} for medical profile {}", accountId, id);
+            return new BillingAccount(accountId, id, name, email, "ACTIVE");
+        });
+    }
+
+    @Override
+    public Optional<BillingAccount> findByMedicalProfileId(String medicalProfileId) {
+        return Optional.ofNullable(accountsByMedicalProfileId.get(medicalProfileId));
+    }
+}
@@ -0,0 +1,141 @@
+package com.priti.medicalbillingservice.loadtest;
+
+import billing.MedicalBillingRequest;
+import billing.MedicalBillingResponse;
+import billing.MedicalBillingServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives CreateMedicalBillingAccount at a fixed request rate against a running billing service and prints latency percentiles.
+//
+// Run it against a local service (defaults shown):
+// ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+//     -Dexec.mainClass=com.priti.medicalbillingservice.loadtest.BillingGrpcLoadGenerator \
+//     -Dloadtest.host=localhost -Dloadtest.port=9001 -Dloadtest.rate=500 -Dloadtest.duration=30 -Dloadtest.warmup=5
+//
+// Requests are sent on a fixed schedule no matter how slow the server is (open model), and each latency is measured
+// from the time the request was *supposed* to go out. A stalled server therefore shows up in the percentiles instead
+// of silently lowering the request rate (coordinated omission). Failed calls are counted per status code (e.g.
+// DEADLINE_EXCEEDED, or calls rejected by a saturated BOUNDED executor), and calls still unanswered when the run gives
+// up waiting are reported as unfinished; neither is part of the percentiles.
+public final class BillingGrpcLoadGenerator {
+
+    private BillingGrpcLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = System.getProperty("loadtest.host", "localhost");
+        int port = Integer.getInteger("loadtest.port", 9001);
+        int rate = Integer.getInteger("loadtest.rate", 500); // requests per second
+        int durationSeconds = Integer.getInteger("loadtest.duration", 30);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup", 5);
+        long deadlineMillis = Long.getLong("loadtest.deadline-ms", 5_000L);
+
+        ManagedChannel channel = ManagedChannelBuilder.forAddress(host, port)
+                .usePlaintext()
+                .build();
+        MedicalBillingServiceGrpc.MedicalBillingServiceStub stub = MedicalBillingServiceGrpc.newStub(channel);
+
+        try {
+            System.out.printf("Warming up %s:%d for %ds at %d req/s%n", host, port, warmupSeconds, rate);
+            run(stub, rate, warmupSeconds, deadlineMillis);
+
+            System.out.printf("Measuring %s:%d for %ds at %d req/s%n", host, port, durationSeconds, rate);
+            Result result = run(stub, rate, durationSeconds, deadlineMillis);
+            result.print();
+        } finally {
+            channel.shutdown().awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    static Result run(MedicalBillingServiceGrpc.MedicalBillingServiceStub stub, int rate, int durationSeconds, long deadlineMillis)
+            throws InterruptedException {
+        int total = rate * durationSeconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long[] latencies = new long[total]; // every request writes only its own slot, so no locking is needed
+        Map<Status.Code, AtomicLong> errors = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(total);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            int slot = i;
+            MedicalBillingRequest request = MedicalBillingRequest.newBuilder()
+                    .setMedicalProfileId("load-" + i)
+                    .setName("Load Test " + i)
+                    .setEmail("load" + i + "@test.com")
+                    .build();
+
+            stub.withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS)
+                    .createMedicalBillingAccount(request, new StreamObserver<>() {
+                        @Override
+                        public void onNext(MedicalBillingResponse response) {
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            latencies[slot] = -1;
+                            errors.computeIfAbsent(Status.fromThrowable(t).getCode(), code -> new AtomicLong()).incrementAndGet();
+                            done.countDown();
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            latencies[slot] = System.nanoTime() - intendedStart;
+                            done.countDown();
+                        }
+                    });
+        }
+
+        // Every call has a deadline, so all of them should have finished by now; the ones that have not are still counted
+        done.await(deadlineMillis + TimeUnit.SECONDS.toMillis(durationSeconds), TimeUnit.MILLISECONDS);
+        long elapsedNanos = System.nanoTime() - start;
+        long[] finished = latencies.clone(); // late answers must not change the result while it is printed
+        Map<Status.Code, Long> errorCounts = new TreeMap<>();
+        errors.forEach((code, count) -> errorCounts.put(code, count.get()));
+        return new Result(finished, errorCounts, total, elapsedNanos);
+    }
+
+    // latencies: > 0 answered in that many nanos, -1 failed, 0 never answered
+    record Result(long[] latencies, Map<Status.Code, Long> errors, int sent, long elapsedNanos) {
+
+        void print() {
+            long[] ok = Arrays.stream(latencies).filter(l -> l > 0).sorted().toArray();
+            long failed = Arrays.stream(latencies).filter(l -> l < 0).count();
+            long unfinished = Arrays.stream(latencies).filter(l -> l == 0).count();
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("sent=%d ok=%d failed=%d unfinished=%d throughput=%.1f req/s%n",
+                    sent, ok.length, failed, unfinished, ok.length / seconds);
+            if (!errors.isEmpty()) {
+                System.out.printf("failures by status: %s%n", errors);
+            }
+            if (ok.length == 0) {
+                return;
+            }
+            System.out.printf("latency ms: p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f%n",
+                    percentile(ok, 50.0), percentile(ok, 90.0), percentile(ok, 99.0), percentile(ok, 99.9),
+                    ok[ok.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+    }
+}
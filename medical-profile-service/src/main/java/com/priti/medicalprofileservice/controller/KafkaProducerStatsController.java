@@ -0,0 +1,25 @@
+package com.priti.medicalprofileservice.controller;
+
+import com.priti.medicalprofileservice.dto.KafkaProducerStatsDTO;
+import com.priti.medicalprofileservice.kafka.KafkaProducer;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class KafkaProducerStatsController {
+
+    private final KafkaProducer kafkaProducer;
+
+    public KafkaProducerStatsController(KafkaProducer kafkaProducer) {
+        this.kafkaProducer = kafkaProducer;
+    }
+
+    @Operation(summary = "Outcome and latency of the profile events sent to Kafka since startup")
+    @GetMapping("/kafka-producer/stats")
+    public ResponseEntity<KafkaProducerStatsDTO> getKafkaProducerStats() {
+        return ResponseEntity.ok(new KafkaProducerStatsDTO(kafkaProducer.getSentEvents(), kafkaProducer.getFailedEvents(),
+                kafkaProducer.getAverageSendLatencyMillis(), kafkaProducer.getMaxSendLatencyMillis()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.priti.medicalprofileservice.dto;
+
+public class KafkaProducerStatsDTO {
+    private long sentEvents;
+    private long failedEvents;
+    private double averageSendLatencyMillis; // send() to broker acknowledgement, over all completed sends
+    private double maxSendLatencyMillis;
+
+    public KafkaProducerStatsDTO() {
+        // Default constructor for serialization/deserialization
+    }
+
+    public KafkaProducerStatsDTO(long sentEvents, long failedEvents, double averageSendLatencyMillis, double maxSendLatencyMillis) {
+        this.sentEvents = sentEvents;
+        this.failedEvents = failedEvents;
+        this.averageSendLatencyMillis = averageSendLatencyMillis;
+        this.maxSendLatencyMillis = maxSendLatencyMillis;
+    }
+
+    public long getSentEvents() {
+        return sentEvents;
+    }
+
+    public void setSentEvents(long sentEvents) {
+        this.sentEvents = sentEvents;
+    }
+
+    public long getFailedEvents() {
+        return failedEvents;
+    }
+
+    public void setFailedEvents(long failedEvents) {
+        this.failedEvents = failedEvents;
+    }
+
+    public double getAverageSendLatencyMillis() {
+        return averageSendLatencyMillis;
+    }
+
+    public void setAverageSendLatencyMillis(double averageSendLatencyMillis) {
+        this.averageSendLatencyMillis = averageSendLatencyMillis;
+    }
+
+    public double getMaxSendLatencyMillis() {
+        return maxSendLatencyMillis;
+    }
+
+    public void setMaxSendLatencyMillis(double maxSendLatencyMillis) {
+        this.maxSendLatencyMillis = maxSendLatencyMillis;
+    }
+}
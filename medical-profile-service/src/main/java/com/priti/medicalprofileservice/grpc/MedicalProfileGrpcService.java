@@ -0,0 +1,200 @@
+package com.priti.medicalprofileservice.grpc;
+
+import com.priti.medicalprofileservice.mapper.MedicalProfileMapper;
+import com.priti.medicalprofileservice.model.MedicalProfile;
+import com.priti.medicalprofileservice.repository.MedicalProfileRepository;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import profile.BatchGetProfilesRequest;
+import profile.BatchGetProfilesResponse;
+import profile.GetProfileRequest;
+import profile.MedicalProfileMessage;
+import profile.MedicalProfileServiceGrpc.MedicalProfileServiceImplBase;
+import profile.ScanProfilesRequest;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Internal read API for other services, next to the REST controller. Reads go straight to the repository, the writes
+// (and their events and billing provisioning) stay behind MedicalProfileService.
+@GrpcService
+public class MedicalProfileGrpcService extends MedicalProfileServiceImplBase {
+
+    private static final Logger log = LoggerFactory.getLogger(MedicalProfileGrpcService.class);
+
+    private final MedicalProfileRepository medicalProfileRepository;
+
+    private final int maxBatchSize;
+
+    private final int defaultScanPageSize;
+
+    private final int maxScanPageSize;
+
+    public MedicalProfileGrpcService(MedicalProfileRepository medicalProfileRepository,
+                                     @Value("${profile.grpc.batch.max-ids:1000}") int maxBatchSize,
+                                     @Value("${profile.grpc.scan.default-page-size:500}") int defaultScanPageSize,
+                                     @Value("${profile.grpc.scan.max-page-size:5000}") int maxScanPageSize) {
+        this.medicalProfileRepository = medicalProfileRepository;
+        this.maxBatchSize = maxBatchSize;
+        this.defaultScanPageSize = defaultScanPageSize;
+        this.maxScanPageSize = maxScanPageSize;
+    }
+
+    @Override
+    public void getProfile(GetProfileRequest request, StreamObserver<MedicalProfileMessage> responseObserver) {
+        try {
+            UUID id = parseId(request.getId());
+            MedicalProfile medicalProfile = medicalProfileRepository.findById(id)
+                    .orElseThrow(() -> Status.NOT_FOUND
+                            .withDescription("Medical Profile not found with ID: " + id)
+                            .asRuntimeException());
+            responseObserver.onNext(MedicalProfileMapper.toMessage(medicalProfile));
+            responseObserver.onCompleted();
+        } catch (StatusRuntimeException e) {
+            responseObserver.onError(e); // thrown, it would reach the client as UNKNOWN
+        }
+    }
+
+    @Override
+    public void batchGetProfiles(BatchGetProfilesRequest request, StreamObserver<BatchGetProfilesResponse> responseObserver) {
+        if (request.getIdsCount() > maxBatchSize) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("At most " + maxBatchSize + " ids per batch, got " + request.getIdsCount())
+                    .asRuntimeException());
+            return;
+        }
+        Set<UUID> ids = new LinkedHashSet<>();
+        try {
+            for (String id : request.getIdsList()) {
+                ids.add(parseId(id));
+            }
+        } catch (StatusRuntimeException e) {
+            responseObserver.onError(e);
+            return;
+        }
+
+        // findAllById is a single "where id in (...)" query
+        Map<UUID, MedicalProfile> found = medicalProfileRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(MedicalProfile::getId, Function.identity()));
+
+        BatchGetProfilesResponse.Builder response = BatchGetProfilesResponse.newBuilder();
+        for (UUID id : ids) {
+            MedicalProfile medicalProfile = found.get(id);
+            if (medicalProfile == null) {
+                response.addMissingIds(id.toString());
+            } else {
+                response.addProfiles(MedicalProfileMapper.toMessage(medicalProfile));
+            }
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void scanProfiles(ScanProfilesRequest request, StreamObserver<MedicalProfileMessage> responseObserver) {
+        int pageSize = request.getPageSize() <= 0 ? defaultScanPageSize : Math.min(request.getPageSize(), maxScanPageSize);
+        UUID afterId;
+        try {
+            afterId = request.getAfterId().isEmpty() ? null : parseId(request.getAfterId());
+        } catch (StatusRuntimeException e) {
+            responseObserver.onError(e);
+            return;
+        }
+
+        ServerCallStreamObserver<MedicalProfileMessage> serverObserver =
+                (ServerCallStreamObserver<MedicalProfileMessage>) responseObserver;
+        ProfileScan scan = new ProfileScan(serverObserver, pageSize, afterId);
+        serverObserver.setOnCancelHandler(scan::cancel);
+        // Called by gRPC (one at a time) whenever the client's flow control window has room again
+        serverObserver.setOnReadyHandler(scan::drain);
+    }
+
+    private static UUID parseId(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            throw Status.INVALID_ARGUMENT.withDescription("Invalid medical profile id: " + id).asRuntimeException();
+        }
+    }
+
+    // Sends profiles while the transport is ready and stops as soon as it isn't, so a slow client holds back the
+    // database reads instead of piling the rows up in memory. The next page is only queried once the current one has
+    // been sent, starting after its last id, so no transaction or cursor stays open between pages.
+    private final class ProfileScan {
+
+        private final ServerCallStreamObserver<MedicalProfileMessage> observer;
+
+        private final int pageSize;
+
+        private UUID lastId;
+
+        private Iterator<MedicalProfile> page = List.<MedicalProfile>of().iterator();
+
+        private boolean lastPage;
+
+        private volatile boolean done;
+
+        private long sent;
+
+        private ProfileScan(ServerCallStreamObserver<MedicalProfileMessage> observer, int pageSize, UUID afterId) {
+            this.observer = observer;
+            this.pageSize = pageSize;
+            this.lastId = afterId;
+        }
+
+        private void drain() {
+            if (done) {
+                return;
+            }
+            try {
+                while (observer.isReady() && !done) {
+                    if (!page.hasNext()) {
+                        if (lastPage) {
+                            done = true;
+                            observer.onCompleted();
+                            log.debug("ScanProfiles completed after {} profiles", sent);
+                            return;
+                        }
+                        fetchNextPage();
+                        continue;
+                    }
+                    MedicalProfile medicalProfile = page.next();
+                    lastId = medicalProfile.getId();
+                    observer.onNext(MedicalProfileMapper.toMessage(medicalProfile));
+                    sent++;
+                }
+            } catch (RuntimeException e) {
+                done = true;
+                log.error("ScanProfiles failed after {} profiles", sent, e);
+                observer.onError(Status.INTERNAL.withDescription("Scan failed after " + sent + " profiles")
+                        .withCause(e).asRuntimeException());
+            }
+        }
+
+        private void fetchNextPage() {
+            List<MedicalProfile> profiles = lastId == null
+                    ? medicalProfileRepository.findAllByOrderByIdAsc(Limit.of(pageSize))
+                    : medicalProfileRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(pageSize));
+            lastPage = profiles.size() < pageSize;
+            page = profiles.iterator();
+        }
+
+        private void cancel() {
+            done = true;
+            log.debug("ScanProfiles cancelled by the client after {} profiles", sent);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.priti.medicalprofileservice.grpc;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// Every call on the gRPC port must carry "authorization: Bearer <profile.grpc.auth.token>". The read API returns
+// names, emails, addresses and dates of birth and is not behind the API Gateway, so reaching port 9002 must not be
+// enough. Without a configured token every call is refused.
+@GrpcGlobalServerInterceptor
+public class SharedSecretServerInterceptor implements ServerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedSecretServerInterceptor.class);
+
+    static final Metadata.Key<String> AUTHORIZATION = Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final byte[] expected;
+
+    public SharedSecretServerInterceptor(@Value("${profile.grpc.auth.token:}") String token) {
+        if (token.isBlank()) {
+            log.warn("profile.grpc.auth.token is not set: every gRPC call will be rejected");
+        }
+        this.expected = token.isBlank() ? null : ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String authorization = headers.get(AUTHORIZATION);
+        // constant-time comparison, so the token cannot be guessed from response times
+        if (expected == null || authorization == null
+                || !MessageDigest.isEqual(expected, authorization.getBytes(StandardCharsets.UTF_8))) {
+            call.close(Status.UNAUTHENTICATED.withDescription("Missing or invalid bearer token"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+        return next.startCall(call, headers);
+    }
+}
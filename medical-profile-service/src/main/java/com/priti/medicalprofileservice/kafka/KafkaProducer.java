@@ -2,35 +2,129 @@ package com.priti.medicalprofileservice.kafka;
 
 import com.priti.medicalprofileservice.model.MedicalProfile;
 import medical.profile.events.MedicalProfileEvent;
+import medical.profile.events.MedicalProfileEventKind;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 
+import java.util.Set;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
 @Service
 public class KafkaProducer {
     private static final Logger log = org.slf4j.LoggerFactory.getLogger(KafkaProducer.class);
 
+    // Names used in MedicalProfileEvent.changed_fields
+    public static final String NAME_FIELD = "name";
+    public static final String EMAIL_FIELD = "email";
+    public static final String ADDRESS_FIELD = "address";
+    public static final String DATE_OF_BIRTH_FIELD = "date_of_birth";
+
+    private static final String TOPIC = "medical-profile";
+
     private final KafkaTemplate<String, byte[]> kafkaTemplate;
     // This is how we define our message types and we use kafkatemplate to send messages to Kafka topics.
     // This is telling kafka that we are going to be sending kafka event that has key of type string and
     // that has a value of type byte array.
 
+    // Outcome of every send as reported by the producer callbacks
+    private final LongAdder sentEvents = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+    private final LongAdder sendLatencyMicros = new LongAdder();
+    private final LongAccumulator maxSendLatencyMicros = new LongAccumulator(Math::max, 0);
+
     public KafkaProducer(KafkaTemplate<String, byte[]> kafkaTemplate) {
         this.kafkaTemplate = kafkaTemplate;
     }
 
-    public void sendEvent(MedicalProfile medicalProfile) {
-        MedicalProfileEvent event = MedicalProfileEvent.newBuilder()
-                .setMedicalProfileId(medicalProfile.getId().toString())
+    public void sendCreatedEvent(MedicalProfile medicalProfile) {
+        MedicalProfileEvent event = newEvent(medicalProfile, MedicalProfileEventKind.MEDICAL_PROFILE_CREATED, medicalProfile.getVersion())
                 .setName(medicalProfile.getName())
                 .setEmail(medicalProfile.getEmail())
-                .setEventType("MEDICAL_PROFILE_CREATED")
+                .setAddress(medicalProfile.getAddress())
+                .setDateOfBirth(medicalProfile.getDateOfBirth().toString())
+                .setRegisteredDate(medicalProfile.getRegisteredDate().toString())
                 .build();
+        send(event);
+    }
+
+    // Carries only the fields that changed, so consumers patch their copy instead of re-reading the profile.
+    public void sendUpdatedEvent(MedicalProfile medicalProfile, Set<String> changedFields) {
+        MedicalProfileEvent.Builder event = newEvent(medicalProfile, MedicalProfileEventKind.MEDICAL_PROFILE_UPDATED, medicalProfile.getVersion())
+                .addAllChangedFields(changedFields);
+        if (changedFields.contains(NAME_FIELD)) {
+            event.setName(medicalProfile.getName());
+        }
+        if (changedFields.contains(EMAIL_FIELD)) {
+            event.setEmail(medicalProfile.getEmail());
+        }
+        if (changedFields.contains(ADDRESS_FIELD)) {
+            event.setAddress(medicalProfile.getAddress());
+        }
+        if (changedFields.contains(DATE_OF_BIRTH_FIELD)) {
+            event.setDateOfBirth(medicalProfile.getDateOfBirth().toString());
+        }
+        send(event.build());
+    }
+
+    // A delete does not bump the row version, so the event uses the next one to stay newer than the last update.
+    public void sendDeletedEvent(MedicalProfile medicalProfile) {
+        send(newEvent(medicalProfile, MedicalProfileEventKind.MEDICAL_PROFILE_DELETED, medicalProfile.getVersion() + 1).build());
+    }
+
+    private static MedicalProfileEvent.Builder newEvent(MedicalProfile medicalProfile, MedicalProfileEventKind kind, long version) {
+        return MedicalProfileEvent.newBuilder()
+                .setMedicalProfileId(medicalProfile.getId().toString())
+                .setEventType(kind.name())
+                .setKind(kind)
+                .setOccurredAtMillis(System.currentTimeMillis())
+                .setVersion(version);
+    }
+
+    // Keyed by profile id: all events of one profile land on the same partition and are consumed in order.
+    // The send is asynchronous (batched by linger/batch.size); its outcome is only known in the callback.
+    private void send(MedicalProfileEvent event) {
+        long start = System.nanoTime();
         try {
-            kafkaTemplate.send("medical-profile", event.toByteArray()); //to keep size of msg down and to easily convert this msg to object in consumer code.
-            log.info("MedicalProfileCreated event sent: {}", event);
+            kafkaTemplate.send(TOPIC, event.getMedicalProfileId(), event.toByteArray()) //to keep size of msg down and to easily convert this msg to object in consumer code.
+                    .whenComplete((result, exception) -> {
+                        long latencyMicros = (System.nanoTime() - start) / 1_000;
+                        sendLatencyMicros.add(latencyMicros);
+                        maxSendLatencyMicros.accumulate(latencyMicros);
+                        if (exception == null) {
+                            sentEvents.increment();
+                            log.debug("{} event sent: [MedicalProfileId={}, version={}, changedFields={}, partition={}, offset={}, latencyMs={}]",
+                                    event.getKind(), event.getMedicalProfileId(), event.getVersion(), event.getChangedFieldsList(),
+                                    result.getRecordMetadata().partition(), result.getRecordMetadata().offset(), latencyMicros / 1_000.0);
+                        } else {
+                            failedEvents.increment();
+                            log.error("Error sending {} event: [MedicalProfileId={}, latencyMs={}] {}",
+                                    event.getKind(), event.getMedicalProfileId(), latencyMicros / 1_000.0, exception.getMessage());
+                        }
+                    });
         } catch (Exception e) {
-            log.error("Error sending MedicalProfileCreated event: {}", event);
+            // serialization errors or a full buffer (max.block.ms) surface here rather than in the callback
+            failedEvents.increment();
+            sendLatencyMicros.add((System.nanoTime() - start) / 1_000);
+            log.error("Error sending {} event: {}", event.getKind(), event.getMedicalProfileId());
         }
     }
+
+    public long getSentEvents() {
+        return sentEvents.sum();
+    }
+
+    public long getFailedEvents() {
+        return failedEvents.sum();
+    }
+
+    public double getAverageSendLatencyMillis() {
+        long completed = sentEvents.sum() + failedEvents.sum();
+        return completed == 0 ? 0 : sendLatencyMicros.sum() / 1_000.0 / completed;
+    }
+
+    public double getMaxSendLatencyMillis() {
+        return maxSendLatencyMicros.get() / 1_000.0;
+    }
 }
@@ -3,6 +3,7 @@ package com.priti.medicalprofileservice.mapper;
 import com.priti.medicalprofileservice.dto.MedicalProfileRequestDTO;
 import com.priti.medicalprofileservice.dto.MedicalProfileResponseDTO;
 import com.priti.medicalprofileservice.model.MedicalProfile;
+import profile.MedicalProfileMessage;
 
 import java.time.LocalDate;
 
@@ -27,4 +28,17 @@ public class MedicalProfileMapper {
         medicalProfile.setRegisteredDate(LocalDate.parse(medicalProfileRequestDTO.getRegisteredDate()));
         return medicalProfile;
     }
+
+    // Entity to the message of the internal gRPC API
+    public static MedicalProfileMessage toMessage(MedicalProfile medicalProfile) {
+        return MedicalProfileMessage.newBuilder()
+                .setId(medicalProfile.getId().toString())
+                .setName(medicalProfile.getName())
+                .setEmail(medicalProfile.getEmail())
+                .setAddress(medicalProfile.getAddress())
+                .setDateOfBirth(medicalProfile.getDateOfBirth().toString())
+                .setRegisteredDate(medicalProfile.getRegisteredDate().toString())
+                .setVersion(medicalProfile.getVersion())
+                .build();
+    }
 }
@@ -30,6 +30,11 @@ public class MedicalProfile {
     @NotNull
     private LocalDate registeredDate;
 
+    // Optimistic lock version, also published on every profile event so consumers can drop stale or duplicate events
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public MedicalProfile() {
         // Default constructor for JPA
     }
@@ -91,4 +96,12 @@ public class MedicalProfile {
         this.registeredDate = registeredDate;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
 }
@@ -1,13 +1,19 @@
 package com.priti.medicalprofileservice.repository;
 
 import com.priti.medicalprofileservice.model.MedicalProfile;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface MedicalProfileRepository extends JpaRepository<MedicalProfile, UUID> {
     boolean existsByEmail(String email);
     boolean existsByEmailAndIdNot(String email, UUID id);
+
+    // Keyset pages for the gRPC scan: each page continues after the last id of the previous one
+    List<MedicalProfile> findAllByOrderByIdAsc(Limit limit);
+    List<MedicalProfile> findByIdGreaterThanOrderByIdAsc(UUID id, Limit limit);
 }
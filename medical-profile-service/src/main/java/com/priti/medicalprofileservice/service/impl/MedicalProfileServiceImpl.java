@@ -10,10 +10,14 @@ import com.priti.medicalprofileservice.mapper.MedicalProfileMapper;
 import com.priti.medicalprofileservice.model.MedicalProfile;
 import com.priti.medicalprofileservice.repository.MedicalProfileRepository;
 import com.priti.medicalprofileservice.service.MedicalProfileService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -24,10 +28,17 @@ public class MedicalProfileServiceImpl implements MedicalProfileService {
 
     private final KafkaProducer kafkaProducer;
 
-    public MedicalProfileServiceImpl(MedicalProfileRepository medicalProfileRepository, MedicalBillingServiceGrpcClient medicalBillingServiceGrpcClient, KafkaProducer kafkaProducer) {
+    // In "event" mode billing provisions the account itself from the medical-profile topic, so we skip the blocking gRPC call.
+    private final boolean provisionBillingViaGrpc;
+
+    public MedicalProfileServiceImpl(MedicalProfileRepository medicalProfileRepository,
+                                     MedicalBillingServiceGrpcClient medicalBillingServiceGrpcClient,
+                                     KafkaProducer kafkaProducer,
+                                     @Value("${billing.provisioning.mode:grpc}") String billingProvisioningMode) {
         this.medicalProfileRepository = medicalProfileRepository;
         this.medicalBillingServiceGrpcClient = medicalBillingServiceGrpcClient;
         this.kafkaProducer = kafkaProducer;
+        this.provisionBillingViaGrpc = !"event".equalsIgnoreCase(billingProvisioningMode);
     }
 
     public List<MedicalProfileResponseDTO> getMedicalProfiles() {
@@ -43,13 +54,15 @@ public class MedicalProfileServiceImpl implements MedicalProfileService {
         }
         MedicalProfile medicalProfile = medicalProfileRepository.save(MedicalProfileMapper.toModel(medicalProfileRequestDTO));
 
-        medicalBillingServiceGrpcClient.createMedicalBillingAccount(
-                medicalProfile.getId().toString(),
-                medicalProfile.getName(),
-                medicalProfile.getEmail()
-        );
+        if (provisionBillingViaGrpc) {
+            medicalBillingServiceGrpcClient.createMedicalBillingAccount(
+                    medicalProfile.getId().toString(),
+                    medicalProfile.getName(),
+                    medicalProfile.getEmail()
+            );
+        }
 
-        kafkaProducer.sendEvent(medicalProfile);
+        kafkaProducer.sendCreatedEvent(medicalProfile);
 
         return MedicalProfileMapper.toDTO(medicalProfile);
         //It converts new profile details from client i.e reqestdto to medical profile entity then save it in db and convert entity to responsedto and return it.
@@ -62,17 +75,39 @@ public class MedicalProfileServiceImpl implements MedicalProfileService {
         if(medicalProfileRepository.existsByEmailAndIdNot(medicalProfileRequestDTO.getEmail(), id)){
             throw new EmailAlreadyExistsException("A medical profile with this email " + medicalProfileRequestDTO.getEmail()+ " already exists");
         }
+        LocalDate dateOfBirth = LocalDate.parse(medicalProfileRequestDTO.getDateOfBirth());
+
+        // Collect what actually changes before overwriting, the update event only carries these fields
+        Set<String> changedFields = new LinkedHashSet<>();
+        if (!Objects.equals(medicalProfile.getName(), medicalProfileRequestDTO.getName())) {
+            changedFields.add(KafkaProducer.NAME_FIELD);
+        }
+        if (!Objects.equals(medicalProfile.getEmail(), medicalProfileRequestDTO.getEmail())) {
+            changedFields.add(KafkaProducer.EMAIL_FIELD);
+        }
+        if (!Objects.equals(medicalProfile.getAddress(), medicalProfileRequestDTO.getAddress())) {
+            changedFields.add(KafkaProducer.ADDRESS_FIELD);
+        }
+        if (!Objects.equals(medicalProfile.getDateOfBirth(), dateOfBirth)) {
+            changedFields.add(KafkaProducer.DATE_OF_BIRTH_FIELD);
+        }
+
         medicalProfile.setName(medicalProfileRequestDTO.getName());
         medicalProfile.setEmail(medicalProfileRequestDTO.getEmail());
         medicalProfile.setAddress(medicalProfileRequestDTO.getAddress());
-        medicalProfile.setDateOfBirth(LocalDate.parse(medicalProfileRequestDTO.getDateOfBirth()));
+        medicalProfile.setDateOfBirth(dateOfBirth);
         MedicalProfile updatedMedicalProfile = medicalProfileRepository.save(medicalProfile);
+
+        if (!changedFields.isEmpty()) { // an update that changes nothing keeps its version and is not published
+            kafkaProducer.sendUpdatedEvent(updatedMedicalProfile, changedFields);
+        }
         return MedicalProfileMapper.toDTO(updatedMedicalProfile);
     }
 
     public MedicalProfileResponseDTO deleteMedicalProfile(UUID id){
         MedicalProfile medicalProfile = medicalProfileRepository.findById(id).orElseThrow(() -> new MedicalProfileNotFoundException("Medical Profile not found with ID: " + id));
         medicalProfileRepository.deleteById(id);
+        kafkaProducer.sendDeletedEvent(medicalProfile);
         return MedicalProfileMapper.toDTO(medicalProfile);
     }
 }
@@ -21,9 +21,13 @@ CREATE TABLE IF NOT EXISTS medical_profile (
     email VARCHAR(255) UNIQUE NOT NULL,
     address VARCHAR(255) NOT NULL,
     date_of_birth DATE NOT NULL,
-    registered_date DATE NOT NULL
+    registered_date DATE NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0
     );
 
+-- Tables created before profiles were versioned
+ALTER TABLE medical_profile ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
 -- Insert Alice Johnson if not already present
 INSERT INTO medical_profile (id, name, email, address, date_of_birth, registered_date)
 SELECT '1e7f74fa-3db9-4c30-b612-1d1234567890', 'Alice Johnson', 'alice@example.com', '123 Elm Street', '1990-05-20', '2024-06-01'
@@ -0,0 +1,223 @@
+package com.priti.medicalprofileservice.grpc;
+
+import com.priti.medicalprofileservice.model.MedicalProfile;
+import com.priti.medicalprofileservice.repository.MedicalProfileRepository;
+import io.grpc.Context;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import profile.BatchGetProfilesRequest;
+import profile.BatchGetProfilesResponse;
+import profile.GetProfileRequest;
+import profile.MedicalProfileMessage;
+import profile.MedicalProfileServiceGrpc;
+import profile.MedicalProfileServiceGrpc.MedicalProfileServiceBlockingStub;
+import profile.ScanProfilesRequest;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Calls the service through an in-process server, with the repository backed by a sorted map of profiles
+class MedicalProfileGrpcServiceTests {
+
+    private static final String TOKEN = "test-token";
+
+    private final NavigableMap<UUID, MedicalProfile> profiles = new TreeMap<>();
+
+    private final AtomicInteger pageQueries = new AtomicInteger();
+
+    private final MedicalProfileRepository repository = mock(MedicalProfileRepository.class);
+
+    private Server server;
+
+    private ManagedChannel channel;
+
+    private MedicalProfileServiceBlockingStub stub;
+
+    @BeforeEach
+    void start() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            UUID id = UUID.randomUUID();
+            profiles.put(id, new MedicalProfile(id, "Profile " + i, "profile" + i + "@test.com", "Street " + i,
+                    LocalDate.of(1990, 1, 1 + i), LocalDate.of(2024, 1, 1)));
+        }
+        when(repository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(profiles.get(invocation.<UUID>getArgument(0))));
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            List<MedicalProfile> found = new ArrayList<>();
+            invocation.<Iterable<UUID>>getArgument(0).forEach(id -> Optional.ofNullable(profiles.get(id)).ifPresent(found::add));
+            return found;
+        });
+        when(repository.findAllByOrderByIdAsc(any())).thenAnswer(invocation -> page(profiles, invocation.getArgument(0)));
+        when(repository.findByIdGreaterThanOrderByIdAsc(any(), any())).thenAnswer(invocation ->
+                page(profiles.tailMap(invocation.getArgument(0), false), invocation.getArgument(1)));
+
+        String name = InProcessServerBuilder.generateName();
+        MedicalProfileGrpcService service = new MedicalProfileGrpcService(repository, 5, 500, 5000);
+        server = InProcessServerBuilder.forName(name).directExecutor()
+                .addService(ServerInterceptors.intercept(service, new SharedSecretServerInterceptor(TOKEN)))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        stub = withToken(MedicalProfileServiceGrpc.newBlockingStub(channel), "Bearer " + TOKEN);
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldGetAProfileById() {
+        MedicalProfile profile = profiles.firstEntry().getValue();
+
+        MedicalProfileMessage message = stub.getProfile(GetProfileRequest.newBuilder().setId(profile.getId().toString()).build());
+
+        assertEquals(profile.getEmail(), message.getEmail());
+        assertEquals(profile.getDateOfBirth().toString(), message.getDateOfBirth());
+    }
+
+    @Test
+    void shouldAnswerNotFoundAndInvalidArgument() {
+        StatusRuntimeException notFound = assertThrows(StatusRuntimeException.class,
+                () -> stub.getProfile(GetProfileRequest.newBuilder().setId(UUID.randomUUID().toString()).build()));
+        StatusRuntimeException invalid = assertThrows(StatusRuntimeException.class,
+                () -> stub.getProfile(GetProfileRequest.newBuilder().setId("not-a-uuid").build()));
+
+        assertEquals(Status.Code.NOT_FOUND, notFound.getStatus().getCode());
+        assertEquals(Status.Code.INVALID_ARGUMENT, invalid.getStatus().getCode());
+    }
+
+    @Test
+    void shouldReturnABatchInRequestOrderWithTheMissingIds() {
+        List<UUID> ids = new ArrayList<>(profiles.keySet());
+        UUID missing = UUID.randomUUID();
+
+        BatchGetProfilesResponse response = stub.batchGetProfiles(BatchGetProfilesRequest.newBuilder()
+                .addIds(ids.get(3).toString())
+                .addIds(missing.toString())
+                .addIds(ids.get(0).toString())
+                .addIds(ids.get(3).toString()) // duplicates are answered once
+                .build());
+
+        assertEquals(List.of(ids.get(3).toString(), ids.get(0).toString()),
+                response.getProfilesList().stream().map(MedicalProfileMessage::getId).toList());
+        assertEquals(List.of(missing.toString()), response.getMissingIdsList());
+    }
+
+    @Test
+    void shouldRejectABatchAboveTheLimit() {
+        BatchGetProfilesRequest.Builder request = BatchGetProfilesRequest.newBuilder();
+        profiles.keySet().stream().limit(6).forEach(id -> request.addIds(id.toString()));
+
+        StatusRuntimeException rejected = assertThrows(StatusRuntimeException.class, () -> stub.batchGetProfiles(request.build()));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, rejected.getStatus().getCode());
+    }
+
+    @Test
+    void shouldScanEveryProfileInIdOrderPageByPage() {
+        List<String> scanned = new ArrayList<>();
+        stub.scanProfiles(ScanProfilesRequest.newBuilder().setPageSize(3).build())
+                .forEachRemaining(message -> scanned.add(message.getId()));
+
+        assertEquals(profiles.keySet().stream().map(UUID::toString).toList(), scanned);
+        assertEquals(4, pageQueries.get()); // 3 + 3 + 3 + 1
+    }
+
+    @Test
+    void shouldResumeAScanAfterTheGivenId() {
+        List<UUID> ids = new ArrayList<>(profiles.keySet());
+        List<String> scanned = new ArrayList<>();
+        stub.scanProfiles(ScanProfilesRequest.newBuilder().setPageSize(4).setAfterId(ids.get(5).toString()).build())
+                .forEachRemaining(message -> scanned.add(message.getId()));
+
+        assertEquals(ids.subList(6, 10).stream().map(UUID::toString).toList(), scanned);
+    }
+
+    @Test
+    void shouldStopReadingPagesWhenTheClientCancels() throws Exception {
+        Context.CancellableContext context = Context.current().withCancellation();
+        context.run(() -> {
+            Iterator<MedicalProfileMessage> scan = stub.scanProfiles(ScanProfilesRequest.newBuilder().setPageSize(2).build());
+            scan.next();
+            scan.next();
+            scan.next();
+        });
+        context.cancel(null);
+        Thread.sleep(200);
+
+        // The server only sends what the client asked for, so it never got far past the third profile
+        assertTrue(pageQueries.get() <= 3, "pages read: " + pageQueries.get());
+    }
+
+    @Test
+    void shouldRejectCallsWithoutTheSharedSecret() {
+        MedicalProfileServiceBlockingStub anonymous = MedicalProfileServiceGrpc.newBlockingStub(channel);
+        MedicalProfileServiceBlockingStub wrongToken = withToken(anonymous, "Bearer not-the-token");
+        GetProfileRequest request = GetProfileRequest.newBuilder().setId(profiles.firstKey().toString()).build();
+
+        assertEquals(Status.Code.UNAUTHENTICATED,
+                assertThrows(StatusRuntimeException.class, () -> anonymous.getProfile(request)).getStatus().getCode());
+        assertEquals(Status.Code.UNAUTHENTICATED,
+                assertThrows(StatusRuntimeException.class, () -> wrongToken.getProfile(request)).getStatus().getCode());
+    }
+
+    @Test
+    void shouldRejectEveryCallWhenNoSecretIsConfigured() throws IOException, InterruptedException {
+        String name = InProcessServerBuilder.generateName();
+        Server unconfigured = InProcessServerBuilder.forName(name).directExecutor()
+                .addService(ServerInterceptors.intercept(new MedicalProfileGrpcService(repository, 5, 500, 5000),
+                        new SharedSecretServerInterceptor("")))
+                .build()
+                .start();
+        ManagedChannel unconfiguredChannel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        try {
+            MedicalProfileServiceBlockingStub client = withToken(MedicalProfileServiceGrpc.newBlockingStub(unconfiguredChannel), "Bearer ");
+            StatusRuntimeException rejected = assertThrows(StatusRuntimeException.class,
+                    () -> client.getProfile(GetProfileRequest.newBuilder().setId(profiles.firstKey().toString()).build()));
+
+            assertEquals(Status.Code.UNAUTHENTICATED, rejected.getStatus().getCode());
+        } finally {
+            unconfiguredChannel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            unconfigured.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private List<MedicalProfile> page(NavigableMap<UUID, MedicalProfile> from, Limit limit) {
+        pageQueries.incrementAndGet();
+        return from.values().stream().limit(limit.max()).toList();
+    }
+
+    private static MedicalProfileServiceBlockingStub withToken(MedicalProfileServiceBlockingStub stub, String authorization) {
+        Metadata headers = new Metadata();
+        headers.put(SharedSecretServerInterceptor.AUTHORIZATION, authorization);
+        return stub.withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+    }
+}
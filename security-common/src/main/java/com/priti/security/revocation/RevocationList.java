@@ -0,0 +1,79 @@
+package com.priti.security.revocation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revoked token ids (jti) until the token would have expired anyway.
+//
+// isRevoked() is on the path of every validation, and almost every token checked is not revoked. A Bloom filter answers
+// that case in a few array reads without touching the exact set; only filter hits (revoked ids and ~1% false positives)
+// look the id up in the exact map. Entries are dropped from the map once their token has expired; their bits stay in the
+// filter, which only costs a map lookup for the few ids that hit them. The filter is rebuilt from the live entries when
+// it holds more ids (live or expired) than it was sized for, or when a filter grown past its default size is mostly
+// expired ids, so a rebuild (allocation plus hashing every live id) is rare rather than on every clean-up.
+public final class RevocationList {
+
+    private final long expectedRevocations;
+
+    private final double falsePositiveRate;
+
+    private final Map<String, Long> expiryByJti = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+
+    private long filterCapacity;
+
+    private long filterEntries; // ids added to the current filter, including ones expired since
+
+    private long expiredSinceRebuild;
+
+    public RevocationList(long expectedRevocations, double falsePositiveRate) {
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        this.filterCapacity = expectedRevocations;
+    }
+
+    // synchronized with removeExpired so an id added during a rebuild is not missing from the new filter
+    public synchronized void add(String jti, long expiresAtMillis) {
+        if (expiryByJti.putIfAbsent(jti, expiresAtMillis) == null) {
+            filterEntries++;
+        } else {
+            expiryByJti.merge(jti, expiresAtMillis, Math::max);
+        }
+        filter.add(jti);
+    }
+
+    public boolean isRevoked(String jti) {
+        return filter.mightContain(jti) && expiryByJti.containsKey(jti);
+    }
+
+    public synchronized int removeExpired(long nowMillis) {
+        int before = expiryByJti.size();
+        expiryByJti.values().removeIf(expiresAtMillis -> expiresAtMillis <= nowMillis);
+        int removed = before - expiryByJti.size();
+        expiredSinceRebuild += removed;
+        // more ids than the filter was sized for raise its false positive rate
+        boolean overfull = filterEntries > filterCapacity;
+        // a filter grown for a burst of revocations is given back once a quarter of its ids have expired
+        boolean oversized = filterCapacity > expectedRevocations && expiredSinceRebuild * 4 >= filterEntries;
+        if (overfull || oversized) {
+            filterCapacity = Math.max(expectedRevocations, expiryByJti.size() * 2L);
+            BloomFilter rebuilt = new BloomFilter(filterCapacity, falsePositiveRate);
+            expiryByJti.keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+            filterEntries = expiryByJti.size();
+            expiredSinceRebuild = 0;
+        }
+        return removed;
+    }
+
+    public int size() {
+        return expiryByJti.size();
+    }
+
+    // the filter currently in use, for tests
+    BloomFilter filter() {
+        return filter;
+    }
+}
@@ -0,0 +1,104 @@
+package com.priti.security.revocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevocationListTests {
+
+    @Test
+    void shouldReportRevokedIdsUntilTheyExpire() {
+        RevocationList revocationList = new RevocationList(100, 0.01);
+        revocationList.add("a", 1_000);
+        revocationList.add("b", 2_000);
+
+        assertTrue(revocationList.isRevoked("a"));
+        assertTrue(revocationList.isRevoked("b"));
+        assertFalse(revocationList.isRevoked("c"));
+
+        assertEquals(1, revocationList.removeExpired(1_000));
+        assertFalse(revocationList.isRevoked("a"));
+        assertTrue(revocationList.isRevoked("b"));
+        assertEquals(1, revocationList.size());
+    }
+
+    @Test
+    void shouldKeepTheLatestExpiryOfAnIdRevokedTwice() {
+        RevocationList revocationList = new RevocationList(100, 0.01);
+        revocationList.add("a", 2_000);
+        revocationList.add("a", 1_000);
+
+        assertEquals(0, revocationList.removeExpired(1_500));
+        assertTrue(revocationList.isRevoked("a"));
+    }
+
+    @Test
+    void shouldStillFindEveryIdAfterGrowingPastItsExpectedSize() {
+        RevocationList revocationList = new RevocationList(10, 0.01);
+        String[] ids = new String[1_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID().toString();
+            revocationList.add(ids[i], Long.MAX_VALUE);
+        }
+        revocationList.removeExpired(0); // rebuilds the filter for the larger size
+
+        for (String id : ids) {
+            assertTrue(revocationList.isRevoked(id));
+        }
+    }
+
+    @Test
+    void shouldOnlyRebuildTheFilterWhenItIsFull() {
+        RevocationList revocationList = new RevocationList(100, 0.01);
+        for (int i = 0; i < 100; i++) {
+            revocationList.add("a" + i, 1_000);
+        }
+        BloomFilter filter = revocationList.filter();
+
+        assertEquals(100, revocationList.removeExpired(1_000));
+        assertSame(filter, revocationList.filter()); // expired ids only leave stale bits behind
+
+        revocationList.add("b", 2_000);
+        revocationList.removeExpired(1_500);
+        assertNotSame(filter, revocationList.filter()); // 101 ids went into a filter sized for 100
+        assertTrue(revocationList.isRevoked("b"));
+    }
+
+    @Test
+    void shouldGiveBackAGrownFilterOnceMostOfItHasExpired() {
+        RevocationList revocationList = new RevocationList(10, 0.01);
+        for (int i = 0; i < 100; i++) {
+            revocationList.add("a" + i, i < 30 ? 1_000 : 2_000);
+        }
+        revocationList.removeExpired(0); // grows the filter for 100 ids
+        BloomFilter grown = revocationList.filter();
+
+        revocationList.removeExpired(1_000);
+        assertNotSame(grown, revocationList.filter());
+        assertTrue(revocationList.isRevoked("a99"));
+        assertFalse(revocationList.isRevoked("a0"));
+    }
+
+    @Test
+    void shouldStayCloseToTheConfiguredFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        // 1% of 100,000 is 1,000, give or take ~30
+        assertTrue(falsePositives < 1_300, "false positives: " + falsePositives);
+    }
+}